@@ -0,0 +1,28 @@
+package at.rovo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, which reports the allocation rate and the allocated bytes per
+ * operation next to the throughput and the latency percentiles.
+ * <p>
+ * Usage: <code>java -jar target/benchmarks.jar [JMH options]</code>, i.e. <code>-p N=10000 DiffBenchmark.linear</code>
+ * to run a single benchmark with a single input size.
+ *
+ * @author Roman Vottner
+ */
+public class Benchmarks
+{
+    public static void main(String[] args) throws Exception
+    {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,114 @@
+package at.rovo.benchmark;
+
+import at.rovo.diff.EditScriptDecoder;
+import at.rovo.diff.EditScriptEncoder;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import at.rovo.diff.TokenCodec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of encoding and decoding edit scripts with {@link EditScriptEncoder} and {@link
+ * EditScriptDecoder}, both with the inserted tokens stored inline as UTF-8 bytes and as token ids. As the size of the
+ * encoded scripts does not vary between invocations, it is printed once per trial instead of being measured.
+ *
+ * @author Roman Vottner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark
+{
+    /** The number of lines of the first object **/
+    @Param({"1000", "10000"})
+    public int N;
+    /** The number of edits applied to the first object to create the second one **/
+    @Param({"10", "100", "1000"})
+    public int D;
+
+    private String[] b;
+    private List<Snake<String>> snakes;
+    private String[] dictionary;
+    private Map<String, Integer> ids;
+    private ByteBuffer inline;
+    private ByteBuffer tokenIds;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Random random = new Random(42);
+        String[] a = Inputs.lines(random, this.N);
+        this.b = Inputs.edit(random, a, this.D, 26, Inputs.UNIFORM);
+        Results<String> res = LinearDiff.Compare(a, this.b, null, LinearDiff.DEFAULT_CUTOFF);
+        this.snakes = res.getSnakes();
+
+        this.ids = new HashMap<>();
+        for (String line : this.b)
+        {
+            this.ids.putIfAbsent(line, this.ids.size());
+        }
+        this.dictionary = new String[this.ids.size()];
+        for (Map.Entry<String, Integer> entry : this.ids.entrySet())
+        {
+            this.dictionary[entry.getValue()] = entry.getKey();
+        }
+
+        this.inline = this.encodeInline();
+        this.tokenIds = this.encodeIds();
+        System.out.println("Script size: " + this.inline.remaining() + " bytes inline, " + this.tokenIds.remaining()
+                           + " bytes with token ids");
+    }
+
+    @Benchmark
+    public ByteBuffer encodeInline() throws IOException
+    {
+        return EditScriptEncoder.encode(this.snakes, this.b, TokenCodec.UTF8);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeIds() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EditScriptEncoder<String> encoder =
+                new EditScriptEncoder<String>(Channels.newChannel(out)).tokenIds(this.b, this.ids::get);
+        encoder.writeAll(this.snakes);
+        encoder.finish();
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    @Benchmark
+    public List<Snake<String>> decodeInline() throws IOException
+    {
+        return new EditScriptDecoder<String>(this.inline.duplicate()).inlineTokens(TokenCodec.UTF8).readAll();
+    }
+
+    @Benchmark
+    public List<Snake<String>> decodeIds() throws IOException
+    {
+        return new EditScriptDecoder<String>(this.tokenIds.duplicate()).tokenIds(id -> this.dictionary[id])
+                .readAll();
+    }
+}
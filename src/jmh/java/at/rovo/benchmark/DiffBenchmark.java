@@ -0,0 +1,128 @@
+package at.rovo.benchmark;
+
+import at.rovo.diff.DiffUtil;
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Result;
+import at.rovo.diff.Results;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the comparison engines and the extraction of the differences for objects of <em>N</em> elements and a
+ * version of them with <em>D</em> edits, which are either spread over the whole object or clustered within a tenth of
+ * it. <em>M</em> follows from the mix of deletions, insertions and replacements. Both the throughput and the sampled
+ * latency, which includes its percentiles, are reported.
+ *
+ * @author Roman Vottner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiffBenchmark
+{
+    /** The number of elements of the first object **/
+    @Param({"1000", "10000"})
+    public int N;
+    /** The number of edits applied to the first object to create the second one **/
+    @Param({"10", "100"})
+    public int D;
+    /** The number of distinct elements **/
+    @Param({"4", "64"})
+    public int alphabet;
+    /** The distribution of the edits over the first object **/
+    @Param({Inputs.UNIFORM, Inputs.CLUSTERED})
+    public String distribution;
+
+    private String[] a;
+    private String[] b;
+    private String stringA;
+    private String stringB;
+    private Results<String> results;
+    private List<String[]> patterns;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Random random = new Random(42);
+        this.a = Inputs.random(random, this.N, this.alphabet);
+        this.b = Inputs.edit(random, this.a, this.D, this.alphabet, this.distribution);
+        this.stringA = Inputs.join(this.a);
+        this.stringB = Inputs.join(this.b);
+        this.results = LinearDiff.Compare(this.a, this.b);
+        this.patterns = Arrays.asList(this.a, this.b);
+    }
+
+    @Benchmark
+    public Results<String> greedyForward() throws Exception
+    {
+        return GreedyDiff.Compare(this.a, this.b, true);
+    }
+
+    @Benchmark
+    public Results<String> greedyReverse() throws Exception
+    {
+        return GreedyDiff.Compare(this.a, this.b, false);
+    }
+
+    @Benchmark
+    public Results<String> linear() throws Exception
+    {
+        return LinearDiff.Compare(this.a, this.b);
+    }
+
+    @Benchmark
+    public Results<String> greedyString() throws Exception
+    {
+        return GreedyDiff.Compare(this.stringA, this.stringB, true);
+    }
+
+    @Benchmark
+    public Results<String> linearString() throws Exception
+    {
+        return LinearDiff.Compare(this.stringA, this.stringB);
+    }
+
+    @Benchmark
+    public List<Result<String>> getDifferences()
+    {
+        return DiffUtil.getDifferences(this.results, this.patterns);
+    }
+
+    /**
+     * Compares both objects with {@link LinearDiff} in hybrid mode, where rectangles up to the area of the given cutoff
+     * are solved directly. A cutoff of 0 splits all rectangles at their middle snake.
+     */
+    @Benchmark
+    public Results<String> linearCutoff(Cutoff cutoff) throws Exception
+    {
+        return LinearDiff.Compare(this.a, this.b, null, cutoff.cutoff);
+    }
+
+    /**
+     * The cutoffs of {@link #linearCutoff(Cutoff)}, which are kept in their own state so the other benchmarks are not
+     * repeated for every cutoff.
+     */
+    @State(Scope.Benchmark)
+    public static class Cutoff
+    {
+        @Param({"0", "64", "256", "1024", "4096", "16384"})
+        public int cutoff;
+    }
+}
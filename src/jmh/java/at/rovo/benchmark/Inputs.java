@@ -0,0 +1,158 @@
+package at.rovo.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the compared objects of the benchmarks.
+ *
+ * @author Roman Vottner
+ */
+final class Inputs
+{
+    /** Spreads the edits evenly over the whole object **/
+    static final String UNIFORM = "uniform";
+    /** Places all edits within a tenth of the object **/
+    static final String CLUSTERED = "clustered";
+
+    /** prevent initializations of the util class **/
+    private Inputs()
+    {
+
+    }
+
+    /**
+     * Creates an object of the given length whose elements are drawn uniformly from the given number of distinct
+     * single character strings.
+     *
+     * @param random
+     *         The source of randomness
+     * @param length
+     *         The number of elements
+     * @param alphabet
+     *         The number of distinct elements
+     *
+     * @return The generated elements
+     */
+    static String[] random(Random random, int length, int alphabet)
+    {
+        String[] elements = new String[length];
+        for (int i = 0; i < length; i++)
+        {
+            elements[i] = element(random, alphabet);
+        }
+        return elements;
+    }
+
+    /**
+     * Creates an object of the given length which repeats a random block of elements, so that the object matches
+     * itself along long diagonals at every multiple of the period.
+     *
+     * @param random
+     *         The source of randomness
+     * @param length
+     *         The number of elements
+     * @param period
+     *         The number of elements of the repeated block
+     * @param alphabet
+     *         The number of distinct elements
+     *
+     * @return The generated elements
+     */
+    static String[] periodic(Random random, int length, int period, int alphabet)
+    {
+        String[] block = random(random, period, alphabet);
+        String[] elements = new String[length];
+        for (int i = 0; i < length; i++)
+        {
+            elements[i] = block[i % period];
+        }
+        return elements;
+    }
+
+    /**
+     * Creates a document of the given number of lines, which are mostly distinct.
+     *
+     * @param random
+     *         The source of randomness
+     * @param length
+     *         The number of lines
+     *
+     * @return The generated lines
+     */
+    static String[] lines(Random random, int length)
+    {
+        String[] lines = new String[length];
+        for (int i = 0; i < length; i++)
+        {
+            lines[i] = "line " + random.nextInt(Math.max(1, length / 2)) + " of the document";
+        }
+        return lines;
+    }
+
+    /**
+     * Applies the given number of single element deletions, insertions or replacements to a copy of the object.
+     *
+     * @param random
+     *         The source of randomness
+     * @param a
+     *         The object to edit
+     * @param edits
+     *         The number of edits
+     * @param alphabet
+     *         The number of distinct elements inserted elements are drawn from
+     * @param distribution
+     *         Either {@link #UNIFORM} or {@link #CLUSTERED}
+     *
+     * @return The edited copy of the object
+     */
+    static String[] edit(Random random, String[] a, int edits, int alphabet, String distribution)
+    {
+        List<String> elements = new ArrayList<>(Arrays.asList(a));
+        int window = CLUSTERED.equals(distribution) ? Math.max(1, a.length / 10) : a.length + 1;
+        int offset = CLUSTERED.equals(distribution) ? random.nextInt(a.length - window + 1) : 0;
+        for (int e = 0; e < edits; e++)
+        {
+            int pos = Math.min(offset + random.nextInt(window), elements.size());
+            int operation = pos == elements.size() ? 1 : random.nextInt(3);
+            if (operation == 0)
+            {
+                elements.remove(pos);
+            }
+            else if (operation == 1)
+            {
+                elements.add(pos, element(random, alphabet));
+            }
+            else
+            {
+                elements.set(pos, element(random, alphabet));
+            }
+        }
+        return elements.toArray(new String[elements.size()]);
+    }
+
+    /**
+     * Concatenates the single character elements to a string.
+     *
+     * @param elements
+     *         The elements to concatenate
+     *
+     * @return The string of all elements
+     */
+    static String join(String[] elements)
+    {
+        StringBuilder sb = new StringBuilder(elements.length);
+        for (String element : elements)
+        {
+            sb.append(element);
+        }
+        return sb.toString();
+    }
+
+    private static String element(Random random, int alphabet)
+    {
+        return String.valueOf((char) ('a' + random.nextInt(alphabet)));
+    }
+}
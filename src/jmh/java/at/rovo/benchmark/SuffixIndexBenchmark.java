@@ -0,0 +1,77 @@
+package at.rovo.benchmark;
+
+import at.rovo.diff.Results;
+import at.rovo.diff.SuffixIndexDiff;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link at.rovo.diff.LinearDiff} in hybrid mode with {@link SuffixIndexDiff}, both with the index built up
+ * front and with the diagonals walked until {@link SuffixIndexDiff#WALK_BUDGET} is exhausted, for long objects out of
+ * few distinct elements. The elements are either drawn at random, where the diagonals are short, or repeat a random
+ * block, where every diagonal at a multiple of the period is long.
+ *
+ * @author Roman Vottner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SuffixIndexBenchmark
+{
+    /** The number of elements of the first object **/
+    @Param({"65536", "262144", "1048576"})
+    public int N;
+    /** The number of distinct elements **/
+    @Param({"4", "26"})
+    public int alphabet;
+    /** The number of edits applied to the first object to create the second one **/
+    @Param({"100", "1000"})
+    public int D;
+    /** The number of elements of the block repeated by the first object or 0 to draw every element at random **/
+    @Param({"0", "4", "64"})
+    public int period;
+
+    private String[] a;
+    private String[] b;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(42);
+        this.a = this.period > 0 ? Inputs.periodic(random, this.N, this.period, this.alphabet)
+                                 : Inputs.random(random, this.N, this.alphabet);
+        this.b = Inputs.edit(random, this.a, this.D, this.alphabet, Inputs.UNIFORM);
+    }
+
+    @Benchmark
+    public Results<String> linear() throws Exception
+    {
+        return SuffixIndexDiff.Compare(this.a, this.b, false);
+    }
+
+    @Benchmark
+    public Results<String> suffixIndex() throws Exception
+    {
+        return SuffixIndexDiff.Compare(this.a, this.b, true);
+    }
+
+    @Benchmark
+    public Results<String> adaptive() throws Exception
+    {
+        return SuffixIndexDiff.Compare(this.a, this.b);
+    }
+}
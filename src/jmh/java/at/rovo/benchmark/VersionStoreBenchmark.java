@@ -0,0 +1,146 @@
+package at.rovo.benchmark;
+
+import at.rovo.diff.TokenCodec;
+import at.rovo.diff.VersionStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the trade-off of the keyframe interval of a {@link VersionStore} between the time to write a history of
+ * versions, the bytes it occupies on disk and the time to read a random version of it. As the size of the store does
+ * not vary between invocations, it is printed once per trial instead of being measured.
+ *
+ * @author Roman Vottner
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionStoreBenchmark
+{
+    /** The number of versions from one keyframe to the next **/
+    @Param({"1", "16", "64"})
+    public int interval;
+    /** The number of lines of the first version **/
+    @Param({"1000"})
+    public int N;
+    /** The number of edits applied to each version to create the next one **/
+    @Param({"10"})
+    public int D;
+    /** The number of versions of the history **/
+    @Param({"256"})
+    public int versions;
+
+    private List<String[]> history;
+    private Path directory;
+    private VersionStore<String> store;
+    private Random random;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        Random random = new Random(42);
+        this.history = new ArrayList<>(this.versions);
+        String[] version = Inputs.lines(random, this.N);
+        for (int i = 0; i < this.versions; i++)
+        {
+            this.history.add(version);
+            version = Inputs.edit(random, version, this.D, 26, Inputs.UNIFORM);
+        }
+
+        this.directory = Files.createTempDirectory("versions");
+        this.store = this.write(this.directory);
+        System.out.println("Storage size: " + this.store.getStorageSize() + " bytes");
+        this.random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.store.close();
+        delete(this.directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String[] get() throws IOException
+    {
+        return this.store.get(this.random.nextInt(this.versions));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 20)
+    public int add(Target target) throws Exception
+    {
+        try (VersionStore<String> store = this.write(target.directory))
+        {
+            return store.size();
+        }
+    }
+
+    private VersionStore<String> write(Path directory) throws Exception
+    {
+        VersionStore<String> store = new VersionStore<>(directory, TokenCodec.UTF8, String[]::new, this.interval);
+        for (int i = 0; i < this.history.size(); i++)
+        {
+            store.add(i, this.history.get(i));
+        }
+        return store;
+    }
+
+    private static void delete(Path directory) throws IOException
+    {
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * An empty directory per invocation of {@link #add(Target)}.
+     */
+    @State(Scope.Thread)
+    public static class Target
+    {
+        private Path directory;
+
+        @Setup(Level.Invocation)
+        public void create() throws IOException
+        {
+            this.directory = Files.createTempDirectory("versions");
+        }
+
+        @TearDown(Level.Invocation)
+        public void delete() throws IOException
+        {
+            VersionStoreBenchmark.delete(this.directory);
+        }
+    }
+}
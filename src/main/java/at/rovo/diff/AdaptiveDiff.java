@@ -0,0 +1,358 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Compares two objects with the comparison engine which is estimated to be the cheapest one for the given input.
+ * <p>
+ * Before the comparison a few statistics are gathered in a single pass over the second object and a sample of the first
+ * one: the lengths of both objects, the ratio of distinct elements in the sample, the ratio of sampled runs of
+ * consecutive elements which also occur in the second object and the number of matching pairs of elements. Looking up
+ * runs instead of single elements prevents objects which consist of a few repeated elements from appearing similar.
+ * From these the number of differences <em>D</em>, the number of deletions <em>P</em> of the shorter object and the
+ * number of matching pairs <em>R</em> are estimated, which in turn yield an estimation of the work and the memory each
+ * {@link DiffEngine} requires.
+ * <p>
+ * Of all engines which always find a shortest edit script and whose estimated memory fits into the configured budget
+ * the one with the least estimated work is chosen. If heuristics are allowed and even the cheapest of those engines is
+ * expected to be expensive, {@link PatienceDiff} or, for inputs with many repeated elements, {@link ChunkedDiff} is
+ * used instead. The chosen engine is recorded in the returned {@link Results}.
+ *
+ * @author Roman Vottner
+ */
+public class AdaptiveDiff
+{
+    /** The default number of bytes the comparison may use **/
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    /** The number of elements of the first object sampled to estimate the statistics **/
+    static final int SAMPLE_SIZE = 1024;
+    /** The estimated work per element above which a heuristic engine is chosen if allowed **/
+    static final int HEURISTIC_COST_FACTOR = 64;
+    /** The number of consecutive elements which are looked up in the second object to estimate the similarity **/
+    static final int SHINGLE_SIZE = 8;
+
+    /** The number of bytes the comparison may use **/
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    /** Whether engines which may not find a shortest edit script may be chosen **/
+    private boolean heuristics = false;
+    /** The executor the heuristic engines compare the regions between their anchors on **/
+    private ExecutorService executor = null;
+
+    /**
+     * Compares two objects using the default memory budget and only engines which find a shortest edit script.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b and the engine which was used
+     *
+     * @throws Exception
+     *         If the comparison fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b) throws Exception
+    {
+        return new AdaptiveDiff().compare(a, b);
+    }
+
+    /**
+     * Sets the number of bytes the comparison may use. Defaults to {@link #DEFAULT_MEMORY_BUDGET}.
+     *
+     * @param bytes
+     *         The memory budget in bytes
+     *
+     * @return This instance
+     */
+    public AdaptiveDiff memoryBudget(long bytes)
+    {
+        if (bytes <= 0)
+        {
+            throw new IllegalArgumentException("Memory budget must be positive but was " + bytes);
+        }
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    /**
+     * Defines whether engines which may not find a shortest edit script may be chosen for expensive comparisons.
+     * Defaults to false.
+     *
+     * @param allowed
+     *         True to allow heuristic engines
+     *
+     * @return This instance
+     */
+    public AdaptiveDiff heuristics(boolean allowed)
+    {
+        this.heuristics = allowed;
+        return this;
+    }
+
+    /**
+     * Sets the executor the heuristic engines compare the regions between their anchors on. If no executor is set, all
+     * regions are compared on the calling thread.
+     *
+     * @param executor
+     *         The executor to use
+     *
+     * @return This instance
+     */
+    public AdaptiveDiff executor(ExecutorService executor)
+    {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Compares two objects with the engine chosen by {@link #select(Object[], Object[])}.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b and the engine which was used
+     *
+     * @throws Exception
+     *         If the comparison fails
+     */
+    public <T> Results<T> compare(T[] a, T[] b) throws Exception
+    {
+        DiffEngine engine = this.select(a, b);
+        Results<T> res;
+        switch (engine)
+        {
+            case GREEDY:
+                // falls back to linear space if the number of differences was underestimated
+                res = GreedyDiff.Compare(a, b, true, this.memoryBudget);
+                break;
+            case LINEAR:
+                V VForward = new V(a.length, b.length, true, true);
+                V VReverse = new V(a.length, b.length, false, true);
+                List<Snake<T>> snakes = new ArrayList<>();
+                LinearDiff.Compare(0, snakes, null, null, a, 0, a.length, b, 0, b.length, VForward, VReverse);
+                res = new Results<>(snakes, null, null);
+                break;
+            case WU:
+                res = WuDiff.Compare(a, b, false);
+                break;
+            case WU_LINEAR:
+                res = WuDiff.Compare(a, b, true);
+                break;
+            case HUNT_SZYMANSKI:
+                res = HuntSzymanskiDiff.Compare(a, b);
+                break;
+            case PATIENCE:
+                res = PatienceDiff.Compare(a, b, this.executor);
+                break;
+            default:
+                res = ChunkedDiff.Compare(a, b, ChunkedDiff.DEFAULT_CHUNK_SIZE, this.executor);
+                break;
+        }
+        if (res.getEngine() == null)
+        {
+            res.setEngine(engine);
+        }
+        return res;
+    }
+
+    /**
+     * Chooses the engine to compare the given objects with.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The engine estimated to be the cheapest one for the given objects
+     */
+    public <T> DiffEngine select(T[] a, T[] b)
+    {
+        return this.select(Statistics.estimate(a, b));
+    }
+
+    /**
+     * Chooses the engine for the given statistics.
+     */
+    DiffEngine select(Statistics stats)
+    {
+        DiffEngine best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (DiffEngine engine : DiffEngine.values())
+        {
+            if (!engine.isExact() || stats.memory(engine) > this.memoryBudget)
+            {
+                continue;
+            }
+            double cost = stats.cost(engine);
+            if (cost < bestCost)
+            {
+                best = engine;
+                bestCost = cost;
+            }
+        }
+        if (best == null)
+        {
+            // the linear space engine which requires the least work
+            best = DiffEngine.WU_LINEAR;
+            bestCost = stats.cost(best);
+        }
+        if (this.heuristics && bestCost > (double) HEURISTIC_COST_FACTOR * (stats.n + stats.m))
+        {
+            return stats.distinct >= 0.5 ? DiffEngine.PATIENCE : DiffEngine.CHUNKED;
+        }
+        return best;
+    }
+
+    /**
+     * The statistics of two objects the work and the memory of the engines are estimated from.
+     */
+    static final class Statistics
+    {
+        /** The length of the first object **/
+        final int n;
+        /** The length of the second object **/
+        final int m;
+        /** The ratio of distinct elements in the sample of the first object **/
+        final double distinct;
+        /** The ratio of sampled runs of the first object which occur in the second object **/
+        final double similarity;
+        /** The estimated number of matching pairs of elements **/
+        final double matches;
+        /** The estimated number of differences **/
+        final double differences;
+
+        Statistics(int n, int m, double distinct, double similarity, double matches)
+        {
+            this.n = n;
+            this.m = m;
+            this.distinct = distinct;
+            this.similarity = similarity;
+            this.matches = matches;
+            this.differences = Math.max(Math.abs(n - m), n + m - 2 * similarity * Math.min(n, m));
+        }
+
+        /**
+         * Gathers the statistics of the given objects.
+         */
+        static <T> Statistics estimate(T[] a, T[] b)
+        {
+            if (a.length == 0 || b.length == 0)
+            {
+                return new Statistics(a.length, b.length, 1, 0, 0);
+            }
+
+            // a filter of the hash codes of all runs of consecutive elements of the second object
+            int shingle = Math.min(SHINGLE_SIZE, Math.min(a.length, b.length));
+            int bits = Math.min(26, 64 - Long.numberOfLeadingZeros(b.length * 8L - 1));
+            long[] filter = new long[Math.max(1, (1 << bits) >>> 6)];
+            for (int j = 0; j + shingle <= b.length; j++)
+            {
+                int slot = slot(b, j, shingle, bits);
+                filter[slot >>> 6] |= 1L << slot;
+            }
+
+            // the occurrences of the elements of a sample of the second object
+            int samplesB = Math.min(SAMPLE_SIZE, b.length);
+            Map<T, Integer> countsB = new HashMap<>(samplesB * 2);
+            for (int s = 0; s < samplesB; s++)
+            {
+                countsB.merge(b[(int) ((long) s * b.length / samplesB)], 1, Integer::sum);
+            }
+
+            int samplesA = Math.min(SAMPLE_SIZE, a.length);
+            Set<T> distinct = new HashSet<>(samplesA * 2);
+            int found = 0;
+            long pairs = 0;
+            for (int s = 0; s < samplesA; s++)
+            {
+                int i = (int) ((long) s * a.length / samplesA);
+                T element = a[i];
+                distinct.add(element);
+                int slot = slot(a, Math.min(i, a.length - shingle), shingle, bits);
+                if ((filter[slot >>> 6] & (1L << slot)) != 0)
+                {
+                    found++;
+                }
+                pairs += countsB.getOrDefault(element, 0);
+            }
+
+            // scale the matching pairs of both samples to the full objects
+            double matches = (double) pairs / samplesA * a.length / samplesB * b.length;
+            return new Statistics(a.length, b.length, (double) distinct.size() / samplesA, (double) found / samplesA,
+                                  matches);
+        }
+
+        /**
+         * Calculates the slot in the filter of the given number of consecutive elements.
+         */
+        private static int slot(Object[] elements, int start, int count, int bits)
+        {
+            int hash = count;
+            for (int i = start; i < start + count; i++)
+            {
+                hash = hash * 31 + elements[i].hashCode();
+            }
+            return bits == 0 ? 0 : (hash * 0x9E3779B9) >>> (32 - bits);
+        }
+
+        /**
+         * Estimates the number of k-line steps and comparisons of the given engine.
+         */
+        double cost(DiffEngine engine)
+        {
+            double length = this.n + this.m;
+            double delta = Math.abs(this.n - this.m);
+            double deletions = (this.differences - delta) / 2;
+            switch (engine)
+            {
+                case GREEDY:
+                    return length + this.differences * this.differences / 2;
+                case LINEAR:
+                    return 2 * (length + this.differences * this.differences / 2);
+                case WU:
+                    return length + (delta + 2 * deletions + 1) * (deletions + 1);
+                case WU_LINEAR:
+                    return 2 * (length + (delta + 2 * deletions + 1) * (deletions + 1));
+                case HUNT_SZYMANSKI:
+                    // a binary search for every matching pair
+                    double search = 1 + Math.log(Math.min(this.n, this.m) + 1) / Math.log(2);
+                    return length + (this.matches + this.n) * search;
+                default:
+                    return length;
+            }
+        }
+
+        /**
+         * Estimates the number of bytes the given engine requires.
+         */
+        double memory(DiffEngine engine)
+        {
+            double length = this.n + this.m;
+            double delta = Math.abs(this.n - this.m);
+            double deletions = (this.differences - delta) / 2;
+            switch (engine)
+            {
+                case GREEDY:
+                    // a copy of the end points of every contour
+                    return 8 * length + 4 * (this.differences + 1) * (this.differences + 1) +
+                           40 * (this.differences + 1);
+                case WU:
+                    // a node per calculated k-line
+                    return 12 * length + 12 * (delta + 2 * deletions + 1) * (deletions + 1);
+                case HUNT_SZYMANSKI:
+                    // a link per matching pair and the interned ids
+                    return 48 * length + 12 * this.matches;
+                default:
+                    return 16 * length;
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Compares two objects which are split by anchors, i.e. ranges known to be equal in both objects and appearing in the
+ * same order. The anchors cut the edit graph into independent sub-rectangles between consecutive anchors, which are
+ * compared concurrently by {@link LinearDiff}. The paths through all sub-rectangles and the diagonals of the anchors
+ * are then stitched together into a single edit script.
+ * <p>
+ * The resulting edit script is only as short as the shortest edit script of the full objects if the anchors are part of
+ * a longest common subsequence, which the callers try to ensure by choosing anchors which are unlikely to be matched
+ * differently.
+ *
+ * @author Roman Vottner
+ */
+class AnchoredDiff
+{
+    /** prevent initializations of the util class **/
+    private AnchoredDiff()
+    {
+
+    }
+
+    /**
+     * Compares the regions between the provided anchors and combines the results.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param b
+     *         The elements of the second object
+     * @param anchors
+     *         Consecutive triples of the x-position, the y-position and the length of each anchor, ordered ascending
+     *         and not overlapping in both objects
+     * @param count
+     *         The number of anchors
+     * @param executor
+     *         The executor to compare the regions on; if null all regions are compared on the calling thread
+     *
+     * @return The result transforming the first into the second object
+     *
+     * @throws Exception
+     *         If the comparison of a region fails
+     */
+    static <T> Results<T> compare(T[] a, T[] b, int[] anchors, int count, ExecutorService executor) throws Exception
+    {
+        // the regions between the anchors as consecutive quadruples of xStart, xEnd, yStart and yEnd
+        int[] regions = new int[(count + 1) * 4];
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i <= count; i++)
+        {
+            regions[i * 4] = x;
+            regions[i * 4 + 1] = i < count ? anchors[i * 3] : a.length;
+            regions[i * 4 + 2] = y;
+            regions[i * 4 + 3] = i < count ? anchors[i * 3 + 1] : b.length;
+            if (i < count)
+            {
+                x = anchors[i * 3] + anchors[i * 3 + 2];
+                y = anchors[i * 3 + 1] + anchors[i * 3 + 2];
+            }
+        }
+
+        List<Future<Results<T>>> futures = new ArrayList<>(count + 1);
+        for (int i = 0; i <= count; i++)
+        {
+            futures.add(null);
+            int xStart = regions[i * 4];
+            int xEnd = regions[i * 4 + 1];
+            int yStart = regions[i * 4 + 2];
+            int yEnd = regions[i * 4 + 3];
+            if (executor != null && xStart < xEnd && yStart < yEnd)
+            {
+                futures.set(i, executor.submit(() -> compareRegion(a, xStart, xEnd, b, yStart, yEnd)));
+            }
+        }
+
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        for (int i = 0; i <= count; i++)
+        {
+            int xStart = regions[i * 4];
+            int xEnd = regions[i * 4 + 1];
+            int yStart = regions[i * 4 + 2];
+            int yEnd = regions[i * 4 + 3];
+            if (xStart < xEnd && yStart < yEnd)
+            {
+                Results<T> res;
+                if (futures.get(i) != null)
+                {
+                    try
+                    {
+                        res = futures.get(i).get();
+                    }
+                    catch (ExecutionException eEx)
+                    {
+                        if (eEx.getCause() instanceof Exception)
+                        {
+                            throw (Exception) eEx.getCause();
+                        }
+                        throw eEx;
+                    }
+                }
+                else
+                {
+                    res = compareRegion(a, xStart, xEnd, b, yStart, yEnd);
+                }
+                builder.add(res.getSnakes());
+            }
+            else
+            {
+                builder.delete(xEnd - xStart);
+                builder.insert(yEnd - yStart);
+            }
+            if (i < count)
+            {
+                builder.keep(anchors[i * 3 + 2]);
+            }
+        }
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Compares the elements <em>[xStart, xEnd)</em> of the first object with the elements <em>[yStart, yEnd)</em> of
+     * the second object.
+     */
+    private static <T> Results<T> compareRegion(T[] a, int xStart, int xEnd, T[] b, int yStart, int yEnd)
+            throws Exception
+    {
+        return LinearDiff.Compare(Arrays.copyOfRange(a, xStart, xEnd), Arrays.copyOfRange(b, yStart, yEnd), null,
+                                  LinearDiff.DEFAULT_CUTOFF);
+    }
+}
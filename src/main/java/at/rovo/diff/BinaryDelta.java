@@ -0,0 +1,434 @@
+package at.rovo.diff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates a binary delta between two byte sequences which may be provided as byte arrays, heap or direct buffers or
+ * memory-mapped files. Unlike the comparison algorithms, which require arrays of objects, a binary delta does not
+ * describe a path through an edit graph but consists of instructions which either copy a range of the source to the
+ * target, regardless of its position in the source, or add literal bytes to the target.
+ * <p>
+ * The source is indexed by the {@link RollingChecksum rolling checksum} of every block of a fixed size, where the index
+ * is a hash table holding a single block per slot. The memory required by the index is therefore bound to 8 bytes per
+ * block of the source. The target is scanned with a rolling checksum window of the block size and each hit is verified
+ * and extended byte by byte in both directions. The scan of the target is split into segments which are searched
+ * concurrently, each segment yielding the copies found within it.
+ * <p>
+ * The delta starts with the magic bytes <code>JBD</code>, a format version and the length of the target. Each
+ * instruction consists of an op code followed by its length as variable length integer. Added bytes follow the length
+ * of an add instruction, while the source position of a copy instruction is stored as variable length, zigzag encoded
+ * distance to the end of the previous copy, which keeps sequential copies small. The delta is terminated by an end op
+ * code and can be applied via {@link BinaryPatch}.
+ * <p>
+ * As a single buffer is limited to 2 GB, source and target must not exceed this size.
+ *
+ * @author Roman Vottner
+ */
+public class BinaryDelta
+{
+    /** The default number of bytes per indexed block of the source **/
+    public static final int DEFAULT_BLOCK_SIZE = 32;
+    /** The minimum number of target bytes scanned per concurrently searched segment **/
+    public static final int MIN_SEGMENT_SIZE = 1 << 20;
+    /** The magic bytes identifying a binary delta **/
+    static final byte[] MAGIC = {'J', 'B', 'D'};
+    /** The version of the delta format **/
+    static final byte VERSION = 1;
+    /** Adds literal bytes to the target **/
+    static final int OP_ADD = 0x01;
+    /** Copies a range of the source to the target **/
+    static final int OP_COPY = 0x02;
+    /** Terminates the delta **/
+    static final int OP_END = 0x80;
+    /** The size of the internal buffer used when writing to a channel **/
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The number of bytes per indexed block of the source **/
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    /** The executor to search the segments of the target on **/
+    private ExecutorService executor = ForkJoinPool.commonPool();
+    /** The maximum number of concurrently searched segments **/
+    private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    /**
+     * Sets the number of bytes per indexed block of the source. Smaller blocks find shorter matches but increase the
+     * size of the index.
+     *
+     * @param blockSize
+     *         The number of bytes per block
+     *
+     * @return This instance
+     *
+     * @throws IllegalArgumentException
+     *         If the block size is smaller than 4 bytes
+     */
+    public BinaryDelta blockSize(int blockSize)
+    {
+        if (blockSize < 4)
+        {
+            throw new IllegalArgumentException("Block size must be at least 4 bytes but was " + blockSize);
+        }
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Sets the executor the segments of the target are searched on.
+     *
+     * @param executor
+     *         The executor to search the segments on
+     * @param parallelism
+     *         The maximum number of segments to search concurrently; 1 searches the whole target on the calling thread
+     *
+     * @return This instance
+     */
+    public BinaryDelta executor(ExecutorService executor, int parallelism)
+    {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Calculates the delta between two byte arrays using the default settings.
+     *
+     * @param source
+     *         The old version of the data
+     * @param target
+     *         The new version of the data
+     *
+     * @return The delta transforming the source into the target
+     *
+     * @throws IOException
+     *         If the search of a segment failed
+     */
+    public static byte[] compute(byte[] source, byte[] target) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDelta().write(ByteBuffer.wrap(source), ByteBuffer.wrap(target), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Calculates the delta between two files, which are memory-mapped for the comparison, and writes it to the provided
+     * channel.
+     *
+     * @param source
+     *         The file containing the old version of the data
+     * @param target
+     *         The file containing the new version of the data
+     * @param out
+     *         The channel to write the delta to
+     *
+     * @throws IOException
+     *         If the files could not be mapped or the delta could not be written
+     */
+    public void write(Path source, Path target, WritableByteChannel out) throws IOException
+    {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.READ))
+        {
+            this.write(sourceChannel.map(FileChannel.MapMode.READ_ONLY, 0, sourceChannel.size()),
+                       targetChannel.map(FileChannel.MapMode.READ_ONLY, 0, targetChannel.size()), out);
+        }
+    }
+
+    /**
+     * Calculates the delta between the provided buffers and writes it to the provided channel.
+     *
+     * @param source
+     *         The buffer containing the old version of the data between its position and its limit
+     * @param target
+     *         The buffer containing the new version of the data between its position and its limit
+     * @param out
+     *         The channel to write the delta to
+     *
+     * @throws IOException
+     *         If the search of a segment failed or the delta could not be written
+     */
+    public void write(ByteBuffer source, ByteBuffer target, WritableByteChannel out) throws IOException
+    {
+        ByteBuffer src = source.slice();
+        ByteBuffer tgt = target.slice();
+        int[] index = this.index(src);
+
+        int segments = Math.max(1, Math.min(this.parallelism, tgt.remaining() / MIN_SEGMENT_SIZE));
+        List<long[]> copies = new ArrayList<>(segments);
+        if (segments == 1)
+        {
+            copies.add(this.search(src, index, tgt, 0, tgt.remaining()));
+        }
+        else
+        {
+            List<Future<long[]>> futures = new ArrayList<>(segments);
+            for (int s = 0; s < segments; s++)
+            {
+                int start = (int) ((long) tgt.remaining() * s / segments);
+                int end = (int) ((long) tgt.remaining() * (s + 1) / segments);
+                futures.add(this.executor.submit(() -> this.search(src, index, tgt, start, end)));
+            }
+            try
+            {
+                for (Future<long[]> future : futures)
+                {
+                    copies.add(future.get());
+                }
+            }
+            catch (InterruptedException iEx)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while searching matches", iEx);
+            }
+            catch (ExecutionException eEx)
+            {
+                throw new IOException("Searching matches failed", eEx.getCause());
+            }
+        }
+
+        this.writeDelta(tgt, copies, out);
+    }
+
+    /**
+     * Creates the hash table over the rolling checksums of all full blocks of the source. Each slot holds the index of
+     * the first block hashed to it incremented by one, so that 0 marks an empty slot.
+     *
+     * @param source
+     *         The source to index
+     *
+     * @return The hash table
+     */
+    private int[] index(ByteBuffer source)
+    {
+        int blocks = source.remaining() / this.blockSize;
+        int[] table = new int[Integer.highestOneBit(Math.max(blocks, 1)) << 1];
+        RollingChecksum checksum = new RollingChecksum();
+        for (int block = 0; block < blocks; block++)
+        {
+            checksum.reset(source, block * this.blockSize, this.blockSize);
+            int slot = slot(checksum.value(), table.length);
+            if (table[slot] == 0)
+            {
+                table[slot] = block + 1;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Searches copies for the target range <em>[start, end)</em>. Matches are extended backwards to the start and
+     * forwards to the end of the range but never beyond.
+     *
+     * @param source
+     *         The source to copy from
+     * @param index
+     *         The hash table over the blocks of the source
+     * @param target
+     *         The target to search copies for
+     * @param start
+     *         The inclusive start of the target range
+     * @param end
+     *         The exclusive end of the target range
+     *
+     * @return The found copies as consecutive triples of target position, source position and length
+     */
+    private long[] search(ByteBuffer source, int[] index, ByteBuffer target, int start, int end)
+    {
+        long[] copies = new long[48];
+        int count = 0;
+        RollingChecksum checksum = new RollingChecksum();
+        int blockSize = this.blockSize;
+        // the end of the last copy, i.e. the start of the pending literal bytes
+        int literal = start;
+        boolean fresh = true;
+        int t = start;
+        while (t + blockSize <= end)
+        {
+            if (fresh)
+            {
+                checksum.reset(target, t, blockSize);
+                fresh = false;
+            }
+            int block = index[slot(checksum.value(), index.length)] - 1;
+            int s = block * blockSize;
+            if (block >= 0 && equal(source, s, target, t, blockSize))
+            {
+                int back = 0;
+                while (t - back > literal && s - back > 0 && source.get(s - back - 1) == target.get(t - back - 1))
+                {
+                    back++;
+                }
+                int length = blockSize;
+                while (t + length < end && s + length < source.limit() &&
+                       source.get(s + length) == target.get(t + length))
+                {
+                    length++;
+                }
+                if (count + 3 > copies.length)
+                {
+                    copies = Arrays.copyOf(copies, copies.length * 2);
+                }
+                copies[count++] = t - back;
+                copies[count++] = s - back;
+                copies[count++] = length + back;
+                t += length;
+                literal = t;
+                fresh = true;
+            }
+            else
+            {
+                if (t + blockSize < end)
+                {
+                    checksum.roll(target.get(t), target.get(t + blockSize));
+                }
+                t++;
+            }
+        }
+        return Arrays.copyOf(copies, count);
+    }
+
+    /**
+     * Writes the header, the copies of all segments and the literal bytes between them to the channel.
+     *
+     * @param target
+     *         The target containing the literal bytes
+     * @param segments
+     *         The copies of each segment in order
+     * @param out
+     *         The channel to write the delta to
+     *
+     * @throws IOException
+     *         If the delta could not be written
+     */
+    private void writeDelta(ByteBuffer target, List<long[]> segments, WritableByteChannel out) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(MAGIC).put(VERSION);
+        writeVarLong(buffer, target.remaining());
+
+        long cursor = 0;
+        long sourceEnd = 0;
+        for (long[] copies : segments)
+        {
+            for (int i = 0; i < copies.length; i += 3)
+            {
+                if (copies[i] > cursor)
+                {
+                    writeAdd(buffer, target, (int) cursor, (int) (copies[i] - cursor), out);
+                }
+                reserve(buffer, 1 + 10 + 10, out);
+                buffer.put((byte) OP_COPY);
+                writeVarLong(buffer, copies[i + 2]);
+                long distance = copies[i + 1] - sourceEnd;
+                writeVarLong(buffer, (distance << 1) ^ (distance >> 63));
+                cursor = copies[i] + copies[i + 2];
+                sourceEnd = copies[i + 1] + copies[i + 2];
+            }
+        }
+        if (target.remaining() > cursor)
+        {
+            writeAdd(buffer, target, (int) cursor, (int) (target.remaining() - cursor), out);
+        }
+        reserve(buffer, 1, out);
+        buffer.put((byte) OP_END);
+        flush(buffer, out);
+    }
+
+    /**
+     * Writes an add instruction. Literal bytes exceeding the internal buffer are written to the channel directly.
+     */
+    private static void writeAdd(ByteBuffer buffer, ByteBuffer target, int start, int length, WritableByteChannel out)
+            throws IOException
+    {
+        reserve(buffer, 1 + 10, out);
+        buffer.put((byte) OP_ADD);
+        writeVarLong(buffer, length);
+
+        ByteBuffer literal = target.duplicate();
+        literal.limit(start + length).position(start);
+        if (length > buffer.remaining())
+        {
+            flush(buffer, out);
+            while (literal.hasRemaining())
+            {
+                out.write(literal);
+            }
+            return;
+        }
+        buffer.put(literal);
+    }
+
+    /**
+     * Writes a non-negative long value using 7 bits per byte where the highest bit signals that further bytes follow.
+     */
+    static void writeVarLong(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Ensures that the buffer has space for at least the given number of bytes by flushing it to the channel.
+     */
+    private static void reserve(ByteBuffer buffer, int bytes, WritableByteChannel out) throws IOException
+    {
+        if (buffer.remaining() < bytes)
+        {
+            flush(buffer, out);
+        }
+    }
+
+    /**
+     * Writes any buffered data to the channel.
+     */
+    private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Compares two ranges of the same length byte by byte.
+     */
+    private static boolean equal(ByteBuffer a, int aStart, ByteBuffer b, int bStart, int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (a.get(aStart + i) != b.get(bStart + i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spreads the bits of a checksum and maps it to a slot of the hash table.
+     */
+    private static int slot(int checksum, int slots)
+    {
+        int hash = checksum * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (slots - 1);
+    }
+}
@@ -0,0 +1,174 @@
+package at.rovo.diff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Applies a binary delta calculated by {@link BinaryDelta} to the source it was calculated for.
+ * <p>
+ * Copied ranges of the source and added bytes of the delta are written to the target channel as views on the provided
+ * buffers, so no intermediate copies are created. If both the source and the delta are memory-mapped files and the
+ * target is a file channel, the data is transferred between the files by the operating system.
+ *
+ * @author Roman Vottner
+ */
+public class BinaryPatch
+{
+    /** prevent initializations of the util class **/
+    private BinaryPatch()
+    {
+
+    }
+
+    /**
+     * Applies the delta to the provided source.
+     *
+     * @param source
+     *         The old version of the data
+     * @param delta
+     *         The delta calculated for the source
+     *
+     * @return The new version of the data
+     *
+     * @throws IOException
+     *         If the delta is malformed or does not fit the source
+     */
+    public static byte[] apply(byte[] source, byte[] delta) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(source.length);
+        apply(ByteBuffer.wrap(source), ByteBuffer.wrap(delta), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    /**
+     * Applies the delta to the provided source and writes the new version to the target channel.
+     *
+     * @param source
+     *         The buffer containing the old version of the data between its position and its limit
+     * @param delta
+     *         The buffer containing the delta between its position and its limit
+     * @param target
+     *         The channel to write the new version of the data to
+     *
+     * @return The number of bytes written to the target
+     *
+     * @throws IOException
+     *         If the delta is malformed, does not fit the source or the target could not be written
+     */
+    public static long apply(ByteBuffer source, ByteBuffer delta, WritableByteChannel target) throws IOException
+    {
+        ByteBuffer src = source.slice();
+        ByteBuffer in = delta.slice();
+        if (in.remaining() < BinaryDelta.MAGIC.length + 1)
+        {
+            throw new IOException("Buffer does not contain a binary delta");
+        }
+        for (byte magic : BinaryDelta.MAGIC)
+        {
+            if (in.get() != magic)
+            {
+                throw new IOException("Buffer does not contain a binary delta");
+            }
+        }
+        byte version = in.get();
+        if (version != BinaryDelta.VERSION)
+        {
+            throw new IOException("Unsupported binary delta version " + version);
+        }
+        long length = readVarLong(in);
+
+        long written = 0;
+        long sourceEnd = 0;
+        while (true)
+        {
+            require(in, 1);
+            int op = in.get() & 0xFF;
+            if (op == BinaryDelta.OP_END)
+            {
+                break;
+            }
+            long count = readVarLong(in);
+            if (count < 0 || count > Integer.MAX_VALUE)
+            {
+                throw new IOException("Invalid byte count " + count);
+            }
+            ByteBuffer data;
+            if (op == BinaryDelta.OP_ADD)
+            {
+                require(in, count);
+                data = in.duplicate();
+                data.limit(in.position() + (int) count);
+                in.position(in.position() + (int) count);
+            }
+            else if (op == BinaryDelta.OP_COPY)
+            {
+                long zigzag = readVarLong(in);
+                long start = sourceEnd + ((zigzag >>> 1) ^ -(zigzag & 1));
+                if (start < 0 || start > src.limit() - count)
+                {
+                    throw new IOException("Copy of " + count + " bytes at " + start + " exceeds the source");
+                }
+                data = src.duplicate();
+                data.limit((int) (start + count)).position((int) start);
+                sourceEnd = start + count;
+            }
+            else
+            {
+                throw new IOException("Unknown op code " + op);
+            }
+            written += count;
+            if (written > length)
+            {
+                throw new IOException("Delta produces more than the announced " + length + " bytes");
+            }
+            while (data.hasRemaining())
+            {
+                target.write(data);
+            }
+        }
+        if (written != length)
+        {
+            throw new IOException("Delta produced " + written + " instead of " + length + " bytes");
+        }
+        return written;
+    }
+
+    /**
+     * Reads a non-negative long value written by {@link BinaryDelta}.
+     */
+    private static long readVarLong(ByteBuffer in) throws IOException
+    {
+        long value = 0;
+        int shift = 0;
+        while (true)
+        {
+            require(in, 1);
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63)
+            {
+                throw new IOException("Malformed variable length integer");
+            }
+        }
+    }
+
+    /**
+     * Ensures that at least the given number of bytes is left in the delta.
+     */
+    private static void require(ByteBuffer in, long bytes) throws IOException
+    {
+        if (in.remaining() < bytes)
+        {
+            throw new EOFException("Unexpected end of binary delta");
+        }
+    }
+}
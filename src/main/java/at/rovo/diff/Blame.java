@@ -0,0 +1,258 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+
+/**
+ * Annotates every element of the latest revision of an object with the revision which introduced it.
+ * <p>
+ * Revisions are added one after another and each revision is only compared with its predecessor via {@link
+ * LinearDiff}. The origins of the elements are kept as runs of consecutive elements introduced by the same revision.
+ * When a new revision is added, the runs covering equal elements are carried over with shifted positions while all
+ * inserted elements form new runs of the added revision. Updating the origins therefore only depends on the number of
+ * changes and runs but not on the number of elements, which usually is considerably larger.
+ * <p>
+ * All revisions are interned by the same {@link TokenInterner}, so every revision is hashed only once.
+ *
+ * @param <T>
+ *         The type of the elements of the revisions
+ *
+ * @author Roman Vottner
+ */
+public class Blame<T>
+{
+    /** Assigns equal elements of all revisions the same id **/
+    private final TokenInterner<T> interner = new TokenInterner<>();
+    /** The interned elements of the latest revision **/
+    private Integer[] latest;
+    /** The number of added revisions **/
+    private int revisions = 0;
+
+    /** The number of runs **/
+    private int runs = 0;
+    /** The position of the first element of each run within the latest revision **/
+    private int[] starts = new int[8];
+    /** The revision which introduced the elements of each run **/
+    private int[] origins = new int[8];
+
+    /**
+     * Creates a new blame starting with the provided initial revision, whose elements all originate from revision 0.
+     *
+     * @param initial
+     *         The elements of the first revision
+     */
+    public Blame(T[] initial)
+    {
+        this.latest = this.interner.intern(initial);
+        this.appendRun(0, this.revisions++, initial.length);
+    }
+
+    /**
+     * Adds the next revision, which is compared with the previously added revision.
+     *
+     * @param revision
+     *         The elements of the next revision
+     *
+     * @return The number of the added revision
+     *
+     * @throws Exception
+     *         If the comparison with the previous revision fails
+     */
+    public int add(T[] revision) throws Exception
+    {
+        Integer[] ids = this.interner.intern(revision);
+        EditChanges changes = new EditChanges(LinearDiff.Compare(this.latest, ids).getSnakes());
+        int number = this.revisions++;
+
+        int oldRuns = this.runs;
+        int[] oldStarts = this.starts;
+        int[] oldOrigins = this.origins;
+        int oldLength = this.latest.length;
+        this.runs = 0;
+        this.starts = new int[Math.max(8, oldRuns + 2 * changes.size())];
+        this.origins = new int[this.starts.length];
+
+        int x = 0;
+        int y = 0;
+        for (int c = 0; c < changes.size(); c++)
+        {
+            y = this.copyRuns(oldStarts, oldOrigins, oldRuns, oldLength, x, changes.getXStart(c), y);
+            this.appendRun(y, number, changes.getInserted(c));
+            x = changes.getXEnd(c);
+            y = changes.getYEnd(c);
+        }
+        this.copyRuns(oldStarts, oldOrigins, oldRuns, oldLength, x, oldLength, y);
+
+        this.latest = ids;
+        return number;
+    }
+
+    /**
+     * Returns the revision which introduced the element at the provided position of the latest revision.
+     *
+     * @param position
+     *         The position of the element within the latest revision
+     *
+     * @return The number of the revision introducing the element
+     *
+     * @throws IndexOutOfBoundsException
+     *         If the position is outside of the latest revision
+     */
+    public int getOrigin(int position)
+    {
+        if (position < 0 || position >= this.latest.length)
+        {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Length: " + this.latest.length);
+        }
+        return this.origins[findRun(this.starts, this.runs, position)];
+    }
+
+    /**
+     * Returns the revisions which introduced the elements of the latest revision.
+     *
+     * @return The number of the introducing revision for each element of the latest revision
+     */
+    public int[] getOrigins()
+    {
+        int[] result = new int[this.latest.length];
+        for (int r = 0; r < this.runs; r++)
+        {
+            int end = r + 1 < this.runs ? this.starts[r + 1] : result.length;
+            Arrays.fill(result, this.starts[r], end, this.origins[r]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of runs of consecutive elements introduced by the same revision.
+     *
+     * @return The number of runs
+     */
+    public int getRunCount()
+    {
+        return this.runs;
+    }
+
+    /**
+     * Returns the position of the first element of a run within the latest revision.
+     *
+     * @param run
+     *         The index of the run
+     *
+     * @return The inclusive start position of the run
+     */
+    public int getRunStart(int run)
+    {
+        return this.starts[run];
+    }
+
+    /**
+     * Returns the revision which introduced the elements of a run.
+     *
+     * @param run
+     *         The index of the run
+     *
+     * @return The number of the introducing revision
+     */
+    public int getRunOrigin(int run)
+    {
+        return this.origins[run];
+    }
+
+    /**
+     * Returns the number of added revisions.
+     *
+     * @return The number of revisions
+     */
+    public int getRevisionCount()
+    {
+        return this.revisions;
+    }
+
+    /**
+     * Returns the element at the provided position of the latest revision.
+     *
+     * @param position
+     *         The position of the element
+     *
+     * @return The element of the latest revision
+     */
+    public T getToken(int position)
+    {
+        return this.interner.getToken(this.latest[position]);
+    }
+
+    /**
+     * Returns the number of elements of the latest revision.
+     *
+     * @return The length of the latest revision
+     */
+    public int size()
+    {
+        return this.latest.length;
+    }
+
+    /**
+     * Carries the runs covering the range <em>[from, to)</em> of the previous revision over to the new revision.
+     *
+     * @param oldStarts
+     *         The start positions of the runs of the previous revision
+     * @param oldOrigins
+     *         The origins of the runs of the previous revision
+     * @param oldRuns
+     *         The number of runs of the previous revision
+     * @param oldLength
+     *         The number of elements of the previous revision
+     * @param from
+     *         The inclusive start of the range in the previous revision
+     * @param to
+     *         The exclusive end of the range in the previous revision
+     * @param y
+     *         The position of the range in the new revision
+     *
+     * @return The position after the range in the new revision
+     */
+    private int copyRuns(int[] oldStarts, int[] oldOrigins, int oldRuns, int oldLength, int from, int to, int y)
+    {
+        if (from >= to)
+        {
+            return y;
+        }
+        int shift = y - from;
+        for (int r = findRun(oldStarts, oldRuns, from); r < oldRuns && oldStarts[r] < to; r++)
+        {
+            int start = Math.max(oldStarts[r], from);
+            int end = Math.min(r + 1 < oldRuns ? oldStarts[r + 1] : oldLength, to);
+            this.appendRun(start + shift, oldOrigins[r], end - start);
+        }
+        return to + shift;
+    }
+
+    /**
+     * Appends a run to the runs of the latest revision and merges it with the last run if both originate from the
+     * same revision.
+     */
+    private void appendRun(int start, int origin, int length)
+    {
+        if (length <= 0 || this.runs > 0 && this.origins[this.runs - 1] == origin)
+        {
+            return;
+        }
+        if (this.runs == this.starts.length)
+        {
+            this.starts = Arrays.copyOf(this.starts, this.runs * 2);
+            this.origins = Arrays.copyOf(this.origins, this.runs * 2);
+        }
+        this.starts[this.runs] = start;
+        this.origins[this.runs] = origin;
+        this.runs++;
+    }
+
+    /**
+     * Searches the run containing the provided position.
+     */
+    private static int findRun(int[] starts, int runs, int position)
+    {
+        int pos = Arrays.binarySearch(starts, 0, runs, position);
+        return pos >= 0 ? pos : -pos - 2;
+    }
+}
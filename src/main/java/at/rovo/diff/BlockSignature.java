@@ -0,0 +1,294 @@
+package at.rovo.diff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * The signature of a file as used by rsync. The file is split into blocks of a fixed size and for each block a weak
+ * {@link RollingChecksum rolling checksum} and a strong hash are kept. The last block may be shorter than the others.
+ * <p>
+ * A signature is considerably smaller than the file it was calculated for, but still allows to find the unchanged
+ * blocks of the file within a newer version of the file via {@link RollingDelta}.
+ *
+ * @author Roman Vottner
+ */
+public class BlockSignature
+{
+    /** The default number of bytes per block **/
+    public static final int DEFAULT_BLOCK_SIZE = 2048;
+    /** The magic bytes identifying a serialized signature **/
+    private static final byte[] MAGIC = {'J', 'B', 'S'};
+    /** The version of the serialization format **/
+    private static final byte VERSION = 1;
+    /** The number of bytes of the header of a serialized signature **/
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4 + 8;
+    /** The number of bytes per block in a serialized signature **/
+    private static final int BLOCK_ENTRY_SIZE = 4 + 8;
+
+    /** The number of bytes per block **/
+    private final int blockSize;
+    /** The number of bytes of the file **/
+    private final long length;
+    /** The weak checksum of each block **/
+    private final int[] weak;
+    /** The strong hash of each block **/
+    private final long[] strong;
+
+    private BlockSignature(int blockSize, long length, int[] weak, long[] strong)
+    {
+        this.blockSize = blockSize;
+        this.length = length;
+        this.weak = weak;
+        this.strong = strong;
+    }
+
+    /**
+     * Calculates the signature of the provided data.
+     *
+     * @param data
+     *         The buffer containing the data between its position and its limit
+     * @param blockSize
+     *         The number of bytes per block
+     *
+     * @return The signature of the data
+     */
+    public static BlockSignature compute(ByteBuffer data, int blockSize)
+    {
+        checkBlockSize(blockSize);
+        ByteBuffer source = data.slice();
+        int blocks = (source.remaining() + blockSize - 1) / blockSize;
+        int[] weak = new int[blocks];
+        long[] strong = new long[blocks];
+        RollingChecksum checksum = new RollingChecksum();
+        MessageDigest digest = newDigest();
+        for (int i = 0; i < blocks; i++)
+        {
+            int offset = i * blockSize;
+            int size = Math.min(blockSize, source.remaining() - offset);
+            checksum.reset(source, offset, size);
+            weak[i] = checksum.value();
+            strong[i] = strongHash(digest, source, offset, size);
+        }
+        return new BlockSignature(blockSize, source.remaining(), weak, strong);
+    }
+
+    /**
+     * Calculates the signature of the data read from the provided channel in a single pass, without keeping more than
+     * a single block in memory.
+     *
+     * @param channel
+     *         The channel to read the data from
+     * @param blockSize
+     *         The number of bytes per block
+     *
+     * @return The signature of the data
+     *
+     * @throws IOException
+     *         If the channel could not be read
+     */
+    public static BlockSignature compute(ReadableByteChannel channel, int blockSize) throws IOException
+    {
+        checkBlockSize(blockSize);
+        int[] weak = new int[16];
+        long[] strong = new long[16];
+        int blocks = 0;
+        long length = 0;
+        RollingChecksum checksum = new RollingChecksum();
+        MessageDigest digest = newDigest();
+        ByteBuffer block = ByteBuffer.allocate(blockSize);
+        boolean eof = false;
+        while (!eof)
+        {
+            block.clear();
+            while (block.hasRemaining() && !eof)
+            {
+                eof = channel.read(block) < 0;
+            }
+            block.flip();
+            if (!block.hasRemaining())
+            {
+                break;
+            }
+            if (blocks == weak.length)
+            {
+                weak = Arrays.copyOf(weak, blocks * 2);
+                strong = Arrays.copyOf(strong, blocks * 2);
+            }
+            checksum.reset(block, 0, block.remaining());
+            weak[blocks] = checksum.value();
+            strong[blocks] = strongHash(digest, block, 0, block.remaining());
+            length += block.remaining();
+            blocks++;
+        }
+        return new BlockSignature(blockSize, length, Arrays.copyOf(weak, blocks), Arrays.copyOf(strong, blocks));
+    }
+
+    /**
+     * Restores a signature previously serialized via {@link #toByteBuffer()}.
+     *
+     * @param source
+     *         The buffer containing the serialized signature at its current position
+     *
+     * @return The restored signature
+     *
+     * @throws IOException
+     *         If the buffer does not contain a valid signature
+     */
+    public static BlockSignature fromByteBuffer(ByteBuffer source) throws IOException
+    {
+        if (source.remaining() < HEADER_SIZE)
+        {
+            throw new IOException("Buffer does not contain a block signature");
+        }
+        for (byte magic : MAGIC)
+        {
+            if (source.get() != magic)
+            {
+                throw new IOException("Buffer does not contain a block signature");
+            }
+        }
+        byte version = source.get();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported block signature version " + version);
+        }
+        int blockSize = source.getInt();
+        long length = source.getLong();
+        if (blockSize <= 0 || length < 0 ||
+            source.remaining() < (length + blockSize - 1) / blockSize * BLOCK_ENTRY_SIZE)
+        {
+            throw new IOException("Truncated or corrupted block signature");
+        }
+        int blocks = (int) ((length + blockSize - 1) / blockSize);
+        int[] weak = new int[blocks];
+        long[] strong = new long[blocks];
+        for (int i = 0; i < blocks; i++)
+        {
+            weak[i] = source.getInt();
+            strong[i] = source.getLong();
+        }
+        return new BlockSignature(blockSize, length, weak, strong);
+    }
+
+    /**
+     * Serializes this signature into a new buffer which is ready to be read.
+     *
+     * @return The buffer containing the serialized signature
+     */
+    public ByteBuffer toByteBuffer()
+    {
+        ByteBuffer target = ByteBuffer.allocate(HEADER_SIZE + this.weak.length * BLOCK_ENTRY_SIZE);
+        target.put(MAGIC).put(VERSION).putInt(this.blockSize).putLong(this.length);
+        for (int i = 0; i < this.weak.length; i++)
+        {
+            target.putInt(this.weak[i]).putLong(this.strong[i]);
+        }
+        target.flip();
+        return target;
+    }
+
+    /**
+     * Returns the number of bytes per block.
+     *
+     * @return The block size
+     */
+    public int getBlockSize()
+    {
+        return this.blockSize;
+    }
+
+    /**
+     * Returns the number of bytes of the file the signature was calculated for.
+     *
+     * @return The length of the file
+     */
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return The number of blocks
+     */
+    public int getBlockCount()
+    {
+        return this.weak.length;
+    }
+
+    /**
+     * Returns the number of bytes of a block, which is smaller than the block size only for the last block.
+     *
+     * @param block
+     *         The index of the block
+     *
+     * @return The number of bytes of the block
+     */
+    public int getBlockLength(int block)
+    {
+        return (int) Math.min(this.blockSize, this.length - (long) block * this.blockSize);
+    }
+
+    int getWeak(int block)
+    {
+        return this.weak[block];
+    }
+
+    long getStrong(int block)
+    {
+        return this.strong[block];
+    }
+
+    /**
+     * Calculates the strong hash of a window, which consists of the first 8 bytes of its MD5 digest.
+     *
+     * @param digest
+     *         The digest to use
+     * @param data
+     *         The buffer containing the window
+     * @param offset
+     *         The absolute position of the first byte of the window
+     * @param length
+     *         The number of bytes of the window
+     *
+     * @return The strong hash of the window
+     */
+    static long strongHash(MessageDigest digest, ByteBuffer data, int offset, int length)
+    {
+        ByteBuffer window = data.duplicate();
+        window.limit(offset + length).position(offset);
+        digest.update(window);
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Creates the digest used for the strong hashes.
+     *
+     * @return A new MD5 digest
+     */
+    static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("MD5");
+        }
+        catch (NoSuchAlgorithmException nsaEx)
+        {
+            // every Java platform is required to support MD5
+            throw new IllegalStateException(nsaEx);
+        }
+    }
+
+    private static void checkBlockSize(int blockSize)
+    {
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException("Block size must be positive but was " + blockSize);
+        }
+    }
+}
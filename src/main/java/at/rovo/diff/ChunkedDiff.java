@@ -0,0 +1,218 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares two large objects by splitting them into content-defined chunks first and comparing only the stretches
+ * between identical chunks.
+ * <p>
+ * Chunk boundaries are determined by a gear hash, which shifts the hash one bit to the left for every element and adds
+ * a pseudo-random value derived from the hash code of the element. A boundary is set wherever the lowest bits of the
+ * hash are all zero, so boundaries only depend on the elements preceding them and an insertion or deletion only changes
+ * the chunks next to it. The number of these bits defines the average chunk size, while a minimum and maximum size
+ * bound the length of single chunks.
+ * <p>
+ * Chunks which occur exactly once in both objects are matched via a hash map in linear time. Of these matches the
+ * longest chain in ascending order of both objects is kept via {@link PatienceDiff#longestIncreasingChain(int[])}, so a
+ * block moved to another position only loses the matches of the moved block itself instead of all matches after it.
+ * The matched chunks then serve as anchors for {@link AnchoredDiff}, which compares the stretches between them
+ * concurrently with {@link LinearDiff} and stitches the results into a single edit script.
+ * <p>
+ * As chunks are only matched as a whole, the resulting edit script may be longer than the shortest edit script if a
+ * matched chunk is not part of a longest common subsequence. A moved block is, like in the shortest edit script,
+ * deleted and inserted again, as the longest chain keeps the matches of the larger of the moved block and the rest.
+ *
+ * @author Roman Vottner
+ */
+public class ChunkedDiff
+{
+    /** The default average number of elements per chunk **/
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /** prevent initializations of the util class **/
+    private ChunkedDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects using the default average chunk size and the common {@link ForkJoinPool}.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a stretch between matched chunks fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b) throws Exception
+    {
+        return Compare(a, b, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares two objects.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param chunkSize
+     *         The average number of elements per chunk, which is rounded up to the next power of two
+     * @param executor
+     *         The executor to compare the stretches between matched chunks on; if null all stretches are compared on
+     *         the calling thread
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a stretch between matched chunks fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, int chunkSize, ExecutorService executor) throws Exception
+    {
+        if (chunkSize < 4)
+        {
+            throw new IllegalArgumentException("Chunk size must be at least 4 but was " + chunkSize);
+        }
+        int[] chunksA = chunk(a, chunkSize);
+        int[] chunksB = chunk(b, chunkSize);
+        long[] hashesA = hashes(a, chunksA);
+        long[] hashesB = hashes(b, chunksB);
+
+        // maps the hash of each chunk of b to its index or to -1 if the hash occurs more than once
+        Map<Long, Integer> indexB = new HashMap<>(hashesB.length * 2);
+        for (int j = 0; j < hashesB.length; j++)
+        {
+            indexB.put(hashesB[j], indexB.containsKey(hashesB[j]) ? -1 : j);
+        }
+        Map<Long, Integer> countA = new HashMap<>(hashesA.length * 2);
+        for (long hash : hashesA)
+        {
+            countA.merge(hash, 1, Integer::sum);
+        }
+
+        // consecutive pairs of the start positions of chunks unique in both objects, ordered by the first position
+        int[] pairs = new int[Math.min(hashesA.length, hashesB.length) * 2];
+        int matched = 0;
+        for (int i = 0; i < hashesA.length; i++)
+        {
+            Integer j = indexB.get(hashesA[i]);
+            if (j == null || j < 0 || countA.get(hashesA[i]) != 1)
+            {
+                continue;
+            }
+            int x = chunksA[i];
+            int y = chunksB[j];
+            int length = chunksA[i + 1] - x;
+            if (length != chunksB[j + 1] - y || !equal(a, x, b, y, length))
+            {
+                continue;
+            }
+            pairs[matched * 2] = x;
+            pairs[matched * 2 + 1] = y;
+            matched++;
+        }
+
+        // only the longest chain of matches in ascending order of both objects
+        // is kept, so a moved chunk does not discard all later matches
+        int[] chain = PatienceDiff.longestIncreasingChain(Arrays.copyOf(pairs, matched * 2));
+        int[] anchors = new int[chain.length * 3];
+        int count = 0;
+        for (int c : chain)
+        {
+            int x = pairs[c * 2];
+            anchors[count * 3] = x;
+            anchors[count * 3 + 1] = pairs[c * 2 + 1];
+            anchors[count * 3 + 2] = chunksA[Arrays.binarySearch(chunksA, x) + 1] - x;
+            count++;
+        }
+
+        return AnchoredDiff.compare(a, b, anchors, count, executor);
+    }
+
+    /**
+     * Determines the content-defined chunk boundaries of the provided elements.
+     *
+     * @param elements
+     *         The elements to split into chunks
+     * @param chunkSize
+     *         The average number of elements per chunk
+     *
+     * @return The start position of each chunk followed by the number of elements
+     */
+    static <T> int[] chunk(T[] elements, int chunkSize)
+    {
+        long mask = Integer.highestOneBit(chunkSize - 1) * 2L - 1;
+        int minSize = chunkSize / 4;
+        int maxSize = chunkSize * 4;
+
+        int[] boundaries = new int[elements.length / minSize + 2];
+        int count = 0;
+        boundaries[count++] = 0;
+        int start = 0;
+        long hash = 0;
+        for (int i = 0; i < elements.length; i++)
+        {
+            hash = (hash << 1) + gear(elements[i]);
+            int size = i + 1 - start;
+            if (size >= maxSize || size >= minSize && (hash & mask) == 0)
+            {
+                boundaries[count++] = i + 1;
+                start = i + 1;
+            }
+        }
+        if (start < elements.length)
+        {
+            boundaries[count++] = elements.length;
+        }
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * Calculates a hash of the content of each chunk.
+     */
+    private static <T> long[] hashes(T[] elements, int[] boundaries)
+    {
+        long[] hashes = new long[boundaries.length - 1];
+        for (int c = 0; c < hashes.length; c++)
+        {
+            long hash = boundaries[c + 1] - boundaries[c];
+            for (int i = boundaries[c]; i < boundaries[c + 1]; i++)
+            {
+                hash = hash * 31 + gear(elements[i]);
+            }
+            hashes[c] = hash;
+        }
+        return hashes;
+    }
+
+    /**
+     * Derives a pseudo-random 64 bit value from the hash code of an element.
+     */
+    private static long gear(Object element)
+    {
+        long z = (element == null ? 0 : element.hashCode()) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static <T> boolean equal(T[] a, int x, T[] b, int y, int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (!a[x + i].equals(b[y + i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package at.rovo.diff;
+
+/**
+ * The comparison engines {@link AdaptiveDiff} chooses from.
+ *
+ * @author Roman Vottner
+ */
+public enum DiffEngine
+{
+    /** {@link GreedyDiff} in forward direction, which keeps the end points of every contour **/
+    GREEDY(true),
+    /** {@link LinearDiff} without recording the end points of the contours **/
+    LINEAR(true),
+    /** {@link WuDiff} with a trace of the visited nodes **/
+    WU(true),
+    /** {@link WuDiff} in linear space **/
+    WU_LINEAR(true),
+    /** {@link HuntSzymanskiDiff} **/
+    HUNT_SZYMANSKI(true),
+    /** {@link PatienceDiff}, which anchors the comparison at unique elements **/
+    PATIENCE(false),
+    /** {@link ChunkedDiff}, which anchors the comparison at unique content-defined chunks **/
+    CHUNKED(false);
+
+    /** Whether the engine always finds a shortest edit script **/
+    private final boolean exact;
+
+    DiffEngine(boolean exact)
+    {
+        this.exact = exact;
+    }
+
+    /**
+     * Returns whether the engine always finds a shortest edit script or whether it is a heuristic which may produce a
+     * slightly longer one.
+     *
+     * @return True if the engine always finds a shortest edit script
+     */
+    public boolean isExact()
+    {
+        return this.exact;
+    }
+}
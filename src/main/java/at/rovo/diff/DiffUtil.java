@@ -63,6 +63,23 @@ public class DiffUtil
         return results;
     }
 
+    /**
+     * Returns the differences of two compared files as a lazy {@link Hunks} view. In contrast to {@link
+     * #getDifferences(Results, List)} no tokens are copied. Each {@link Hunk} keeps the ranges it covers in both files
+     * and exposes its tokens as views of the original arrays.
+     *
+     * @param res
+     *         The result returned by the comparison algorithm
+     * @param patterns
+     *         The source files which got compared with each other
+     *
+     * @return The position-aware hunks of the comparison result
+     */
+    public static <E> Hunks<E> getHunks(Results<E> res, List<E[]> patterns)
+    {
+        return new Hunks<>(res.getSnakes(), patterns.get(0), patterns.get(1));
+    }
+
     /**
      * Prints the differences of two files in forward direction.
      *
@@ -0,0 +1,162 @@
+package at.rovo.diff;
+
+import java.util.List;
+
+/**
+ * Groups the snakes of a comparison result into changes, i.e. maximal runs of deletions and insertions which are not
+ * separated by equal elements. Each change replaces the range <em>[xStart, xEnd)</em> of the first object with the
+ * range <em>[yStart, yEnd)</em> of the second object.
+ *
+ * @author Roman Vottner
+ */
+class EditChanges
+{
+    /** The number of changes **/
+    private int size = 0;
+    /** The position of the first deleted element of each change in the first object **/
+    private int[] xStart;
+    /** The number of deleted elements of each change **/
+    private int[] deleted;
+    /** The position of the first inserted element of each change in the second object **/
+    private int[] yStart;
+    /** The number of inserted elements of each change **/
+    private int[] inserted;
+
+    /**
+     * Extracts the changes of the provided snakes.
+     *
+     * @param snakes
+     *         The snakes along the path through the edit graph
+     */
+    EditChanges(List<? extends Snake<?>> snakes)
+    {
+        int capacity = Math.max(snakes.size(), 1);
+        this.xStart = new int[capacity];
+        this.deleted = new int[capacity];
+        this.yStart = new int[capacity];
+        this.inserted = new int[capacity];
+
+        boolean open = false;
+        for (Snake<?> snake : snakes)
+        {
+            int x = snake.getPathXStart();
+            int y = snake.getPathYStart();
+            if (!snake.IsForward && snake.DiagonalLength > 0)
+            {
+                open = false;
+                x += snake.DiagonalLength;
+                y += snake.DiagonalLength;
+            }
+            if (snake.ADeleted > 0 || snake.BInserted > 0)
+            {
+                int last = this.size - 1;
+                if (open && this.getXEnd(last) == x && this.getYEnd(last) == y)
+                {
+                    this.deleted[last] += snake.ADeleted;
+                    this.inserted[last] += snake.BInserted;
+                }
+                else
+                {
+                    this.xStart[this.size] = x;
+                    this.deleted[this.size] = snake.ADeleted;
+                    this.yStart[this.size] = y;
+                    this.inserted[this.size] = snake.BInserted;
+                    this.size++;
+                    open = true;
+                }
+            }
+            if (snake.IsForward && snake.DiagonalLength > 0)
+            {
+                open = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of changes.
+     *
+     * @return The number of changes
+     */
+    int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the position of the first deleted element of a change in the first object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The inclusive start position in the first object
+     */
+    int getXStart(int change)
+    {
+        return this.xStart[change];
+    }
+
+    /**
+     * Returns the position after the last deleted element of a change in the first object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The exclusive end position in the first object
+     */
+    int getXEnd(int change)
+    {
+        return this.xStart[change] + this.deleted[change];
+    }
+
+    /**
+     * Returns the number of elements a change deletes from the first object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The number of deleted elements
+     */
+    int getDeleted(int change)
+    {
+        return this.deleted[change];
+    }
+
+    /**
+     * Returns the position of the first inserted element of a change in the second object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The inclusive start position in the second object
+     */
+    int getYStart(int change)
+    {
+        return this.yStart[change];
+    }
+
+    /**
+     * Returns the position after the last inserted element of a change in the second object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The exclusive end position in the second object
+     */
+    int getYEnd(int change)
+    {
+        return this.yStart[change] + this.inserted[change];
+    }
+
+    /**
+     * Returns the number of elements a change inserts from the second object.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The number of inserted elements
+     */
+    int getInserted(int change)
+    {
+        return this.inserted[change];
+    }
+}
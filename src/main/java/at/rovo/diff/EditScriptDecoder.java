@@ -0,0 +1,424 @@
+package at.rovo.diff;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Reads an edit script written by {@link EditScriptEncoder} and restores its snakes one by one.
+ * <p>
+ * The positions of the snakes are restored by following the run lengths along the path. If the edit script contains
+ * inserted elements and a matching {@link TokenCodec} or id lookup was configured, the inserted elements of the snake
+ * returned last are available via {@link #getInsertedTokens()}. Otherwise the payload is skipped.
+ *
+ * @param <T>
+ *         The type of the elements the snakes were calculated for
+ *
+ * @author Roman Vottner
+ */
+public class EditScriptDecoder<T>
+{
+    /** The default size of the internal buffer used for streaming from a channel **/
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The channel to read the encoded data from; null if decoding directly from a buffer **/
+    private final ReadableByteChannel channel;
+    /** The buffer the data is read from **/
+    private final ByteBuffer buffer;
+
+    /** The codec for inline elements **/
+    private TokenCodec<T> codec;
+    /** The function mapping ids to their elements **/
+    private IntFunction<T> ids;
+
+    /** The kind of payload stored for inserted elements; -1 if the header was not read yet **/
+    private int payload = -1;
+    /** Indicates if the end op code was read **/
+    private boolean finished = false;
+    /** The current x-position along the path **/
+    private int x = 0;
+    /** The current y-position along the path **/
+    private int y = 0;
+    /** The inserted elements of the snake returned last **/
+    private List<T> inserted = Collections.emptyList();
+
+    /**
+     * Creates a new decoder which reads the encoded data from the provided channel.
+     *
+     * @param channel
+     *         The channel to read the encoded edit script from
+     */
+    public EditScriptDecoder(ReadableByteChannel channel)
+    {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    /**
+     * Creates a new decoder which reads the encoded data directly from the provided buffer, starting at its current
+     * position.
+     *
+     * @param source
+     *         The buffer containing the encoded edit script
+     */
+    public EditScriptDecoder(ByteBuffer source)
+    {
+        this.channel = null;
+        this.buffer = source;
+    }
+
+    /**
+     * Restores inline stored elements via the provided codec.
+     *
+     * @param codec
+     *         The codec converting bytes to elements
+     *
+     * @return This instance
+     */
+    public EditScriptDecoder<T> inlineTokens(TokenCodec<T> codec)
+    {
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Restores elements stored as ids via the provided function.
+     *
+     * @param ids
+     *         The function mapping an id to its element
+     *
+     * @return This instance
+     */
+    public EditScriptDecoder<T> tokenIds(IntFunction<T> ids)
+    {
+        this.ids = ids;
+        return this;
+    }
+
+    /**
+     * Checks if the edit script contains the inserted elements and if they can be restored with the configured codec or
+     * id lookup.
+     *
+     * @return true if {@link #getInsertedTokens()} returns the inserted elements of each snake
+     *
+     * @throws IOException
+     *         If the header could not be read
+     */
+    public boolean hasInsertedTokens() throws IOException
+    {
+        this.readHeader();
+        return this.payload == EditScriptEncoder.PAYLOAD_INLINE && this.codec != null ||
+               this.payload == EditScriptEncoder.PAYLOAD_IDS && this.ids != null;
+    }
+
+    /**
+     * Reads the next snake of the edit script.
+     *
+     * @return The next snake or null if the end of the edit script was reached
+     *
+     * @throws IOException
+     *         If the data could not be read or is not a valid edit script
+     */
+    public Snake<T> next() throws IOException
+    {
+        this.readHeader();
+        if (this.finished)
+        {
+            return null;
+        }
+
+        this.require(1);
+        int op = this.buffer.get() & 0xFF;
+        if (op == EditScriptEncoder.OP_END)
+        {
+            this.finished = true;
+            this.inserted = Collections.emptyList();
+            return null;
+        }
+        if ((op & ~0x0F) != 0)
+        {
+            throw new IOException("Invalid op code " + op);
+        }
+
+        boolean forward = (op & EditScriptEncoder.OP_FORWARD) != 0;
+        int deleted = (op & EditScriptEncoder.OP_DELETE) != 0 ? this.readVarInt() : 0;
+        int inserted = (op & EditScriptEncoder.OP_INSERT) != 0 ? this.readVarInt() : 0;
+        int diagonal = (op & EditScriptEncoder.OP_DIAGONAL) != 0 ? this.readVarInt() : 0;
+
+        this.readInsertedTokens(inserted);
+
+        Snake<T> snake = new Snake<>(forward, 0);
+        snake.ADeleted = deleted;
+        snake.BInserted = inserted;
+        snake.DiagonalLength = diagonal;
+        if (forward)
+        {
+            snake.XStart = this.x;
+            snake.YStart = this.y;
+        }
+        else
+        {
+            snake.XStart = this.x + deleted + diagonal;
+            snake.YStart = this.y + inserted + diagonal;
+        }
+
+        this.x += deleted + diagonal;
+        this.y += inserted + diagonal;
+
+        return snake;
+    }
+
+    /**
+     * Returns the inserted elements of the snake returned last by {@link #next()}. The list is empty if the edit script
+     * does not contain the inserted elements or no codec or id lookup was configured to restore them.
+     *
+     * @return The inserted elements of the current snake
+     */
+    public List<T> getInsertedTokens()
+    {
+        return this.inserted;
+    }
+
+    /**
+     * Reads all remaining snakes of the edit script.
+     *
+     * @return The remaining snakes
+     *
+     * @throws IOException
+     *         If the data could not be read or is not a valid edit script
+     */
+    public List<Snake<T>> readAll() throws IOException
+    {
+        List<Snake<T>> snakes = new ArrayList<>();
+        Snake<T> snake;
+        while ((snake = this.next()) != null)
+        {
+            snakes.add(snake);
+        }
+        return snakes;
+    }
+
+    /**
+     * Decodes the edit script contained in the provided buffer.
+     *
+     * @param source
+     *         The buffer containing the encoded edit script
+     *
+     * @return The result containing the decoded snakes
+     *
+     * @throws IOException
+     *         If the buffer does not contain a valid edit script
+     */
+    public static <T> Results<T> decode(ByteBuffer source) throws IOException
+    {
+        return new Results<>(new EditScriptDecoder<T>(source).readAll(), null, null);
+    }
+
+    /**
+     * Reads and validates the header if it was not yet read.
+     *
+     * @throws IOException
+     *         If the data could not be read or is not a valid edit script
+     */
+    private void readHeader() throws IOException
+    {
+        if (this.payload >= 0)
+        {
+            return;
+        }
+        this.require(EditScriptEncoder.MAGIC.length + 2);
+        for (byte magic : EditScriptEncoder.MAGIC)
+        {
+            if (this.buffer.get() != magic)
+            {
+                throw new IOException("Not an edit script");
+            }
+        }
+        byte version = this.buffer.get();
+        if (version != EditScriptEncoder.VERSION)
+        {
+            throw new IOException("Unsupported edit script version " + version);
+        }
+        this.payload = this.buffer.get();
+        if (this.payload > EditScriptEncoder.PAYLOAD_IDS)
+        {
+            throw new IOException("Unsupported payload " + this.payload);
+        }
+    }
+
+    /**
+     * Reads the payload of the inserted elements of the current snake.
+     *
+     * @param count
+     *         The number of inserted elements
+     *
+     * @throws IOException
+     *         If the data could not be read
+     */
+    private void readInsertedTokens(int count) throws IOException
+    {
+        if (count == 0 || this.payload == EditScriptEncoder.PAYLOAD_NONE)
+        {
+            this.inserted = Collections.emptyList();
+            return;
+        }
+
+        boolean restore = this.hasInsertedTokens();
+        List<T> tokens = restore ? new ArrayList<T>(count) : Collections.<T>emptyList();
+        for (int i = 0; i < count; i++)
+        {
+            if (this.payload == EditScriptEncoder.PAYLOAD_INLINE)
+            {
+                int length = this.readVarInt();
+                if (restore)
+                {
+                    tokens.add(this.codec.decode(this.readBytes(length)));
+                }
+                else
+                {
+                    this.skipBytes(length);
+                }
+            }
+            else
+            {
+                int id = this.readVarInt();
+                if (restore)
+                {
+                    tokens.add(this.ids.apply(id));
+                }
+            }
+        }
+        this.inserted = tokens;
+    }
+
+    /**
+     * Reads a non-negative integer written by {@link EditScriptEncoder}.
+     *
+     * @return The read value
+     *
+     * @throws IOException
+     *         If the data could not be read or the value is malformed
+     */
+    private int readVarInt() throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        while (true)
+        {
+            this.require(1);
+            byte b = this.buffer.get();
+            if (shift == 28 && (b & 0x78) != 0)
+            {
+                // the fifth byte may only set its lower 3 bits, as the fourth one would be the sign bit
+                throw new IOException("Variable length integer exceeds " + Integer.MAX_VALUE);
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+            shift += 7;
+            if (shift > 28)
+            {
+                throw new IOException("Malformed variable length integer");
+            }
+        }
+    }
+
+    /**
+     * Reads the given number of bytes.
+     *
+     * @param length
+     *         The number of bytes to read
+     *
+     * @return The read bytes
+     *
+     * @throws IOException
+     *         If not enough data is available
+     */
+    private byte[] readBytes(int length) throws IOException
+    {
+        byte[] data = new byte[length];
+        int read = Math.min(length, this.buffer.remaining());
+        this.buffer.get(data, 0, read);
+        if (read < length)
+        {
+            if (this.channel == null)
+            {
+                throw new EOFException("Unexpected end of edit script");
+            }
+            // read the remainder directly from the channel, bypassing the internal buffer
+            ByteBuffer rest = ByteBuffer.wrap(data, read, length - read);
+            while (rest.hasRemaining())
+            {
+                if (this.channel.read(rest) < 0)
+                {
+                    throw new EOFException("Unexpected end of edit script");
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Skips the given number of bytes.
+     *
+     * @param length
+     *         The number of bytes to skip
+     *
+     * @throws IOException
+     *         If not enough data is available
+     */
+    private void skipBytes(int length) throws IOException
+    {
+        while (length > 0)
+        {
+            this.require(1);
+            int skip = Math.min(length, this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + skip);
+            length -= skip;
+        }
+    }
+
+    /**
+     * Ensures that at least the given number of bytes is available in the buffer by reading from the channel.
+     *
+     * @param bytes
+     *         The number of bytes to read next
+     *
+     * @throws IOException
+     *         If not enough data is available
+     */
+    private void require(int bytes) throws IOException
+    {
+        if (this.buffer.remaining() >= bytes)
+        {
+            return;
+        }
+        if (this.channel == null)
+        {
+            throw new EOFException("Unexpected end of edit script");
+        }
+        this.buffer.compact();
+        try
+        {
+            while (this.buffer.position() < bytes)
+            {
+                if (this.channel.read(this.buffer) < 0)
+                {
+                    throw new EOFException("Unexpected end of edit script");
+                }
+            }
+        }
+        finally
+        {
+            this.buffer.flip();
+        }
+    }
+}
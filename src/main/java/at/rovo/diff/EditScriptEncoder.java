@@ -0,0 +1,415 @@
+package at.rovo.diff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Writes the snakes of a comparison result in a compact binary format.
+ * <p>
+ * The encoded edit script starts with a header consisting of the magic bytes <code>JDS</code>, a format version and the
+ * kind of payload stored for inserted elements. Each snake is then written as a single op code, whose bits define the
+ * comparison direction and which of the deleted, inserted and diagonal run lengths follow as variable length integers.
+ * Positions are not stored at all as the snakes of a result are contiguous and the positions can therefore be restored
+ * by summing up the run lengths. If configured, the inserted elements follow the run lengths either as length prefixed
+ * bytes produced by a {@link TokenCodec} or as variable length token ids. The script is terminated by an end op code.
+ * <p>
+ * The encoder either writes directly into a provided {@link ByteBuffer} or streams the data through an internal buffer
+ * to a {@link WritableByteChannel}.
+ *
+ * @param <T>
+ *         The type of the elements the snakes were calculated for
+ *
+ * @author Roman Vottner
+ */
+public class EditScriptEncoder<T>
+{
+    /** The magic bytes every encoded edit script starts with **/
+    static final byte[] MAGIC = {'J', 'D', 'S'};
+    /** The version of the encoding format **/
+    static final byte VERSION = 1;
+
+    /** No inserted elements are stored **/
+    static final byte PAYLOAD_NONE = 0;
+    /** Inserted elements are stored as length prefixed bytes **/
+    static final byte PAYLOAD_INLINE = 1;
+    /** Inserted elements are stored as token ids **/
+    static final byte PAYLOAD_IDS = 2;
+
+    /** Op code flag for a snake calculated in forward direction **/
+    static final int OP_FORWARD = 0x01;
+    /** Op code flag indicating that a deletion run length follows **/
+    static final int OP_DELETE = 0x02;
+    /** Op code flag indicating that an insertion run length follows **/
+    static final int OP_INSERT = 0x04;
+    /** Op code flag indicating that a diagonal run length follows **/
+    static final int OP_DIAGONAL = 0x08;
+    /** Op code terminating the edit script **/
+    static final int OP_END = 0x80;
+
+    /** The default size of the internal buffer used for streaming to a channel **/
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The channel to stream the encoded data to; null if encoding directly into a buffer **/
+    private final WritableByteChannel channel;
+    /** The buffer the data is written to **/
+    private final ByteBuffer buffer;
+
+    /** The kind of payload stored for inserted elements **/
+    private byte payload = PAYLOAD_NONE;
+    /** The codec for inline elements **/
+    private TokenCodec<T> codec;
+    /** The function mapping elements to their ids **/
+    private ToIntFunction<T> ids;
+    /** The elements of the second object the inserted elements are taken from **/
+    private T[] b;
+
+    /** Indicates if the header was already written **/
+    private boolean started = false;
+    /** Indicates if the end op code was already written **/
+    private boolean finished = false;
+    /** The current x-position along the path **/
+    private int x = 0;
+    /** The current y-position along the path **/
+    private int y = 0;
+
+    /**
+     * Creates a new encoder which streams the encoded data to the provided channel.
+     *
+     * @param channel
+     *         The channel to write the encoded edit script to
+     */
+    public EditScriptEncoder(WritableByteChannel channel)
+    {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new encoder which writes the encoded data directly into the provided buffer, starting at its current
+     * position.
+     *
+     * @param target
+     *         The buffer to write the encoded edit script to
+     */
+    public EditScriptEncoder(ByteBuffer target)
+    {
+        this.channel = null;
+        this.buffer = target;
+    }
+
+    /**
+     * Stores the inserted elements inline as bytes produced by the provided codec. This allows to reconstruct the
+     * second object from the first one and the edit script alone.
+     *
+     * @param b
+     *         The elements of the second object which got compared
+     * @param codec
+     *         The codec converting the elements to bytes
+     *
+     * @return This instance
+     */
+    public EditScriptEncoder<T> inlineTokens(T[] b, TokenCodec<T> codec)
+    {
+        this.checkNotStarted();
+        this.payload = PAYLOAD_INLINE;
+        this.b = b;
+        this.codec = codec;
+        return this;
+    }
+
+    /**
+     * Stores the inserted elements as ids provided by the given function, i.e. the index of the element within a
+     * dictionary maintained by the caller.
+     *
+     * @param b
+     *         The elements of the second object which got compared
+     * @param ids
+     *         The function mapping an element to its non-negative id
+     *
+     * @return This instance
+     */
+    public EditScriptEncoder<T> tokenIds(T[] b, ToIntFunction<T> ids)
+    {
+        this.checkNotStarted();
+        this.payload = PAYLOAD_IDS;
+        this.b = b;
+        this.ids = ids;
+        return this;
+    }
+
+    /**
+     * Encodes the provided snake.
+     *
+     * @param snake
+     *         The next snake along the path
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     * @throws IllegalArgumentException
+     *         If the snake does not start at the end of the previously written snake or an inserted element is mapped
+     *         to a negative id
+     */
+    public void write(Snake<T> snake) throws IOException
+    {
+        if (this.finished)
+        {
+            throw new IllegalStateException("Edit script already finished");
+        }
+        this.writeHeader();
+
+        if (snake.getPathXStart() != this.x || snake.getPathYStart() != this.y)
+        {
+            throw new IllegalArgumentException(
+                    "Snake " + snake + " does not continue the path at ( " + this.x + ", " + this.y + " )");
+        }
+
+        int op = (snake.IsForward ? OP_FORWARD : 0) | (snake.ADeleted > 0 ? OP_DELETE : 0) |
+                 (snake.BInserted > 0 ? OP_INSERT : 0) | (snake.DiagonalLength > 0 ? OP_DIAGONAL : 0);
+        this.reserve(1);
+        this.buffer.put((byte) op);
+        if (snake.ADeleted > 0)
+        {
+            this.writeVarInt(snake.ADeleted);
+        }
+        if (snake.BInserted > 0)
+        {
+            this.writeVarInt(snake.BInserted);
+        }
+        if (snake.DiagonalLength > 0)
+        {
+            this.writeVarInt(snake.DiagonalLength);
+        }
+
+        if (snake.BInserted > 0 && this.payload != PAYLOAD_NONE)
+        {
+            int start = snake.IsForward ? snake.getPathYStart() : snake.getPathYEnd() - snake.BInserted;
+            for (int pos = start; pos < start + snake.BInserted; pos++)
+            {
+                if (this.payload == PAYLOAD_INLINE)
+                {
+                    byte[] data = this.codec.encode(this.b[pos]);
+                    this.writeVarInt(data.length);
+                    this.writeBytes(data);
+                }
+                else
+                {
+                    int id = this.ids.applyAsInt(this.b[pos]);
+                    if (id < 0)
+                    {
+                        throw new IllegalArgumentException(
+                                "Element " + this.b[pos] + " is mapped to negative id " + id);
+                    }
+                    this.writeVarInt(id);
+                }
+            }
+        }
+
+        this.x = snake.getPathXEnd();
+        this.y = snake.getPathYEnd();
+    }
+
+    /**
+     * Encodes all provided snakes.
+     *
+     * @param snakes
+     *         The snakes of a comparison result
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    public void writeAll(List<Snake<T>> snakes) throws IOException
+    {
+        for (Snake<T> snake : snakes)
+        {
+            this.write(snake);
+        }
+    }
+
+    /**
+     * Terminates the edit script and flushes any buffered data to the channel. The channel itself is not closed.
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    public void finish() throws IOException
+    {
+        if (this.finished)
+        {
+            return;
+        }
+        this.writeHeader();
+        this.reserve(1);
+        this.buffer.put((byte) OP_END);
+        this.finished = true;
+        this.flush();
+    }
+
+    /**
+     * Encodes the provided snakes without any inserted elements into a new buffer which is ready to be read.
+     *
+     * @param snakes
+     *         The snakes of a comparison result
+     *
+     * @return The buffer containing the encoded edit script
+     *
+     * @throws IOException
+     *         If the snakes could not be encoded
+     */
+    public static <T> ByteBuffer encode(List<Snake<T>> snakes) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EditScriptEncoder<T> encoder = new EditScriptEncoder<>(Channels.newChannel(out));
+        encoder.writeAll(snakes);
+        encoder.finish();
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Encodes the provided snakes including the inserted elements into a new buffer which is ready to be read.
+     *
+     * @param snakes
+     *         The snakes of a comparison result
+     * @param b
+     *         The elements of the second object which got compared
+     * @param codec
+     *         The codec converting the elements to bytes
+     *
+     * @return The buffer containing the encoded edit script
+     *
+     * @throws IOException
+     *         If the snakes could not be encoded
+     */
+    public static <T> ByteBuffer encode(List<Snake<T>> snakes, T[] b, TokenCodec<T> codec) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EditScriptEncoder<T> encoder = new EditScriptEncoder<T>(Channels.newChannel(out)).inlineTokens(b, codec);
+        encoder.writeAll(snakes);
+        encoder.finish();
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Ensures that the payload can't be changed once data was written.
+     */
+    private void checkNotStarted()
+    {
+        if (this.started)
+        {
+            throw new IllegalStateException("Payload must be configured before the first snake is written");
+        }
+    }
+
+    /**
+     * Writes the header if it was not yet written.
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    private void writeHeader() throws IOException
+    {
+        if (this.started)
+        {
+            return;
+        }
+        this.started = true;
+        this.reserve(MAGIC.length + 2);
+        this.buffer.put(MAGIC);
+        this.buffer.put(VERSION);
+        this.buffer.put(this.payload);
+    }
+
+    /**
+     * Writes a non-negative integer using 7 bits per byte where the highest bit signals that further bytes follow.
+     *
+     * @param value
+     *         The value to write
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    private void writeVarInt(int value) throws IOException
+    {
+        this.reserve(5);
+        while ((value & ~0x7F) != 0)
+        {
+            this.buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the provided bytes. Data exceeding the size of the internal buffer is written to the channel directly.
+     *
+     * @param data
+     *         The bytes to write
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    private void writeBytes(byte[] data) throws IOException
+    {
+        if (this.channel != null && data.length > this.buffer.capacity())
+        {
+            this.flush();
+            ByteBuffer direct = ByteBuffer.wrap(data);
+            while (direct.hasRemaining())
+            {
+                this.channel.write(direct);
+            }
+            return;
+        }
+        this.reserve(data.length);
+        this.buffer.put(data);
+    }
+
+    /**
+     * Ensures that the buffer has space for at least the given number of bytes by flushing it to the channel.
+     *
+     * @param bytes
+     *         The number of bytes to write next
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     * @throws BufferOverflowException
+     *         If the encoder writes directly into a buffer which has not enough space left
+     */
+    private void reserve(int bytes) throws IOException
+    {
+        if (this.buffer.remaining() >= bytes)
+        {
+            return;
+        }
+        if (this.channel == null)
+        {
+            throw new BufferOverflowException();
+        }
+        this.flush();
+    }
+
+    /**
+     * Writes any buffered data to the channel.
+     *
+     * @throws IOException
+     *         If the encoded data could not be written to the channel
+     */
+    private void flush() throws IOException
+    {
+        if (this.channel == null)
+        {
+            return;
+        }
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+        {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,312 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compares two very large objects via 64-bit fingerprints of their elements without keeping the elements themselves.
+ * <p>
+ * Both objects are streamed once and each element is reduced to a fingerprint by a pluggable hash function, so only
+ * 8 bytes per element are kept alive during the comparison. The fingerprints are then compared by a divide and conquer
+ * variant of Myers' algorithm on the primitive arrays, which splits the comparison at the middle snake like {@link
+ * LinearDiff} and therefore only requires linear space.
+ * <p>
+ * The resulting snakes are forward snakes, whose deletions and insertions report the positions of the changed elements
+ * in both objects, so the caller can fetch only those elements from the source. As different elements may share a
+ * fingerprint, elements on a diagonal are only equal with a high probability. {@link #Verify(Results, Iterator,
+ * Iterator)} streams both objects a second time and replaces each falsely matched pair on a diagonal by a deletion and
+ * an insertion.
+ *
+ * @author Roman Vottner
+ */
+public class FingerprintDiff
+{
+    /** A 64-bit FNV-1a hash of the characters of a character sequence **/
+    public static final ToLongFunction<CharSequence> FNV_1A = (CharSequence s) ->
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++)
+        {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    };
+
+    /** prevent initializations of the util class **/
+    private FingerprintDiff()
+    {
+
+    }
+
+    /**
+     * Streams the given elements once and calculates the fingerprint of each of them.
+     *
+     * @param elements
+     *         The elements of the object
+     * @param hash
+     *         The function calculating the fingerprint of a single element
+     *
+     * @return The fingerprints of all elements in the order of the elements
+     */
+    public static <T> long[] Fingerprints(Iterator<? extends T> elements, ToLongFunction<? super T> hash)
+    {
+        long[] fingerprints = new long[64];
+        int count = 0;
+        while (elements.hasNext())
+        {
+            if (count == fingerprints.length)
+            {
+                fingerprints = Arrays.copyOf(fingerprints, count * 2);
+            }
+            fingerprints[count++] = hash.applyAsLong(elements.next());
+        }
+        return Arrays.copyOf(fingerprints, count);
+    }
+
+    /**
+     * Compares two objects via the fingerprints of their elements, streaming each object once or, if the matched
+     * elements are verified, twice.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param hash
+     *         The function calculating the fingerprint of a single element
+     * @param verify
+     *         True to compare the matched elements of both objects in a second pass
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     */
+    public static <T> Results<T> Compare(Iterable<? extends T> a, Iterable<? extends T> b,
+                                         ToLongFunction<? super T> hash, boolean verify)
+    {
+        Results<T> res = Compare(Fingerprints(a.iterator(), hash), Fingerprints(b.iterator(), hash));
+        if (verify)
+        {
+            res = Verify(res, a.iterator(), b.iterator());
+        }
+        return res;
+    }
+
+    /**
+     * Compares the fingerprints of two objects.
+     *
+     * @param a
+     *         The fingerprints of the first object; usually the oldest one
+     * @param b
+     *         The fingerprints of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     */
+    public static <T> Results<T> Compare(long[] a, long[] b)
+    {
+        int max = (a.length + b.length + 1) / 2;
+        int[] VForward = new int[2 * max + 3];
+        int[] VReverse = new int[2 * max + 3];
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        Divide(a, 0, a.length, b, 0, b.length, VForward, VReverse, builder);
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Streams both objects and compares the elements matched by the snakes of a fingerprint comparison. Each pair of
+     * elements on a diagonal which are not equal is replaced by a deletion and an insertion.
+     *
+     * @param res
+     *         The result of the fingerprint comparison of both objects
+     * @param a
+     *         The elements of the first object
+     * @param b
+     *         The elements of the second object
+     *
+     * @return The result whose diagonals only contain equal elements
+     */
+    public static <T> Results<T> Verify(Results<T> res, Iterator<? extends T> a, Iterator<? extends T> b)
+    {
+        Cursor<T> cursorA = new Cursor<>(a);
+        Cursor<T> cursorB = new Cursor<>(b);
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        for (Snake<T> snake : res.getSnakes())
+        {
+            if (!snake.IsForward)
+            {
+                Verify(cursorA, cursorB, snake.DiagonalLength, builder);
+            }
+            builder.delete(snake.ADeleted);
+            builder.insert(snake.BInserted);
+            if (snake.IsForward)
+            {
+                Verify(cursorA, cursorB, snake.DiagonalLength, builder);
+            }
+        }
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Compares the elements of a diagonal starting at the current end point of the builder.
+     */
+    private static <T> void Verify(Cursor<T> a, Cursor<T> b, int length, SnakeBuilder<T> builder)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (a.get(builder.getX()).equals(b.get(builder.getY())))
+            {
+                builder.keep(1);
+            }
+            else
+            {
+                builder.delete(1);
+                builder.insert(1);
+            }
+        }
+    }
+
+    /**
+     * Compares the fingerprints <em>[a0, a0 + N)</em> of the first object with the fingerprints <em>[b0, b0 + M)</em>
+     * of the second object by splitting the comparison at the middle snake and adds the resulting path to the builder.
+     */
+    private static <T> void Divide(long[] a, int a0, int N, long[] b, int b0, int M, int[] VForward, int[] VReverse,
+                                   SnakeBuilder<T> builder)
+    {
+        int prefix = 0;
+        while (prefix < N && prefix < M && a[a0 + prefix] == b[b0 + prefix])
+        {
+            prefix++;
+        }
+        builder.keep(prefix);
+        a0 += prefix;
+        b0 += prefix;
+        N -= prefix;
+        M -= prefix;
+
+        int suffix = 0;
+        while (suffix < N && suffix < M && a[a0 + N - 1 - suffix] == b[b0 + M - 1 - suffix])
+        {
+            suffix++;
+        }
+        N -= suffix;
+        M -= suffix;
+
+        if (N == 0 || M == 0)
+        {
+            builder.delete(N);
+            builder.insert(M);
+        }
+        else
+        {
+            // without a common prefix or suffix at least two differences
+            // remain, so both halves are smaller than the rectangle
+            int[] middle = MiddleSnake(a, a0, N, b, b0, M, VForward, VReverse);
+            Divide(a, a0, middle[0], b, b0, middle[1], VForward, VReverse, builder);
+            builder.keep(middle[2] - middle[0]);
+            Divide(a, a0 + middle[2], N - middle[2], b, b0 + middle[3], M - middle[3], VForward, VReverse, builder);
+        }
+
+        builder.keep(suffix);
+    }
+
+    /**
+     * Finds the middle snake of the fingerprints <em>[a0, a0 + N)</em> of the first object and the fingerprints
+     * <em>[b0, b0 + M)</em> of the second object, where k-line <em>k</em> holds the points with <em>x - y = k</em>.
+     *
+     * @return The x- and y-position of the start and the x- and y-position of the end of the middle snake
+     */
+    private static int[] MiddleSnake(long[] a, int a0, int N, long[] b, int b0, int M, int[] VForward, int[] VReverse)
+    {
+        int max = (N + M + 1) / 2;
+        int offset = max + 1;
+        int delta = N - M;
+        boolean odd = (delta & 1) != 0;
+        VForward[offset + 1] = 0;
+        VReverse[offset + 1] = 0;
+
+        for (int d = 0; d <= max; d++)
+        {
+            for (int k = -d; k <= d; k += 2)
+            {
+                int x = k == -d || k != d && VForward[offset + k - 1] < VForward[offset + k + 1]
+                        ? VForward[offset + k + 1] : VForward[offset + k - 1] + 1;
+                int y = x - k;
+                int xStart = x;
+                int yStart = y;
+                while (x < N && y < M && a[a0 + x] == b[b0 + y])
+                {
+                    x++;
+                    y++;
+                }
+                VForward[offset + k] = x;
+                int c = delta - k;
+                if (odd && c >= -(d - 1) && c <= d - 1 && x + VReverse[offset + c] >= N)
+                {
+                    return new int[] {xStart, yStart, x, y};
+                }
+            }
+            for (int k = -d; k <= d; k += 2)
+            {
+                // the reverse path is calculated on the mirrored rectangle
+                int x = k == -d || k != d && VReverse[offset + k - 1] < VReverse[offset + k + 1]
+                        ? VReverse[offset + k + 1] : VReverse[offset + k - 1] + 1;
+                int y = x - k;
+                int xStart = x;
+                int yStart = y;
+                while (x < N && y < M && a[a0 + N - 1 - x] == b[b0 + M - 1 - y])
+                {
+                    x++;
+                    y++;
+                }
+                VReverse[offset + k] = x;
+                int c = delta - k;
+                if (!odd && c >= -d && c <= d && x + VForward[offset + c] >= N)
+                {
+                    return new int[] {N - x, M - y, N - xStart, M - yStart};
+                }
+            }
+        }
+        throw new IllegalStateException("No middle snake found");
+    }
+
+    /**
+     * Streams the elements of an object in ascending order of their requested positions.
+     *
+     * @param <T>
+     *         The type of the elements
+     */
+    private static final class Cursor<T>
+    {
+        private final Iterator<? extends T> elements;
+        /** The position of the next element of the stream **/
+        private int position = 0;
+
+        Cursor(Iterator<? extends T> elements)
+        {
+            this.elements = elements;
+        }
+
+        /**
+         * Returns the element at the given position, which must not be before the position of the element returned
+         * last, skipping all elements before it.
+         */
+        T get(int position)
+        {
+            for (; this.position < position; this.position++)
+            {
+                this.next();
+            }
+            this.position++;
+            return this.next();
+        }
+
+        private T next()
+        {
+            if (!this.elements.hasNext())
+            {
+                throw new NoSuchElementException("The object ended before position " + this.position);
+            }
+            return this.elements.next();
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A patch which can be applied to a base that drifted away from the object the edit script was calculated for.
+ * <p>
+ * The snakes of a comparison result are grouped into changes, i.e. maximal runs of deletions and insertions which are
+ * not separated by equal elements. Each change keeps a number of equal elements in front of and after the change as
+ * context. When the patch is applied, the context together with the deleted elements forms a window which has to
+ * match the base. If it does not match at the expected position, the window is looked up in a hash index over the base,
+ * which contains the rolling hashes of all windows of {@link #MAX_KEY_LENGTH} elements, and the candidate nearest to
+ * the expected position is used. Windows shorter than that are looked up in an index keyed by their own length, which
+ * is only built once such a window has to be looked up. Each index is built at most once per application so no change
+ * requires a linear rescan of the base. If no candidate matches, up to <em>fuzz</em> context elements on each side of
+ * the change are ignored before the change is rejected.
+ * <p>
+ * The context and the inserted elements are not copied but referenced within the compared objects.
+ *
+ * @param <T>
+ *         The type of the elements the edit script was calculated for
+ *
+ * @author Roman Vottner
+ */
+public class FuzzyPatch<T>
+{
+    /** The default number of equal elements kept on each side of a change **/
+    public static final int DEFAULT_CONTEXT = 3;
+    /** The maximum number of elements hashed for a lookup in the index **/
+    private static final int MAX_KEY_LENGTH = 8;
+
+    /** The elements of the first object the context and deleted elements are taken from **/
+    private final T[] a;
+    /** The elements of the second object the inserted elements are taken from **/
+    private final T[] b;
+    /** The number of equal elements kept on each side of a change **/
+    private final int context;
+    /** The changes of the edit script **/
+    private final EditChanges changes;
+
+    /**
+     * Creates a new fuzzy patch with the default context size.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param res
+     *         The result returned by the comparison algorithm
+     * @param b
+     *         The elements of the second object
+     */
+    public FuzzyPatch(T[] a, Results<T> res, T[] b)
+    {
+        this(a, res, b, DEFAULT_CONTEXT);
+    }
+
+    /**
+     * Creates a new fuzzy patch.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param res
+     *         The result returned by the comparison algorithm
+     * @param b
+     *         The elements of the second object
+     * @param context
+     *         The number of equal elements to keep on each side of a change
+     */
+    public FuzzyPatch(T[] a, Results<T> res, T[] b, int context)
+    {
+        this.a = a;
+        this.b = b;
+        this.context = context;
+
+        this.changes = new EditChanges(res.getSnakes());
+    }
+
+    /**
+     * Returns the number of changes contained in this patch.
+     *
+     * @return The number of changes
+     */
+    public int size()
+    {
+        return this.changes.size();
+    }
+
+    /**
+     * Applies this patch to the provided base, which is expected to be similar but not necessarily equal to the first
+     * object the patch was created for.
+     *
+     * @param base
+     *         The elements to apply the patch to
+     * @param fuzz
+     *         The maximum number of context elements which may be ignored on each side of a change
+     *
+     * @return The patched elements and a report on how each change got applied
+     */
+    public FuzzyPatchResult<T> apply(T[] base, int fuzz)
+    {
+        int count = this.changes.size();
+        int[] positions = new int[count];
+        int[] offsets = new int[count];
+        int[] fuzzes = new int[count];
+
+        // the indices over the base by their key length, which are built on their first lookup
+        long[][] indices = new long[MAX_KEY_LENGTH + 1][];
+
+        // the shift caused by the drift of the base, taken from the last applied change
+        int delta = 0;
+        int lastEnd = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int xStart = this.changes.getXStart(i);
+            positions[i] = -1;
+            for (int f = 0; f <= fuzz && f <= this.context; f++)
+            {
+                int pre = this.preContext(i, f);
+                int windowStart = xStart - pre;
+                int windowLength = pre + this.changes.getDeleted(i) + this.postContext(i, f);
+
+                int found = this.find(base, windowStart, windowLength, xStart + delta - pre, lastEnd - pre, indices);
+                if (found >= 0)
+                {
+                    int position = found + pre;
+                    positions[i] = position;
+                    offsets[i] = position - (xStart + delta);
+                    fuzzes[i] = f;
+                    delta = position - xStart;
+                    lastEnd = position + this.changes.getDeleted(i);
+                    break;
+                }
+            }
+        }
+
+        List<T> target = new ArrayList<>(base.length);
+        List<T> baseList = Arrays.asList(base);
+        List<T> bList = Arrays.asList(this.b);
+        int cursor = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (positions[i] < 0)
+            {
+                continue;
+            }
+            target.addAll(baseList.subList(cursor, positions[i]));
+            target.addAll(bList.subList(this.changes.getYStart(i), this.changes.getYEnd(i)));
+            cursor = positions[i] + this.changes.getDeleted(i);
+        }
+        target.addAll(baseList.subList(cursor, base.length));
+
+        return new FuzzyPatchResult<>(target, positions, offsets, fuzzes);
+    }
+
+    /**
+     * Returns the number of context elements in front of a change for the given fuzz.
+     *
+     * @param change
+     *         The index of the change
+     * @param fuzz
+     *         The number of context elements to ignore
+     *
+     * @return The number of leading context elements
+     */
+    private int preContext(int change, int fuzz)
+    {
+        return Math.min(Math.max(this.context - fuzz, 0), this.changes.getXStart(change));
+    }
+
+    /**
+     * Returns the number of context elements after a change for the given fuzz.
+     *
+     * @param change
+     *         The index of the change
+     * @param fuzz
+     *         The number of context elements to ignore
+     *
+     * @return The number of trailing context elements
+     */
+    private int postContext(int change, int fuzz)
+    {
+        return Math.min(Math.max(this.context - fuzz, 0), this.a.length - this.changes.getXEnd(change));
+    }
+
+    /**
+     * Looks up the window of the first object in the base.
+     *
+     * @param base
+     *         The elements to apply the patch to
+     * @param windowStart
+     *         The position of the window in the first object
+     * @param windowLength
+     *         The number of elements of the window
+     * @param expected
+     *         The position in the base the window is expected at
+     * @param min
+     *         The smallest position in the base the window may start at
+     * @param indices
+     *         The hash indices over the base by their key length; missing ones are created on demand
+     *
+     * @return The position of the window in the base or -1 if it could not be found
+     */
+    private int find(T[] base, int windowStart, int windowLength, int expected, int min, long[][] indices)
+    {
+        if (windowLength == 0)
+        {
+            return Math.max(Math.min(expected, base.length), Math.max(min, 0));
+        }
+        if (expected >= min && this.matches(base, expected, windowStart, windowLength))
+        {
+            return expected;
+        }
+
+        int keyLength = Math.min(windowLength, MAX_KEY_LENGTH);
+        if (indices[keyLength] == null)
+        {
+            indices[keyLength] = index(base, keyLength);
+        }
+        long[] index = indices[keyLength];
+        int hash = hash(this.a, windowStart, keyLength);
+        int first = lowerBound(index, key(hash, 0));
+        int last = lowerBound(index, key(hash, Integer.MAX_VALUE));
+        if (first == last)
+        {
+            return -1;
+        }
+
+        // probe the candidates with the same hash ordered by their distance to the expected position
+        int right = Math.max(lowerBound(index, key(hash, Math.max(expected, 0))), first);
+        int left = right - 1;
+        while (left >= first || right < last)
+        {
+            int candidate;
+            if (right >= last ||
+                left >= first && expected - position(index[left]) <= position(index[right]) - expected)
+            {
+                candidate = position(index[left--]);
+                if (candidate < min)
+                {
+                    // all remaining candidates on the left side are before the previous change
+                    left = first - 1;
+                    continue;
+                }
+            }
+            else
+            {
+                candidate = position(index[right++]);
+            }
+            if (candidate >= min && this.matches(base, candidate, windowStart, windowLength))
+            {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the window of the first object matches the base at the given position.
+     *
+     * @param base
+     *         The elements to apply the patch to
+     * @param position
+     *         The position in the base to compare the window with
+     * @param windowStart
+     *         The position of the window in the first object
+     * @param windowLength
+     *         The number of elements of the window
+     *
+     * @return true if all elements of the window are equal to the elements of the base at the given position
+     */
+    private boolean matches(T[] base, int position, int windowStart, int windowLength)
+    {
+        if (position < 0 || position + windowLength > base.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < windowLength; i++)
+        {
+            if (!this.a[windowStart + i].equals(base[position + i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a sorted index containing the rolling hash of every window of the given length in the base together
+     * with the position of the window. Entries with equal hashes are therefore sorted by their position.
+     *
+     * @param base
+     *         The elements to index
+     * @param keyLength
+     *         The number of elements hashed per entry
+     *
+     * @return The sorted index
+     */
+    private static <T> long[] index(T[] base, int keyLength)
+    {
+        if (base.length < keyLength)
+        {
+            return new long[0];
+        }
+
+        int power = 1;
+        for (int i = 1; i < keyLength; i++)
+        {
+            power *= 31;
+        }
+
+        long[] index = new long[base.length - keyLength + 1];
+        int hash = hash(base, 0, keyLength);
+        index[0] = key(hash, 0);
+        for (int pos = 1; pos < index.length; pos++)
+        {
+            hash = (hash - base[pos - 1].hashCode() * power) * 31 + base[pos + keyLength - 1].hashCode();
+            index[pos] = key(hash, pos);
+        }
+        Arrays.sort(index);
+        return index;
+    }
+
+    /**
+     * Calculates the polynomial hash of the given elements.
+     *
+     * @param elements
+     *         The array containing the elements to hash
+     * @param start
+     *         The position of the first element to hash
+     * @param length
+     *         The number of elements to hash
+     *
+     * @return The hash of the elements
+     */
+    private static <T> int hash(T[] elements, int start, int length)
+    {
+        int hash = 0;
+        for (int i = start; i < start + length; i++)
+        {
+            hash = hash * 31 + elements[i].hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Combines a hash and a position to an index entry.
+     *
+     * @param hash
+     *         The hash of the window
+     * @param position
+     *         The position of the window
+     *
+     * @return The index entry
+     */
+    private static long key(int hash, int position)
+    {
+        return ((long) hash << 32) | position;
+    }
+
+    /**
+     * Extracts the position from an index entry.
+     *
+     * @param key
+     *         The index entry
+     *
+     * @return The position of the window
+     */
+    private static int position(long key)
+    {
+        return (int) key;
+    }
+
+    /**
+     * Returns the index of the first entry which is not smaller than the given key.
+     *
+     * @param index
+     *         The sorted index
+     * @param key
+     *         The key to search for
+     *
+     * @return The index of the first entry greater than or equal to the key
+     */
+    private static int lowerBound(long[] index, long key)
+    {
+        int low = 0;
+        int high = index.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < key)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,181 @@
+package at.rovo.diff;
+
+import java.util.List;
+
+/**
+ * The outcome of applying a {@link FuzzyPatch} to a possibly drifted base. Besides the patched elements it reports for
+ * each change whether it was applied at its original position, at an offset or with reduced context, or whether it had
+ * to be rejected.
+ *
+ * @param <T>
+ *         The type of the patched elements
+ *
+ * @author Roman Vottner
+ */
+public class FuzzyPatchResult<T>
+{
+    /**
+     * The ways a single change of a fuzzy patch may have been applied.
+     */
+    public enum Status
+    {
+        /** The change was applied at its expected position with its full context **/
+        APPLIED,
+        /** The change was applied at an offset to its expected position or with reduced context **/
+        APPLIED_WITH_OFFSET,
+        /** No position matching the change could be found **/
+        REJECTED
+    }
+
+    /** The patched elements **/
+    private final List<T> target;
+    /** The position each change got applied at in the base; -1 for rejected changes **/
+    private final int[] positions;
+    /** The offset to the expected position of each change **/
+    private final int[] offsets;
+    /** The number of context elements that were ignored on each side of a change **/
+    private final int[] fuzz;
+
+    /**
+     * Creates a new report.
+     *
+     * @param target
+     *         The patched elements
+     * @param positions
+     *         The position each change got applied at in the base; -1 for rejected changes
+     * @param offsets
+     *         The offset to the expected position of each change
+     * @param fuzz
+     *         The number of context elements that were ignored on each side of a change
+     */
+    FuzzyPatchResult(List<T> target, int[] positions, int[] offsets, int[] fuzz)
+    {
+        this.target = target;
+        this.positions = positions;
+        this.offsets = offsets;
+        this.fuzz = fuzz;
+    }
+
+    /**
+     * Returns the patched elements.
+     *
+     * @return The patched elements
+     */
+    public List<T> getTarget()
+    {
+        return this.target;
+    }
+
+    /**
+     * Returns the number of changes contained in the patch.
+     *
+     * @return The number of changes
+     */
+    public int size()
+    {
+        return this.positions.length;
+    }
+
+    /**
+     * Returns how the change at the given index was applied.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The status of the change
+     */
+    public Status getStatus(int change)
+    {
+        if (this.positions[change] < 0)
+        {
+            return Status.REJECTED;
+        }
+        if (this.offsets[change] != 0 || this.fuzz[change] != 0)
+        {
+            return Status.APPLIED_WITH_OFFSET;
+        }
+        return Status.APPLIED;
+    }
+
+    /**
+     * Returns the position in the base the change at the given index was applied at.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The position of the first replaced element or -1 if the change was rejected
+     */
+    public int getPosition(int change)
+    {
+        return this.positions[change];
+    }
+
+    /**
+     * Returns the difference between the position the change was applied at and its expected position, which takes the
+     * offsets of previously applied changes into account.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The offset of the change
+     */
+    public int getOffset(int change)
+    {
+        return this.offsets[change];
+    }
+
+    /**
+     * Returns the number of context elements on each side of the change that had to be ignored to find a match.
+     *
+     * @param change
+     *         The index of the change
+     *
+     * @return The applied fuzz
+     */
+    public int getFuzz(int change)
+    {
+        return this.fuzz[change];
+    }
+
+    /**
+     * Returns the number of changes that could not be applied.
+     *
+     * @return The number of rejected changes
+     */
+    public int getRejectedCount()
+    {
+        int rejected = 0;
+        for (int position : this.positions)
+        {
+            if (position < 0)
+            {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.positions.length; i++)
+        {
+            sb.append("Hunk #").append(i + 1);
+            switch (this.getStatus(i))
+            {
+                case APPLIED:
+                    sb.append(" succeeded at ").append(this.positions[i]);
+                    break;
+                case APPLIED_WITH_OFFSET:
+                    sb.append(" succeeded at ").append(this.positions[i]).append(" (offset ").append(this.offsets[i])
+                      .append(", fuzz ").append(this.fuzz[i]).append(")");
+                    break;
+                default:
+                    sb.append(" FAILED");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Splits a range of elements into consecutive coarse units, like the paragraphs or lines of a tokenized document, which
+ * {@link HierarchicalDiff} compares before it looks at the single elements.
+ *
+ * @param <T>
+ *         The type of the split elements
+ *
+ * @author Roman Vottner
+ */
+public interface Granularity<T>
+{
+    /**
+     * Creates a granularity whose units end with each element matching the given delimiter. Elements after the last
+     * delimiter form a unit of their own.
+     *
+     * @param delimiter
+     *         The predicate matching the last element of each unit, i.e. a line break or the closing tag of a block
+     *
+     * @return The granularity splitting at the matching elements
+     */
+    static <T> Granularity<T> endingWith(Predicate<? super T> delimiter)
+    {
+        return (elements, from, to) ->
+        {
+            int[] ends = new int[16];
+            int count = 0;
+            for (int i = from; i < to; i++)
+            {
+                if (delimiter.test(elements[i]) || i == to - 1)
+                {
+                    if (count == ends.length)
+                    {
+                        ends = Arrays.copyOf(ends, count * 2);
+                    }
+                    ends[count++] = i + 1;
+                }
+            }
+            return Arrays.copyOf(ends, count);
+        };
+    }
+
+    /**
+     * Splits the elements <em>[from, to)</em> into consecutive units.
+     *
+     * @param elements
+     *         The elements to split
+     * @param from
+     *         The position of the first element to split
+     * @param to
+     *         The position after the last element to split
+     *
+     * @return The position after the last element of each unit in ascending order; the last one is <em>to</em>. Empty
+     *         if the range is empty
+     */
+    int[] split(T[] elements, int from, int to);
+}
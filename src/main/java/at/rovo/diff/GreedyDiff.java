@@ -22,6 +22,9 @@ import java.util.List;
  */
 public class GreedyDiff
 {
+    /** The estimated number of bytes a copy of the end points occupies besides the end points themselves **/
+    static final int SNAPSHOT_OVERHEAD = 48;
+
     /**
      * Compares two character sequences or strings with each other and calculates the shortest edit sequence (SES) as
      * well as the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the
@@ -93,6 +96,103 @@ public class GreedyDiff
         return new Results<>(snakes, forward, vs);
     }
 
+    /**
+     * Compares two arrays of type <em>T</em> with each other like {@link #Compare(Object[], Object[], boolean)} but
+     * calculates the k-lines of large <em>d contours</em> in parallel. The resulting snakes are identical to the ones
+     * of the sequential comparison.
+     *
+     * @param aa
+     *         Usually the older object which should be compared
+     * @param ab
+     *         Usually the newest object to be compared with <em>aa</em>
+     * @param forward
+     *         Indicates forward or backward comparison of both words
+     * @param contour
+     *         The configuration of the parallel calculation of the contours
+     *
+     * @return The result containing the snake that lead from input <em>aa</em> to input <em>ab</em>
+     *
+     * @throws Exception
+     */
+    public static <T> Results<T> Compare(T[] aa, T[] ab, boolean forward, ParallelContour contour) throws Exception
+    {
+        V V = new V(aa.length, ab.length, forward, false);
+
+        List<Snake<T>> snakes = new ArrayList<>();
+        List<V> vs = new ArrayList<>();
+
+        Compare(snakes, vs, aa, aa.length, ab, ab.length, V, forward, contour);
+
+        return new Results<>(snakes, forward, vs);
+    }
+
+    /**
+     * Compares two arrays of type <em>T</em> with each other like {@link #Compare(Object[], Object[], boolean)} but
+     * limits the memory occupied by the copies of the end points of each <em>d contour</em>, which grows quadratically
+     * with the number of differences.
+     * <p>
+     * If the copies exceed the budget before a solution is found, they are discarded and the comparison continues with
+     * the linear space strategy of {@link LinearDiff}. The diagonal of contour 0, which is part of every solution, is
+     * kept, so only the remaining rectangle is compared again. In that case the result contains no end points and
+     * records {@link DiffEngine#LINEAR} as engine, otherwise {@link DiffEngine#GREEDY}.
+     *
+     * @param aa
+     *         Usually the older object which should be compared
+     * @param ab
+     *         Usually the newest object to be compared with <em>aa</em>
+     * @param forward
+     *         Indicates forward or backward comparison of both words
+     * @param memoryBudget
+     *         The number of bytes the copies of the end points may occupy
+     *
+     * @return The result containing the snake that lead from input <em>aa</em> to input <em>ab</em>
+     *
+     * @throws Exception
+     */
+    public static <T> Results<T> Compare(T[] aa, T[] ab, boolean forward, long memoryBudget) throws Exception
+    {
+        int N = aa.length;
+        int M = ab.length;
+        V V = new V(N, M, forward, false);
+
+        List<Snake<T>> snakes = new ArrayList<>();
+        List<V> vs = new ArrayList<>();
+
+        if (Compare(snakes, vs, aa, N, ab, M, V, forward, null, memoryBudget))
+        {
+            Results<T> res = new Results<>(snakes, forward, vs);
+            res.setEngine(DiffEngine.GREEDY);
+            return res;
+        }
+
+        // the diagonal of contour 0 starts at the start point in forward and
+        // ends at the end point in reverse direction
+        int diagonal = forward ? vs.get(0).getK(0) : N - vs.get(0).getK(N - M);
+        vs.clear();
+
+        int a0 = forward ? diagonal : 0;
+        int b0 = forward ? diagonal : 0;
+        V VForward = new V(N - diagonal, M - diagonal, true, true);
+        V VReverse = new V(N - diagonal, M - diagonal, false, true);
+        if (forward && diagonal > 0)
+        {
+            snakes.add(new Snake<>(0, N, 0, M, true, 0, 0, 0, 0, diagonal));
+        }
+        LinearDiff.Compare(0, snakes, null, null, aa, a0, N - diagonal, ab, b0, M - diagonal, VForward, VReverse);
+        if (!forward && diagonal > 0)
+        {
+            Snake<T> snake = new Snake<>(0, N, 0, M, true, N - diagonal, M - diagonal, 0, 0, diagonal);
+            if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(snake))
+            {
+                snakes.add(snake);
+            }
+        }
+
+        Results<T> res = new Results<>(snakes, null, null);
+        res.setEngine(DiffEngine.LINEAR);
+        return res;
+    }
+
     /**
      * Compares two arrays of type <em>T</em> with each other and calculates the shortest edit sequence (SES) as well as
      * the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the necessary
@@ -119,8 +219,78 @@ public class GreedyDiff
      */
     static <T> void Compare(List<Snake<T>> snakes, List<V> vs, T[] pa, int N, T[] pb, int M, V V, boolean forward)
             throws Exception
+    {
+        Compare(snakes, vs, pa, N, pb, M, V, forward, null);
+    }
+
+    /**
+     * Compares two arrays of type <em>T</em> with each other and calculates the shortest edit sequence (SES) as well as
+     * the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the necessary
+     * actions required to perform the transformation.
+     *
+     * @param snakes
+     *         The possible solution paths for transforming object <em>pa </em> to <em>pb</em>
+     * @param vs
+     *         All saved end points indexed on <em>d</em>
+     * @param pa
+     *         Elements of the first object. Usually the original object
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Elements of the second object. Usually the current object
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param V
+     *         An array of end points for a given k-line
+     * @param forward
+     *         Indicates forward or backward comparison of both words
+     * @param contour
+     *         The configuration of the parallel calculation of the contours; if null they are calculated sequentially
+     *
+     * @throws Exception
+     */
+    static <T> void Compare(List<Snake<T>> snakes, List<V> vs, T[] pa, int N, T[] pb, int M, V V, boolean forward,
+                            ParallelContour contour) throws Exception
+    {
+        Compare(snakes, vs, pa, N, pb, M, V, forward, contour, Long.MAX_VALUE);
+    }
+
+    /**
+     * Compares two arrays of type <em>T</em> with each other and calculates the shortest edit sequence (SES) as well as
+     * the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em> unless the copies of the
+     * end points exceed the given memory budget before a solution is found.
+     *
+     * @param snakes
+     *         The possible solution paths for transforming object <em>pa </em> to <em>pb</em>
+     * @param vs
+     *         All saved end points indexed on <em>d</em>
+     * @param pa
+     *         Elements of the first object. Usually the original object
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Elements of the second object. Usually the current object
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param V
+     *         An array of end points for a given k-line
+     * @param forward
+     *         Indicates forward or backward comparison of both words
+     * @param contour
+     *         The configuration of the parallel calculation of the contours; if null they are calculated sequentially
+     * @param memoryBudget
+     *         The number of bytes the copies of the end points may occupy
+     *
+     * @return True if a solution was found; false if the comparison was aborted as the budget was exceeded, in which
+     *         case <em>vs</em> contains the end points of all contours calculated so far
+     *
+     * @throws Exception
+     */
+    static <T> boolean Compare(List<Snake<T>> snakes, List<V> vs, T[] pa, int N, T[] pb, int M, V V, boolean forward,
+                               ParallelContour contour, long memoryBudget) throws Exception
     {
         Snake<T> last = null;
+        long bytes = 0;
 
         int MAX = N + M;
         int DELTA = N - M;
@@ -135,11 +305,11 @@ public class GreedyDiff
             // d = number of differences in that trace
             if (forward)
             {
-                last = LCS.Forward(pa, N, pb, M, V, d);
+                last = LCS.Forward(pa, N, pb, M, V, d, contour);
             }
             else
             {
-                last = LCS.Reverse(pa, N, pb, M, V, d);
+                last = LCS.Reverse(pa, N, pb, M, V, d, contour);
             }
 
             vs.add(V.CreateCopy(d, forward, (forward ? 0 : DELTA)));
@@ -148,6 +318,12 @@ public class GreedyDiff
             {
                 break;
             }
+
+            bytes += SNAPSHOT_OVERHEAD + 4L * (2 * Math.max(d, 1) + 1);
+            if (bytes > memoryBudget)
+            {
+                return false;
+            }
         }
 
         if (last == null)
@@ -164,6 +340,7 @@ public class GreedyDiff
         {
             SolveReverse(snakes, vs, pa, pb, N, M);
         }
+        return true;
     }
 
     /**
@@ -0,0 +1,208 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares two large structured objects from coarse to fine granularity, i.e. first their blocks, then the lines of
+ * changed blocks and finally the single elements of changed lines.
+ * <p>
+ * On each level the compared range of both objects is split into units by the {@link Granularity} of the level, and
+ * the units are compared by {@link LinearDiff} via their hash codes, falling back to comparing their elements only if
+ * the hash codes are equal. Runs of equal units become anchors, while each stretch of changed units is compared again
+ * on the next finer level. The stretches which are still changed after the finest level are finally compared element
+ * by element by {@link AnchoredDiff}, which stitches all results into a single edit script. Most of the elements of
+ * objects with only a few changed blocks are therefore only hashed but never visited by the element-level comparison.
+ * <p>
+ * As unchanged units are matched as a whole, the resulting edit script may be longer than the shortest edit script if
+ * a shorter one would match elements across the borders of units.
+ *
+ * @author Roman Vottner
+ */
+public class HierarchicalDiff
+{
+    /** prevent initializations of the util class **/
+    private HierarchicalDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects on the given levels and compares the remaining changed stretches on the common {@link
+     * ForkJoinPool}.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param levels
+     *         The granularities to compare the objects on, ordered from the coarsest to the finest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a stretch fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, List<Granularity<T>> levels) throws Exception
+    {
+        return Compare(a, b, levels, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares two objects on the given levels.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param levels
+     *         The granularities to compare the objects on, ordered from the coarsest to the finest one
+     * @param executor
+     *         The executor to compare the changed stretches element by element on; if null all stretches are compared
+     *         on the calling thread
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a stretch fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, List<Granularity<T>> levels, ExecutorService executor)
+            throws Exception
+    {
+        Anchors anchors = new Anchors();
+        Refine(a, 0, a.length, b, 0, b.length, levels, 0, anchors);
+        return AnchoredDiff.compare(a, b, anchors.values, anchors.count, executor);
+    }
+
+    /**
+     * Compares the elements <em>[xFrom, xTo)</em> of the first object with the elements <em>[yFrom, yTo)</em> of the
+     * second object on the given and all finer levels and adds the runs of equal units as anchors.
+     */
+    private static <T> void Refine(T[] a, int xFrom, int xTo, T[] b, int yFrom, int yTo, List<Granularity<T>> levels,
+                                   int level, Anchors anchors) throws Exception
+    {
+        if (level == levels.size() || xFrom == xTo || yFrom == yTo)
+        {
+            return;
+        }
+
+        Granularity<T> granularity = levels.get(level);
+        int[] endsA = granularity.split(a, xFrom, xTo);
+        int[] endsB = granularity.split(b, yFrom, yTo);
+        Unit[] unitsA = Units(a, xFrom, endsA);
+        Unit[] unitsB = Units(b, yFrom, endsB);
+
+        SnakeBuilder<Unit> builder = new SnakeBuilder<>();
+        builder.add(LinearDiff.Compare(unitsA, unitsB, null, LinearDiff.DEFAULT_CUTOFF).getSnakes());
+        for (Snake<Unit> snake : builder.build())
+        {
+            int ux = snake.XStart;
+            int uy = snake.YStart;
+            int x = ux == 0 ? xFrom : endsA[ux - 1];
+            int y = uy == 0 ? yFrom : endsB[uy - 1];
+            int xEnd = ux + snake.ADeleted == 0 ? xFrom : endsA[ux + snake.ADeleted - 1];
+            int yEnd = uy + snake.BInserted == 0 ? yFrom : endsB[uy + snake.BInserted - 1];
+
+            // the changed units are compared on the next finer level
+            Refine(a, x, xEnd, b, y, yEnd, levels, level + 1, anchors);
+
+            if (snake.DiagonalLength > 0)
+            {
+                int last = ux + snake.ADeleted + snake.DiagonalLength - 1;
+                anchors.add(xEnd, yEnd, endsA[last] - xEnd);
+            }
+        }
+    }
+
+    /**
+     * Creates the units of the elements starting at the given position and ending at the given positions.
+     */
+    private static Unit[] Units(Object[] elements, int from, int[] ends)
+    {
+        Unit[] units = new Unit[ends.length];
+        int start = from;
+        for (int i = 0; i < ends.length; i++)
+        {
+            units[i] = new Unit(elements, start, ends[i]);
+            start = ends[i];
+        }
+        return units;
+    }
+
+    /**
+     * A range of elements which is equal to another range if both contain equal elements in the same order.
+     */
+    private static final class Unit
+    {
+        private final Object[] elements;
+        private final int start;
+        private final int end;
+        private final int hash;
+
+        Unit(Object[] elements, int start, int end)
+        {
+            this.elements = elements;
+            this.start = start;
+            this.end = end;
+            int hash = 1;
+            for (int i = start; i < end; i++)
+            {
+                hash = 31 * hash + elements[i].hashCode();
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Unit))
+            {
+                return false;
+            }
+            Unit other = (Unit) obj;
+            if (this.hash != other.hash || this.end - this.start != other.end - other.start)
+            {
+                return false;
+            }
+            for (int i = 0; i < this.end - this.start; i++)
+            {
+                if (!this.elements[this.start + i].equals(other.elements[other.start + i]))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The anchors found on all levels in ascending order.
+     */
+    private static final class Anchors
+    {
+        /** Consecutive triples of the x-position, the y-position and the length of each anchor **/
+        private int[] values = new int[3 * 16];
+        /** The number of anchors **/
+        private int count = 0;
+
+        void add(int x, int y, int length)
+        {
+            if (this.count * 3 == this.values.length)
+            {
+                this.values = Arrays.copyOf(this.values, this.values.length * 2);
+            }
+            this.values[this.count * 3] = x;
+            this.values[this.count * 3 + 1] = y;
+            this.values[this.count * 3 + 2] = length;
+            this.count++;
+        }
+    }
+}
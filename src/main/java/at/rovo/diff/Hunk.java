@@ -0,0 +1,243 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A position-aware view on a single snake of a comparison result. Unlike {@link Result}, a hunk does not copy any
+ * elements but keeps the ranges it covers in both compared objects and exposes the deleted, inserted and equal elements
+ * as sub-list views of the original arrays.
+ * <p>
+ * All ranges are half-open intervals in the first (<em>x</em>) and second (<em>y</em>) object and follow the path from
+ * the top left corner of the edit graph, irrespective of the direction the underlying snake was calculated in.
+ *
+ * @param <E>
+ *         The type of the objects that are compared
+ *
+ * @author Roman Vottner
+ */
+public class Hunk<E>
+{
+    /** The snake this hunk is a view for **/
+    private final Snake<E> snake;
+    /** The elements of the first object **/
+    private final E[] a;
+    /** The elements of the second object **/
+    private final E[] b;
+
+    /**
+     * Creates a new view on the provided snake.
+     *
+     * @param snake
+     *         The snake to create the view for
+     * @param a
+     *         The elements of the first object which got compared
+     * @param b
+     *         The elements of the second object which got compared
+     */
+    Hunk(Snake<E> snake, E[] a, E[] b)
+    {
+        this.snake = snake;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * Returns the snake this hunk is a view for.
+     *
+     * @return The underlying snake
+     */
+    public Snake<E> getSnake()
+    {
+        return this.snake;
+    }
+
+    /**
+     * Returns the direction the underlying snake was calculated in.
+     *
+     * @return true if the snake was calculated in forward direction, false otherwise
+     */
+    public boolean isForwardDirection()
+    {
+        return this.snake.IsForward;
+    }
+
+    /**
+     * Returns the first position in the first object covered by this hunk.
+     *
+     * @return The inclusive start position in the first object
+     */
+    public int getXStart()
+    {
+        return this.snake.getPathXStart();
+    }
+
+    /**
+     * Returns the position after the last element of the first object covered by this hunk.
+     *
+     * @return The exclusive end position in the first object
+     */
+    public int getXEnd()
+    {
+        return this.snake.getPathXEnd();
+    }
+
+    /**
+     * Returns the first position in the second object covered by this hunk.
+     *
+     * @return The inclusive start position in the second object
+     */
+    public int getYStart()
+    {
+        return this.snake.getPathYStart();
+    }
+
+    /**
+     * Returns the position after the last element of the second object covered by this hunk.
+     *
+     * @return The exclusive end position in the second object
+     */
+    public int getYEnd()
+    {
+        return this.snake.getPathYEnd();
+    }
+
+    /**
+     * Returns the position of the first deleted element in the first object. A forward snake starts with its edit
+     * operation while a backward snake ends with it.
+     *
+     * @return The inclusive start position of the deleted elements
+     */
+    public int getDeletedStart()
+    {
+        return this.snake.IsForward ? this.getXStart() : this.getXEnd() - this.snake.ADeleted;
+    }
+
+    /**
+     * Returns the position after the last deleted element in the first object.
+     *
+     * @return The exclusive end position of the deleted elements
+     */
+    public int getDeletedEnd()
+    {
+        return this.getDeletedStart() + this.snake.ADeleted;
+    }
+
+    /**
+     * Returns the position of the first inserted element in the second object.
+     *
+     * @return The inclusive start position of the inserted elements
+     */
+    public int getInsertedStart()
+    {
+        return this.snake.IsForward ? this.getYStart() : this.getYEnd() - this.snake.BInserted;
+    }
+
+    /**
+     * Returns the position after the last inserted element in the second object.
+     *
+     * @return The exclusive end position of the inserted elements
+     */
+    public int getInsertedEnd()
+    {
+        return this.getInsertedStart() + this.snake.BInserted;
+    }
+
+    /**
+     * Returns the position of the first element of the diagonal in the first object.
+     *
+     * @return The inclusive start position of the equal elements in the first object
+     */
+    public int getRegularXStart()
+    {
+        return this.snake.IsForward ? this.getXStart() + this.snake.ADeleted : this.getXStart();
+    }
+
+    /**
+     * Returns the position of the first element of the diagonal in the second object.
+     *
+     * @return The inclusive start position of the equal elements in the second object
+     */
+    public int getRegularYStart()
+    {
+        return this.snake.IsForward ? this.getYStart() + this.snake.BInserted : this.getYStart();
+    }
+
+    /**
+     * Returns the number of elements which are equal in both objects.
+     *
+     * @return The length of the diagonal of this hunk
+     */
+    public int getRegularLength()
+    {
+        return this.snake.DiagonalLength;
+    }
+
+    /**
+     * Checks if the provided position of the first object is covered by this hunk.
+     *
+     * @param x
+     *         The position in the first object
+     *
+     * @return true if the position lies within [xStart, xEnd)
+     */
+    public boolean containsX(int x)
+    {
+        return x >= this.getXStart() && x < this.getXEnd();
+    }
+
+    /**
+     * Checks if the provided position of the second object is covered by this hunk.
+     *
+     * @param y
+     *         The position in the second object
+     *
+     * @return true if the position lies within [yStart, yEnd)
+     */
+    public boolean containsY(int y)
+    {
+        return y >= this.getYStart() && y < this.getYEnd();
+    }
+
+    /**
+     * Returns a view on the elements that got deleted from the first object. The returned list is backed by the
+     * original array and therefore does not copy any elements.
+     *
+     * @return The deleted elements
+     */
+    public List<E> getDeletedTokens()
+    {
+        return Arrays.asList(this.a).subList(this.getDeletedStart(), this.getDeletedEnd());
+    }
+
+    /**
+     * Returns a view on the elements that got inserted from the second object. The returned list is backed by the
+     * original array and therefore does not copy any elements.
+     *
+     * @return The inserted elements
+     */
+    public List<E> getInsertedTokens()
+    {
+        return Arrays.asList(this.b).subList(this.getInsertedStart(), this.getInsertedEnd());
+    }
+
+    /**
+     * Returns a view on the elements that are equal in both objects. The returned list is backed by the array of the
+     * first object and therefore does not copy any elements.
+     *
+     * @return The equal elements
+     */
+    public List<E> getRegularTokens()
+    {
+        int start = this.getRegularXStart();
+        return Arrays.asList(this.a).subList(start, start + this.snake.DiagonalLength);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Hunk " + (this.snake.IsForward ? "F" : "R") + ": x[ " + this.getXStart() + ", " + this.getXEnd() +
+               " ) y[ " + this.getYStart() + ", " + this.getYEnd() + " ) D( " + this.snake.ADeleted + ", " +
+               this.snake.BInserted + " ) + " + this.snake.DiagonalLength;
+    }
+}
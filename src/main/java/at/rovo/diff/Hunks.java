@@ -0,0 +1,150 @@
+package at.rovo.diff;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A lazy, read-only list of {@link Hunk} views over the snakes of a comparison result. Hunks are only created when they
+ * are accessed and never copy any element of the compared objects.
+ * <p>
+ * As the snakes of a result follow the path from the top left to the bottom right corner of the edit graph, the ranges
+ * of the hunks are monotonically increasing in both objects. This allows to look up the hunk covering a certain
+ * position of either object via a binary search.
+ *
+ * @param <E>
+ *         The type of the objects that are compared
+ *
+ * @author Roman Vottner
+ */
+public class Hunks<E> extends AbstractList<Hunk<E>> implements RandomAccess
+{
+    /** The snakes the hunks are created for **/
+    private final List<Snake<E>> snakes;
+    /** The elements of the first object **/
+    private final E[] a;
+    /** The elements of the second object **/
+    private final E[] b;
+
+    /**
+     * Creates a new lazy view on the provided snakes.
+     *
+     * @param snakes
+     *         The snakes returned by the comparison algorithm
+     * @param a
+     *         The elements of the first object which got compared
+     * @param b
+     *         The elements of the second object which got compared
+     */
+    public Hunks(List<Snake<E>> snakes, E[] a, E[] b)
+    {
+        this.snakes = snakes;
+        this.a = a;
+        this.b = b;
+    }
+
+    @Override
+    public Hunk<E> get(int index)
+    {
+        return new Hunk<>(this.snakes.get(index), this.a, this.b);
+    }
+
+    @Override
+    public int size()
+    {
+        return this.snakes.size();
+    }
+
+    /**
+     * Returns the index of the hunk which covers the provided position of the first object.
+     *
+     * @param x
+     *         The position in the first object
+     *
+     * @return The index of the hunk covering the position or -1 if the position is outside of the first object
+     */
+    public int indexOfX(int x)
+    {
+        if (x < 0 || x >= this.a.length)
+        {
+            return -1;
+        }
+
+        // find the last hunk starting at or before x. Any later hunk starts after the end of the covering one
+        int low = 0;
+        int high = this.snakes.size() - 1;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (this.snakes.get(mid).getPathXStart() <= x)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return this.snakes.isEmpty() || this.snakes.get(low).getPathXEnd() <= x ? -1 : low;
+    }
+
+    /**
+     * Returns the index of the hunk which covers the provided position of the second object.
+     *
+     * @param y
+     *         The position in the second object
+     *
+     * @return The index of the hunk covering the position or -1 if the position is outside of the second object
+     */
+    public int indexOfY(int y)
+    {
+        if (y < 0 || y >= this.b.length)
+        {
+            return -1;
+        }
+
+        int low = 0;
+        int high = this.snakes.size() - 1;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (this.snakes.get(mid).getPathYStart() <= y)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return this.snakes.isEmpty() || this.snakes.get(low).getPathYEnd() <= y ? -1 : low;
+    }
+
+    /**
+     * Returns the hunk which covers the provided position of the first object.
+     *
+     * @param x
+     *         The position in the first object
+     *
+     * @return The hunk covering the position or null if the position is outside of the first object
+     */
+    public Hunk<E> getHunkAtX(int x)
+    {
+        int index = this.indexOfX(x);
+        return index < 0 ? null : this.get(index);
+    }
+
+    /**
+     * Returns the hunk which covers the provided position of the second object.
+     *
+     * @param y
+     *         The position in the second object
+     *
+     * @return The hunk covering the position or null if the position is outside of the second object
+     */
+    public Hunk<E> getHunkAtY(int y)
+    {
+        int index = this.indexOfY(y);
+        return index < 0 ? null : this.get(index);
+    }
+}
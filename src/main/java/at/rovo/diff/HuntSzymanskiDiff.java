@@ -0,0 +1,191 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+
+/**
+ * Compares two objects with the algorithm of Hunt and Szymanski, which runs in <em>O((R + N) log N)</em> time, where
+ * <em>R</em> is the number of pairs of equal elements of both objects.
+ * <p>
+ * While the contours of {@link GreedyDiff} and {@link LinearDiff} grow with the number of differences, this algorithm
+ * only visits the matching pairs. It is therefore suited for large objects which share only a few elements, where the
+ * number of differences is close to the sum of both lengths.
+ * <p>
+ * All elements are interned by a {@link TokenInterner} first and the positions of every id in the second object are
+ * collected in occurrence lists. The elements of the first object are then processed in order, and for every
+ * occurrence of the element in the second object, in descending order, the threshold array, which holds the smallest
+ * position in the second object a common subsequence of each length can end at, is updated via binary search. Each
+ * update records a link to the match ending the next shorter subsequence, so the longest common subsequence is
+ * recovered by following the links back from the longest one.
+ * <p>
+ * The number of links grows with the number of threshold updates, which is at most <em>R</em>, so this algorithm
+ * should not be used for objects which share many elements.
+ *
+ * @author Roman Vottner
+ */
+public class HuntSzymanskiDiff
+{
+    /** prevent initializations of the util class **/
+    private HuntSzymanskiDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b)
+    {
+        TokenInterner<T> interner = new TokenInterner<>();
+        int[] ia = interner.internAll(a);
+        int[] ib = interner.internAll(b);
+
+        // equal elements at the start and the end don't need to be matched
+        int prefix = 0;
+        while (prefix < ia.length && prefix < ib.length && ia[prefix] == ib[prefix])
+        {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < ia.length - prefix && suffix < ib.length - prefix &&
+               ia[ia.length - 1 - suffix] == ib[ib.length - 1 - suffix])
+        {
+            suffix++;
+        }
+        int N = ia.length - prefix - suffix;
+        int M = ib.length - prefix - suffix;
+
+        int[] matches = LongestCommonSubsequence(ia, prefix, N, ib, prefix, M, interner.size());
+
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        builder.keep(prefix);
+        int x = prefix;
+        int y = prefix;
+        for (int m = 0; m < matches.length; m += 2)
+        {
+            builder.delete(matches[m] - x);
+            builder.insert(matches[m + 1] - y);
+            builder.keep(1);
+            x = matches[m] + 1;
+            y = matches[m + 1] + 1;
+        }
+        builder.delete(prefix + N - x);
+        builder.insert(prefix + M - y);
+        builder.keep(suffix);
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Calculates a longest common subsequence of the ids <em>[a0, a0 + N)</em> of the first object and the ids
+     * <em>[b0, b0 + M)</em> of the second object.
+     *
+     * @param ia
+     *         The interned ids of the first object
+     * @param a0
+     *         The starting position in the ids of the first object
+     * @param N
+     *         The number of ids of the first object to compare
+     * @param ib
+     *         The interned ids of the second object
+     * @param b0
+     *         The starting position in the ids of the second object
+     * @param M
+     *         The number of ids of the second object to compare
+     * @param ids
+     *         The number of distinct ids
+     *
+     * @return Consecutive pairs of the positions of the matched elements in the first and the second object in
+     *         ascending order
+     */
+    static int[] LongestCommonSubsequence(int[] ia, int a0, int N, int[] ib, int b0, int M, int ids)
+    {
+        // occurrence lists of each id in the second object, stored consecutively in ascending order
+        int[] starts = new int[ids + 1];
+        for (int j = b0; j < b0 + M; j++)
+        {
+            starts[ib[j] + 1]++;
+        }
+        for (int id = 0; id < ids; id++)
+        {
+            starts[id + 1] += starts[id];
+        }
+        int[] occurrences = new int[M];
+        int[] fill = Arrays.copyOf(starts, ids);
+        for (int j = b0; j < b0 + M; j++)
+        {
+            occurrences[fill[ib[j]]++] = j;
+        }
+
+        // thresholds[k] is the smallest position in the second object a common subsequence of length k + 1 ends at,
+        // links[k] the match ending it
+        int[] thresholds = new int[Math.min(N, M)];
+        int[] links = new int[thresholds.length];
+        int length = 0;
+        // consecutive triples of the position in the first and the second object and the previous match
+        int[] nodes = new int[3 * 16];
+        int count = 0;
+
+        for (int i = a0; i < a0 + N; i++)
+        {
+            int id = ia[i];
+            for (int o = starts[id + 1] - 1; o >= starts[id]; o--)
+            {
+                int j = occurrences[o];
+                int k = lowerBound(thresholds, length, j);
+                if (k < length && thresholds[k] == j)
+                {
+                    continue;
+                }
+                if (count * 3 == nodes.length)
+                {
+                    nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                }
+                nodes[count * 3] = i;
+                nodes[count * 3 + 1] = j;
+                nodes[count * 3 + 2] = k > 0 ? links[k - 1] : -1;
+                thresholds[k] = j;
+                links[k] = count++;
+                if (k == length)
+                {
+                    length++;
+                }
+            }
+        }
+
+        int[] matches = new int[length * 2];
+        for (int m = length - 1, node = length > 0 ? links[length - 1] : -1; m >= 0; m--, node = nodes[node * 3 + 2])
+        {
+            matches[m * 2] = nodes[node * 3];
+            matches[m * 2 + 1] = nodes[node * 3 + 1];
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the index of the first of the given number of ascending values which is not smaller than the key.
+     */
+    private static int lowerBound(int[] values, int length, int key)
+    {
+        int low = 0;
+        int high = length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
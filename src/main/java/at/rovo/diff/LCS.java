@@ -135,6 +135,77 @@ public class LCS
         return null;
     }
 
+    /**
+     * Calculates the longest common subsequence (LCS) in a forward manner for two objects <em>pa</em> and
+     * <em>pb</em> and calculates the k-lines of contour <em>d</em> in parallel if it contains enough of them.
+     *
+     * @param pa
+     *         Usually the older object which should be compared
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Usually the newest object to be compared with <em>pa</em>
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param V
+     *         An array of end points for a given k-line
+     * @param d
+     *         The number of differences for the same trace
+     * @param contour
+     *         The configuration of the parallel calculation; if null the contour is calculated sequentially
+     *
+     * @return The segment found by forward comparison
+     */
+    static <T> Snake<T> Forward(T[] pa, int N, T[] pb, int M, V V, int d, ParallelContour contour)
+    {
+        if (contour == null)
+        {
+            return Forward(pa, N, pb, M, V, d);
+        }
+        int k = contour.sweep(-d, d, line ->
+        {
+            int xEnd = ForwardLine(pa, 0, N, pb, 0, M, V, d, line);
+            return xEnd >= N && xEnd - line >= M;
+        });
+        return k == ParallelContour.NONE ? null : ForwardSnake(0, N, 0, M, V, d, k);
+    }
+
+    /**
+     * Calculates the longest common subsequence (LCS) in a backward manner for two objects <em>pa</em> and
+     * <em>pb</em> and calculates the k-lines of contour <em>d</em> in parallel if it contains enough of them.
+     *
+     * @param pa
+     *         Usually the older object which should be compared
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Usually the newest object to be compared with <em>pa</em>
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param V
+     *         An array of end points for a given k-line
+     * @param d
+     *         The number of differences for the same trace
+     * @param contour
+     *         The configuration of the parallel calculation; if null the contour is calculated sequentially
+     *
+     * @return The segment found by reverse comparison
+     */
+    static <T> Snake<T> Reverse(T[] pa, int N, T[] pb, int M, V V, int d, ParallelContour contour)
+    {
+        if (contour == null)
+        {
+            return Reverse(pa, N, pb, M, V, d);
+        }
+        int DELTA = N - M;
+        int k = contour.sweep(-d + DELTA, d + DELTA, line ->
+        {
+            int xEnd = ReverseLine(pa, 0, pb, 0, DELTA, V, d, line);
+            return xEnd <= 0 && xEnd - line <= 0;
+        });
+        return k == ParallelContour.NONE ? null : ReverseSnake(0, N, 0, M, V, d, k);
+    }
+
     /**
      * Calculates the middle snake segment by comparing object <em>pa</em> with <em>pb</em> in both directions at
      * the same time for consecutive <em>D</em>'s. The overlap of both comparisons is the so called middle snake which
@@ -168,6 +239,48 @@ public class LCS
      */
     static <T> SnakePair<T> MiddleSnake(T[] pa, int a0, int N, T[] pb, int b0, int M, V VForward, V VReverse,
                                         List<V> forwardVs, List<V> reverseVs) throws Exception
+    {
+        Snake<T> middle = MiddleSegment(pa, a0, N, pb, b0, M, VForward, VReverse, forwardVs, reverseVs);
+        if (middle.IsForward)
+        {
+            return new SnakePair<>((2 * middle.getD()) - 1, middle, null);
+        }
+        return new SnakePair<>(2 * middle.getD(), null, middle);
+    }
+
+    /**
+     * Calculates the middle snake segment like {@link #MiddleSnake(Object[], int, int, Object[], int, int, V, V, List,
+     * List)} but returns the segment itself. The length of the shortest edit script is <em>2D - 1</em> for a forward
+     * and <em>2D</em> for a reverse segment, where <em>D</em> is the number of differences stored in the segment.
+     *
+     * @param pa
+     *         Usually the older object which should be compared
+     * @param a0
+     *         The starting position in the array of elements from the first object to compare
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Usually the newest object to be compared with <em>pa</em>
+     * @param b0
+     *         The starting position in the array of elements from the second object to compare
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param VForward
+     *         An array of end points for a given k-line for the forward comparison
+     * @param VReverse
+     *         An array of end points for a given k-line for the backward comparison
+     * @param forwardVs
+     *         All saved end points indexed on <em>d</em> for the forward comparison
+     * @param reverseVs
+     *         All saved end points indexed on <em>d</em> for the backward comparison
+     *
+     * @return The first segment found by both comparison directions which is also called the middle snake
+     *
+     * @throws Exception
+     *         If no middle snake could be found
+     */
+    static <T> Snake<T> MiddleSegment(T[] pa, int a0, int N, T[] pb, int b0, int M, V VForward, V VReverse,
+                                      List<V> forwardVs, List<V> reverseVs) throws Exception
     {
         // we only need to find a middle snake with a d which is half of the
         // d of the forward and reverse algorithms.
@@ -247,7 +360,7 @@ public class LCS
 
                     // we found a middle snake and the shortest edit script
                     // (SES) of length 2D -1
-                    return new SnakePair<>((2 * d) - 1, forward, null);
+                    return forward;
                 }
             }
             finally
@@ -316,7 +429,7 @@ public class LCS
 
                     // we found a middle snake and the shortest edit script
                     // (SES) of length 2D
-                    return new SnakePair<>(2 * d, null, reverse);
+                    return reverse;
                 }
             }
             finally
@@ -330,4 +443,145 @@ public class LCS
 
         throw new Exception("No middle snake");
     }
+
+    /**
+     * Calculates the middle snake segment like {@link #MiddleSegment(Object[], int, int, Object[], int, int, V, V,
+     * List, List)} but calculates the k-lines of each contour in parallel if it contains enough of them. The end points
+     * of the single contours are not recorded.
+     *
+     * @param pa
+     *         Usually the older object which should be compared
+     * @param a0
+     *         The starting position in the array of elements from the first object to compare
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Usually the newest object to be compared with <em>pa</em>
+     * @param b0
+     *         The starting position in the array of elements from the second object to compare
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param VForward
+     *         An array of end points for a given k-line for the forward comparison
+     * @param VReverse
+     *         An array of end points for a given k-line for the backward comparison
+     * @param contour
+     *         The configuration of the parallel calculation
+     *
+     * @return The first segment found by both comparison directions which is also called the middle snake
+     *
+     * @throws Exception
+     *         If no middle snake could be found
+     */
+    static <T> Snake<T> MiddleSegment(T[] pa, int a0, int N, T[] pb, int b0, int M, V VForward, V VReverse,
+                                      ParallelContour contour) throws Exception
+    {
+        int MAX = (N + M + 1) / 2;
+        int DELTA = N - M;
+
+        VForward.InitStub(N, M);
+        VReverse.InitStub(N, M);
+
+        boolean DeltaIsEven = (DELTA % 2) == 0;
+
+        for (int d = 0; d <= MAX; d++)
+        {
+            int D = d;
+
+            // forward, checks against reverse D-1. The reverse end points are
+            // not modified while the forward k-lines are calculated
+            int k = contour.sweep(-d, d, line ->
+            {
+                int xEnd = ForwardLine(pa, a0, N, pb, b0, M, VForward, D, line);
+                return !DeltaIsEven && line >= DELTA - (D - 1) && line <= DELTA + (D - 1) &&
+                       xEnd >= VReverse.getK(line);
+            });
+            if (k != ParallelContour.NONE)
+            {
+                Snake<T> forward = ForwardSnake(a0, N, b0, M, VForward, d, k);
+                forward.setD(d);
+                return forward;
+            }
+
+            // backward, checks against forward D
+            k = contour.sweep(-d + DELTA, d + DELTA, line ->
+            {
+                int xEnd = ReverseLine(pa, a0, pb, b0, DELTA, VReverse, D, line);
+                return DeltaIsEven && line >= -D && line <= D && xEnd <= VForward.getK(line);
+            });
+            if (k != ParallelContour.NONE)
+            {
+                Snake<T> reverse = ReverseSnake(a0, N, b0, M, VReverse, d, k);
+                reverse.setD(d);
+                return reverse;
+            }
+        }
+
+        throw new Exception("No middle snake");
+    }
+
+    /**
+     * Calculates the farthest reaching forward path on line <em>k</em> of contour <em>d</em>, which only depends on
+     * the end points of the neighboring k-lines of contour <em>d-1</em>, and stores its end point.
+     *
+     * @return The x-position of the end point
+     */
+    private static <T> int ForwardLine(T[] pa, int a0, int N, T[] pb, int b0, int M, V V, int d, int k)
+    {
+        boolean down = (k == -d || (k != d && V.getK(k - 1) < V.getK(k + 1)));
+        int xEnd = down ? V.getK(k + 1) : V.getK(k - 1) + 1;
+        int yEnd = xEnd - k;
+        while (xEnd < N && yEnd < M && pa[xEnd + a0].equals(pb[yEnd + b0]))
+        {
+            xEnd++;
+            yEnd++;
+        }
+        V.setK(k, xEnd);
+        return xEnd;
+    }
+
+    /**
+     * Creates the snake of the forward path on line <em>k</em> of contour <em>d</em> after its end point was stored.
+     */
+    private static <T> Snake<T> ForwardSnake(int a0, int N, int b0, int M, V V, int d, int k)
+    {
+        boolean down = (k == -d || (k != d && V.getK(k - 1) < V.getK(k + 1)));
+        int xStart = down ? V.getK(k + 1) : V.getK(k - 1);
+        int yStart = xStart - (down ? k + 1 : k - 1);
+        int snake = V.getK(k) - (down ? xStart : xStart + 1);
+        return new Snake<>(a0, N, b0, M, true, xStart + a0, yStart + b0, down, snake);
+    }
+
+    /**
+     * Calculates the farthest reaching reverse path on line <em>k</em> of contour <em>d</em>, which only depends on
+     * the end points of the neighboring k-lines of contour <em>d-1</em>, and stores its end point.
+     *
+     * @return The x-position of the end point
+     */
+    private static <T> int ReverseLine(T[] pa, int a0, T[] pb, int b0, int DELTA, V V, int d, int k)
+    {
+        boolean up = (k == d + DELTA || (k != -d + DELTA && V.getK(k - 1) < V.getK(k + 1)));
+        int xEnd = up ? V.getK(k - 1) : V.getK(k + 1) - 1;
+        int yEnd = xEnd - k;
+        while (xEnd > 0 && yEnd > 0 && pa[xEnd + a0 - 1].equals(pb[yEnd + b0 - 1]))
+        {
+            xEnd--;
+            yEnd--;
+        }
+        V.setK(k, xEnd);
+        return xEnd;
+    }
+
+    /**
+     * Creates the snake of the reverse path on line <em>k</em> of contour <em>d</em> after its end point was stored.
+     */
+    private static <T> Snake<T> ReverseSnake(int a0, int N, int b0, int M, V V, int d, int k)
+    {
+        int DELTA = N - M;
+        boolean up = (k == d + DELTA || (k != -d + DELTA && V.getK(k - 1) < V.getK(k + 1)));
+        int xStart = up ? V.getK(k - 1) : V.getK(k + 1);
+        int yStart = xStart - (up ? k - 1 : k + 1);
+        int snake = (up ? xStart : xStart - 1) - V.getK(k);
+        return new Snake<>(a0, N, b0, M, false, xStart + a0, yStart + b0, up, snake);
+    }
 }
@@ -1,6 +1,7 @@
 package at.rovo.diff;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -16,6 +17,13 @@ import java.util.List;
  */
 public class LinearDiff
 {
+    /** The default maximum area of a rectangle which is solved directly instead of being split at its middle snake **/
+    public static final int DEFAULT_CUTOFF = 64;
+    /** The number of values of a frame on the work stack: the depth, a0, N, b0 and M **/
+    private static final int FRAME_SIZE = 5;
+    /** The depth of a frame which marks the point to add the next pending middle snake to the results **/
+    private static final int MIDDLE = -1;
+
     /**
      * Compares two character sequences or strings with each other and calculates the shortest edit sequence (SES) as
      * well as the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the
@@ -85,6 +93,76 @@ public class LinearDiff
         return new Results<>(snakes, forwardVs, reverseVs);
     }
 
+    /**
+     * Compares two arrays of type <em>T</em> with each other like {@link #Compare(Object[], Object[])} but calculates
+     * the k-lines of large <em>d contours</em> in parallel. The resulting snakes are identical to the ones of the
+     * sequential comparison, though the end points of the single contours are not recorded.
+     *
+     * @param aa
+     *         Usually the older object which should be compared
+     * @param ab
+     *         Usually the newest object to be compared with <em>aa</em>
+     * @param contour
+     *         The configuration of the parallel calculation of the contours
+     *
+     * @return The result containing the snake that lead from input <em>aa</em> to input <em>ab</em>
+     *
+     * @throws Exception
+     */
+    public static <T> Results<T> Compare(T[] aa, T[] ab, ParallelContour contour) throws Exception
+    {
+        V VForward = new V(aa.length, ab.length, true, true);
+        V VReverse = new V(aa.length, ab.length, false, true);
+
+        List<Snake<T>> snakes = new ArrayList<>();
+
+        Compare(0, snakes, null, null, aa, 0, aa.length, ab, 0, ab.length, VForward, VReverse, contour, 0);
+
+        return new Results<>(snakes, null, null);
+    }
+
+    /**
+     * Compares two arrays of type <em>T</em> with each other in hybrid mode: rectangles whose area does not exceed the
+     * given cutoff are not split any further at their middle snake but solved directly on a scratch buffer, which
+     * saves the setup of the contours for the many small sub problems at the bottom of the recursion. The resulting
+     * edit script is still a shortest one, though the snakes may differ from the ones of {@link #Compare(Object[],
+     * Object[])} where several shortest edit scripts exist. The end points of the single contours are not recorded.
+     * <p>
+     * The cutoff bounds the area <em>N * M</em> of a rectangle, i.e. the number of cells of the table it is solved on:
+     * rectangles up to that area are solved directly while larger ones are split, so a cutoff of 0 splits every
+     * rectangle. As the table grows with <em>N * M</em> while the contours only grow with <em>(N + M) * D</em>, the
+     * cutoff has to stay small. The <code>DiffBenchmark.linearCutoff</code> benchmark of the <code>benchmark</code>
+     * profile compares several cutoffs and can be used to re-measure {@link #DEFAULT_CUTOFF}.
+     *
+     * @param aa
+     *         Usually the older object which should be compared
+     * @param ab
+     *         Usually the newest object to be compared with <em>aa</em>
+     * @param contour
+     *         The configuration of the parallel calculation of the contours; if null they are calculated sequentially
+     * @param cutoff
+     *         The maximum area of a rectangle which is solved directly; usually {@link #DEFAULT_CUTOFF}
+     *
+     * @return The result containing the snake that lead from input <em>aa</em> to input <em>ab</em>
+     *
+     * @throws Exception
+     */
+    public static <T> Results<T> Compare(T[] aa, T[] ab, ParallelContour contour, int cutoff) throws Exception
+    {
+        if (cutoff < 0)
+        {
+            throw new IllegalArgumentException("Cutoff must not be negative but was " + cutoff);
+        }
+        V VForward = new V(aa.length, ab.length, true, true);
+        V VReverse = new V(aa.length, ab.length, false, true);
+
+        List<Snake<T>> snakes = new ArrayList<>();
+
+        Compare(0, snakes, null, null, aa, 0, aa.length, ab, 0, ab.length, VForward, VReverse, contour, cutoff);
+
+        return new Results<>(snakes, null, null);
+    }
+
     /**
      * Compares two arrays of type <em>T</em> with each other and calculates the shortest edit sequence (SES) as well as
      * the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the necessary
@@ -123,7 +201,7 @@ public class LinearDiff
      * actions required to perform the transformation.
      *
      * @param recursion
-     *         The number of the current recursive step
+     *         The depth of the rectangle to compare; the middle snake of depth 0 is marked as middle point
      * @param snakes
      *         The possible solution paths for transforming object <em>pa </em> to <em>pb</em>
      * @param forwardVs
@@ -152,128 +230,292 @@ public class LinearDiff
     static <T> void Compare(int recursion, List<Snake<T>> snakes, List<V> forwardVs, List<V> reverseVs, T[] pa, int a0,
                             int N, T[] pb, int b0, int M, V VForward, V VReverse) throws Exception
     {
-        if (M == 0 && N > 0)
+        Compare(recursion, snakes, forwardVs, reverseVs, pa, a0, N, pb, b0, M, VForward, VReverse, null, 0);
+    }
+
+    /**
+     * Compares two arrays of type <em>T</em> with each other and calculates the shortest edit sequence (SES) as well as
+     * the longest common subsequence (LCS) to transfer input <em>a</em> to input <em>b</em>. The SES are the necessary
+     * actions required to perform the transformation.
+     *
+     * @param recursion
+     *         The depth of the rectangle to compare; the middle snake of depth 0 is marked as middle point
+     * @param snakes
+     *         The possible solution paths for transforming object <em>pa </em> to <em>pb</em>
+     * @param forwardVs
+     *         All saved end points in forward direction indexed on <em>d</em>; ignored if a contour is provided
+     * @param reverseVs
+     *         All saved end points in backward direction indexed on <em>d</em>; ignored if a contour is provided
+     * @param pa
+     *         Elements of the first object. Usually the original object
+     * @param a0
+     *         The starting position in the array of elements from the first object to compare
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Elements of the second object. Usually the current object
+     * @param b0
+     *         The starting position in the array of elements from the second object to compare
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param VForward
+     *         An array of end points for a given k-line in forward direction
+     * @param VReverse
+     *         An array of end points for a given k-line in backward direction
+     * @param contour
+     *         The configuration of the parallel calculation of the contours; if null they are calculated sequentially
+     * @param cutoff
+     *         The maximum area of a rectangle which is solved directly by {@link #SolveSmall(List, Object[], int, int,
+     *         Object[], int, int, int[])} instead of splitting it at its middle snake; 0 to split all rectangles
+     *
+     * @throws Exception
+     */
+    static <T> void Compare(int recursion, List<Snake<T>> snakes, List<V> forwardVs, List<V> reverseVs, T[] pa, int a0,
+                            int N, T[] pb, int b0, int M, V VForward, V VReverse, ParallelContour contour, int cutoff)
+            throws Exception
+    {
+        // Instead of recursing into the rectangles that remain to the top
+        // left and bottom right of a middle snake, the pending work is kept
+        // on an explicit stack of frames. A frame either holds a rectangle
+        // or marks the point at which the next pending middle snake has to
+        // be added to the results. The frames are pushed in reverse order,
+        // so the snakes are added in the same order as by recursion.
+        int[] frames = new int[FRAME_SIZE * 16];
+        List<Snake<T>> middles = new ArrayList<>();
+        int[] scratch = null;
+        int top = push(frames, 0, recursion, a0, N, b0, M);
+
+        while (top > 0)
         {
-            // add N deletions to SES
-            Snake<T> right = new Snake<>(a0, N, b0, M, true, a0, b0, N, 0, 0);
-            if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(right))
+            top -= FRAME_SIZE;
+            int depth = frames[top];
+            a0 = frames[top + 1];
+            N = frames[top + 2];
+            b0 = frames[top + 3];
+            M = frames[top + 4];
+
+            if (depth == MIDDLE)
             {
-                snakes.add(right);
+                // the top left rectangle is solved, add middle snake to results
+                add(snakes, middles.remove(middles.size() - 1));
+                continue;
             }
-        }
 
-        if (N == 0 && M > 0)
-        {
-            // add M insertions to SES
-            Snake<T> down = new Snake<>(a0, N, b0, M, true, a0, b0, 0, M, 0);
-            if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(down))
+            if (M == 0 && N > 0)
             {
-                snakes.add(down);
+                // add N deletions to SES
+                add(snakes, new Snake<>(a0, N, b0, M, true, a0, b0, N, 0, 0));
             }
-        }
-
-        if (N <= 0 || M <= 0)
-        {
-            return;
-        }
-
-        //calculate middle snake
-        SnakePair<T> m = LCS.MiddleSnake(pa, a0, N, pb, b0, M, VForward, VReverse, forwardVs, reverseVs);
 
-        // Initial setup for recursion
-        if (recursion == 0)
-        {
-            if (m.getForward() != null)
+            if (N == 0 && M > 0)
             {
-                m.getForward().setMiddlePoint(true);
+                // add M insertions to SES
+                add(snakes, new Snake<>(a0, N, b0, M, true, a0, b0, 0, M, 0));
             }
-            if (m.getReverse() != null)
+
+            if (N <= 0 || M <= 0)
             {
-                m.getReverse().setMiddlePoint(true);
+                continue;
             }
-        }
 
-        // check for edge (D = 0 or 1) or middle segment (D > 1)
-        if (m.getD() > 1)
-        {
-            // solve the rectangles that remain to the top left and bottom right
-
-            // top left .. Compare(A[1..x], x, B[1..y], y)
-            Pair<Integer> xy = (m.getForward() != null ? m.getForward().getStartPoint() : m.getReverse().getEndPoint());
-            Compare(recursion + 1, snakes, null, null, pa, a0, xy.X() - a0, pb, b0, xy.Y() - b0, VForward, VReverse);
-
-            // add middle snake to results
-            if (m.getForward() != null)
+            if ((long) N * M <= cutoff)
             {
-                if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(m.getForward()))
+                if (scratch == null || scratch.length < (N + 1) * (M + 1))
                 {
-                    snakes.add(m.getForward());
+                    scratch = new int[Math.max((N + 1) * (M + 1), cutoff + 1)];
                 }
+                SolveSmall(snakes, pa, a0, N, pb, b0, M, scratch);
+                continue;
+            }
+
+            //calculate middle snake; only the end points of the initial
+            //rectangle are recorded
+            Snake<T> m;
+            if (contour == null)
+            {
+                m = LCS.MiddleSegment(pa, a0, N, pb, b0, M, VForward, VReverse, depth == recursion ? forwardVs : null,
+                                      depth == recursion ? reverseVs : null);
             }
-            if (m.getReverse() != null)
+            else
             {
-                if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(m.getReverse()))
+                m = LCS.MiddleSegment(pa, a0, N, pb, b0, M, VForward, VReverse, contour);
+            }
+
+            // Initial setup for recursion
+            if (depth == 0)
+            {
+                m.setMiddlePoint(true);
+            }
+
+            // check for edge (D = 0 or 1) or middle segment (D > 1)
+            int D = m.IsForward ? 2 * m.getD() - 1 : 2 * m.getD();
+            if (D > 1)
+            {
+                // solve the rectangles that remain to the top left and bottom right
+
+                // top left .. Compare(A[1..x], x, B[1..y], y)
+                int x = m.IsForward ? m.XStart : m.getXEnd();
+                int y = m.IsForward ? m.YStart : m.getYEnd();
+                // bottom right .. Compare(A[u+1..N], N-u, B[v+1..M], M-v)
+                int u = m.IsForward ? m.getXEnd() : m.XStart;
+                int v = m.IsForward ? m.getYEnd() : m.YStart;
+
+                if (top + 3 * FRAME_SIZE > frames.length)
                 {
-                    snakes.add(m.getReverse());
+                    frames = Arrays.copyOf(frames, frames.length * 2);
                 }
+                top = push(frames, top, depth + 1, u, a0 + N - u, v, b0 + M - v);
+                middles.add(m);
+                top = push(frames, top, MIDDLE, 0, 0, 0, 0);
+                top = push(frames, top, depth + 1, a0, x - a0, b0, y - b0);
             }
-
-            // bottom right .. Compare(A[u+1..N], N-u, B[v+1..M], M-v)
-            Pair<Integer> uv = (m.getReverse() != null ? m.getReverse().getStartPoint() : m.getForward().getEndPoint());
-            Compare(recursion + 1, snakes, null, null, pa, uv.X(), a0 + N - uv.X(), pb, uv.Y(), b0 + M - uv.Y(),
-                    VForward, VReverse);
-        }
-        else
-        {
-            // we found an edge case. If d == 0 than both segments are identical
-            // if d == 1 than there is exactly one insertion or deletion which
-            // results in a odd delta and therefore a forward snake
-            if (m.getForward() != null)
+            else if (m.IsForward)
             {
+                // we found an edge case. If d == 0 than both segments are identical
+                // if d == 1 than there is exactly one insertion or deletion which
+                // results in a odd delta and therefore a forward snake
+
                 // add d = 0 diagonal to results
-                if (m.getForward().XStart > a0)
+                if (m.XStart > a0)
                 {
-                    if (m.getForward().XStart - a0 != m.getForward().YStart - b0)
+                    if (m.XStart - a0 != m.YStart - b0)
                     {
                         throw new Exception("Missed D0 forward");
                     }
-                    Snake<T> snake = new Snake<>(a0, N, b0, M, true, a0, b0, 0, 0, m.getForward().XStart - a0);
-                    if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(snake))
-                    {
-                        snakes.add(snake);
-                    }
+                    add(snakes, new Snake<>(a0, N, b0, M, true, a0, b0, 0, 0, m.XStart - a0));
                 }
 
                 // add middle snake to results
-                if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(m.getForward()))
-                {
-                    snakes.add(m.getForward());
-                }
+                add(snakes, m);
             }
-
-            if (m.getReverse() != null)
+            else
             {
                 // add middle snake to results
-                if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(m.getReverse()))
-                {
-                    snakes.add(m.getReverse());
-                }
+                add(snakes, m);
 
                 // D0
-                if (m.getReverse().XStart < a0 + N)
+                if (m.XStart < a0 + N)
                 {
-                    if (a0 + N - m.getReverse().XStart != b0 + M - m.getReverse().YStart)
+                    if (a0 + N - m.XStart != b0 + M - m.YStart)
                     {
                         throw new Exception("Missed D0 reverse");
                     }
-                    Snake<T> snake = new Snake<>(a0, N, b0, M, true, m.getReverse().XStart, m.getReverse().YStart, 0, 0,
-                                                 a0 + N - m.getReverse().XStart);
-                    if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(snake))
-                    {
-                        snakes.add(snake);
-                    }
+                    add(snakes, new Snake<>(a0, N, b0, M, true, m.XStart, m.YStart, 0, 0, a0 + N - m.XStart));
                 }
             }
         }
     }
+
+    /**
+     * Solves a small rectangle directly instead of splitting it at its middle snake, which saves the setup of the
+     * contours for rectangles with only a few differences.
+     * <p>
+     * The length of the longest common subsequence of every pair of suffixes is calculated bottom-up in the scratch
+     * buffer. The path is then followed from the top left corner, taking the diagonal whenever both elements are equal
+     * and otherwise the deletion or insertion which keeps the longer common subsequence, preferring deletions.
+     *
+     * @param snakes
+     *         The snakes to add the path through the rectangle to
+     * @param pa
+     *         Elements of the first object. Usually the original object
+     * @param a0
+     *         The starting position in the array of elements from the first object to compare
+     * @param N
+     *         The number of elements of the first object to compare
+     * @param pb
+     *         Elements of the second object. Usually the current object
+     * @param b0
+     *         The starting position in the array of elements from the second object to compare
+     * @param M
+     *         The number of elements of the second object to compare
+     * @param scratch
+     *         A buffer of at least <em>(N + 1) * (M + 1)</em> values
+     */
+    static <T> void SolveSmall(List<Snake<T>> snakes, T[] pa, int a0, int N, T[] pb, int b0, int M, int[] scratch)
+    {
+        // scratch[i * (M + 1) + j] holds the length of the LCS of the
+        // elements after i in the first and after j in the second object
+        int width = M + 1;
+        Arrays.fill(scratch, N * width, (N + 1) * width, 0);
+        for (int i = N - 1; i >= 0; i--)
+        {
+            int row = i * width;
+            scratch[row + M] = 0;
+            for (int j = M - 1; j >= 0; j--)
+            {
+                if (pa[a0 + i].equals(pb[b0 + j]))
+                {
+                    scratch[row + j] = scratch[row + width + j + 1] + 1;
+                }
+                else
+                {
+                    scratch[row + j] = Math.max(scratch[row + width + j], scratch[row + j + 1]);
+                }
+            }
+        }
+
+        int x = 0;
+        int y = 0;
+        int xStart = 0;
+        int yStart = 0;
+        int deleted = 0;
+        int inserted = 0;
+        int diagonal = 0;
+        while (x < N || y < M)
+        {
+            boolean keep = x < N && y < M && pa[a0 + x].equals(pb[b0 + y]);
+            if (!keep && diagonal > 0)
+            {
+                add(snakes, new Snake<>(a0, N, b0, M, true, a0 + xStart, b0 + yStart, deleted, inserted, diagonal));
+                xStart = x;
+                yStart = y;
+                deleted = 0;
+                inserted = 0;
+                diagonal = 0;
+            }
+            if (keep)
+            {
+                x++;
+                y++;
+                diagonal++;
+            }
+            else if (y == M || x < N && scratch[(x + 1) * width + y] >= scratch[x * width + y + 1])
+            {
+                x++;
+                deleted++;
+            }
+            else
+            {
+                y++;
+                inserted++;
+            }
+        }
+        add(snakes, new Snake<>(a0, N, b0, M, true, a0 + xStart, b0 + yStart, deleted, inserted, diagonal));
+    }
+
+    /**
+     * Pushes a frame onto the work stack, which must have room for it.
+     *
+     * @return The new top of the stack
+     */
+    private static int push(int[] frames, int top, int depth, int a0, int N, int b0, int M)
+    {
+        frames[top] = depth;
+        frames[top + 1] = a0;
+        frames[top + 2] = N;
+        frames[top + 3] = b0;
+        frames[top + 4] = M;
+        return top + FRAME_SIZE;
+    }
+
+    /**
+     * Adds a snake to the results unless it can be combined with the last snake of the results.
+     */
+    private static <T> void add(List<Snake<T>> snakes, Snake<T> snake)
+    {
+        if (snakes.size() == 0 || !snakes.get(snakes.size() - 1).append(snake))
+        {
+            snakes.add(snake);
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A section of a three-way merge. Each chunk covers a range of the base and the corresponding ranges of both modified
+ * versions, <em>ours</em> and <em>theirs</em>. All ranges are half-open intervals and the elements are exposed as views
+ * of the original arrays.
+ *
+ * @param <T>
+ *         The type of the merged elements
+ *
+ * @author Roman Vottner
+ */
+public class MergeChunk<T>
+{
+    /**
+     * Describes how the versions relate to each other within a chunk.
+     */
+    public enum Kind
+    {
+        /** Neither version changed the base **/
+        UNCHANGED,
+        /** Only our version changed the base **/
+        OURS,
+        /** Only their version changed the base **/
+        THEIRS,
+        /** Both versions changed the base in the same way **/
+        BOTH,
+        /** Both versions changed the base differently **/
+        CONFLICT
+    }
+
+    /** The relation of the versions within this chunk **/
+    private final Kind kind;
+    /** The elements of the base **/
+    private final T[] base;
+    /** The elements of our version **/
+    private final T[] ours;
+    /** The elements of their version **/
+    private final T[] theirs;
+    /** The inclusive start and exclusive end positions in base, ours and theirs **/
+    private final int baseStart, baseEnd, oursStart, oursEnd, theirsStart, theirsEnd;
+
+    /**
+     * Creates a new chunk.
+     *
+     * @param kind
+     *         The relation of the versions within this chunk
+     * @param base
+     *         The elements of the base
+     * @param baseStart
+     *         The inclusive start position in the base
+     * @param baseEnd
+     *         The exclusive end position in the base
+     * @param ours
+     *         The elements of our version
+     * @param oursStart
+     *         The inclusive start position in our version
+     * @param oursEnd
+     *         The exclusive end position in our version
+     * @param theirs
+     *         The elements of their version
+     * @param theirsStart
+     *         The inclusive start position in their version
+     * @param theirsEnd
+     *         The exclusive end position in their version
+     */
+    MergeChunk(Kind kind, T[] base, int baseStart, int baseEnd, T[] ours, int oursStart, int oursEnd, T[] theirs,
+               int theirsStart, int theirsEnd)
+    {
+        this.kind = kind;
+        this.base = base;
+        this.baseStart = baseStart;
+        this.baseEnd = baseEnd;
+        this.ours = ours;
+        this.oursStart = oursStart;
+        this.oursEnd = oursEnd;
+        this.theirs = theirs;
+        this.theirsStart = theirsStart;
+        this.theirsEnd = theirsEnd;
+    }
+
+    /**
+     * Returns how the versions relate to each other within this chunk.
+     *
+     * @return The kind of this chunk
+     */
+    public Kind getKind()
+    {
+        return this.kind;
+    }
+
+    /**
+     * Indicates if both versions changed the base differently within this chunk.
+     *
+     * @return true if this chunk is a conflict
+     */
+    public boolean isConflict()
+    {
+        return this.kind == Kind.CONFLICT;
+    }
+
+    public int getBaseStart()
+    {
+        return this.baseStart;
+    }
+
+    public int getBaseEnd()
+    {
+        return this.baseEnd;
+    }
+
+    public int getOursStart()
+    {
+        return this.oursStart;
+    }
+
+    public int getOursEnd()
+    {
+        return this.oursEnd;
+    }
+
+    public int getTheirsStart()
+    {
+        return this.theirsStart;
+    }
+
+    public int getTheirsEnd()
+    {
+        return this.theirsEnd;
+    }
+
+    /**
+     * Returns the elements of the base covered by this chunk.
+     *
+     * @return A view on the base elements
+     */
+    public List<T> getBaseTokens()
+    {
+        return Arrays.asList(this.base).subList(this.baseStart, this.baseEnd);
+    }
+
+    /**
+     * Returns the elements of our version covered by this chunk.
+     *
+     * @return A view on the elements of our version
+     */
+    public List<T> getOursTokens()
+    {
+        return Arrays.asList(this.ours).subList(this.oursStart, this.oursEnd);
+    }
+
+    /**
+     * Returns the elements of their version covered by this chunk.
+     *
+     * @return A view on the elements of their version
+     */
+    public List<T> getTheirsTokens()
+    {
+        return Arrays.asList(this.theirs).subList(this.theirsStart, this.theirsEnd);
+    }
+
+    /**
+     * Returns the merged elements of this chunk, which are the elements of the version that changed the base or the
+     * base elements if neither version changed them.
+     *
+     * @return A view on the merged elements
+     *
+     * @throws IllegalStateException
+     *         If this chunk is a conflict
+     */
+    public List<T> getTokens()
+    {
+        switch (this.kind)
+        {
+            case UNCHANGED:
+                return this.getBaseTokens();
+            case OURS:
+            case BOTH:
+                return this.getOursTokens();
+            case THEIRS:
+                return this.getTheirsTokens();
+            default:
+                throw new IllegalStateException("Conflicting chunk " + this + " can't be merged automatically");
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.kind + ": base[ " + this.baseStart + ", " + this.baseEnd + " ) ours[ " + this.oursStart + ", " +
+               this.oursEnd + " ) theirs[ " + this.theirsStart + ", " + this.theirsEnd + " )";
+    }
+}
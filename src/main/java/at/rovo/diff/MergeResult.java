@@ -0,0 +1,102 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a three-way merge. It consists of consecutive {@link MergeChunk chunks} which cover the base as well
+ * as both modified versions completely and in order.
+ *
+ * @param <T>
+ *         The type of the merged elements
+ *
+ * @author Roman Vottner
+ */
+public class MergeResult<T>
+{
+    /** The chunks of the merge in order **/
+    private final List<MergeChunk<T>> chunks;
+    /** The number of conflicting chunks **/
+    private final int conflicts;
+
+    /**
+     * Creates a new merge result.
+     *
+     * @param chunks
+     *         The chunks of the merge in order
+     */
+    MergeResult(List<MergeChunk<T>> chunks)
+    {
+        this.chunks = Collections.unmodifiableList(chunks);
+        int conflicts = 0;
+        for (MergeChunk<T> chunk : chunks)
+        {
+            if (chunk.isConflict())
+            {
+                conflicts++;
+            }
+        }
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * Returns all chunks of the merge in order.
+     *
+     * @return The chunks of the merge
+     */
+    public List<MergeChunk<T>> getChunks()
+    {
+        return this.chunks;
+    }
+
+    /**
+     * Indicates if both versions changed an overlapping region of the base differently.
+     *
+     * @return true if at least one chunk is a conflict
+     */
+    public boolean hasConflicts()
+    {
+        return this.conflicts > 0;
+    }
+
+    /**
+     * Returns the chunks both versions changed differently.
+     *
+     * @return The conflicting chunks in order
+     */
+    public List<MergeChunk<T>> getConflicts()
+    {
+        List<MergeChunk<T>> conflicts = new ArrayList<>(this.conflicts);
+        for (MergeChunk<T> chunk : this.chunks)
+        {
+            if (chunk.isConflict())
+            {
+                conflicts.add(chunk);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns the merged elements of all chunks.
+     *
+     * @return The merged object
+     *
+     * @throws IllegalStateException
+     *         If the merge contains conflicts
+     */
+    public List<T> getMerged()
+    {
+        if (this.hasConflicts())
+        {
+            throw new IllegalStateException(this.conflicts + " conflict(s) have to be resolved first");
+        }
+        List<T> merged = new ArrayList<>();
+        for (MergeChunk<T> chunk : this.chunks)
+        {
+            merged.addAll(chunk.getTokens());
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,169 @@
+package at.rovo.diff;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Configures the parallel calculation of the k-lines of a single <em>d contour</em>, which can be passed to {@link
+ * LinearDiff} and {@link GreedyDiff} to speed up the comparison of very large objects with many differences.
+ * <p>
+ * The end point on a k-line of contour <em>d</em> only depends on the end points of the neighboring k-lines of contour
+ * <em>d-1</em>. As end points for even <em>d</em> are on even k-lines only and vice-versa, the array of end points is
+ * already double-buffered: a contour only writes the k-lines of its own parity and only reads the k-lines of the other
+ * parity, which are left untouched until the next contour. The k-range of a contour is therefore split into partitions
+ * which are calculated concurrently on a {@link ForkJoinPool} without any further synchronization.
+ * <p>
+ * The sequential comparison stops at the first k-line, in ascending order, which reaches the solution or overlaps with
+ * the path of the opposite direction. As the partitions may finish in any order, the lowest k-line of all partitions
+ * which found a solution is chosen, which results in exactly the same snakes as the sequential comparison. Contours
+ * with fewer k-lines than the threshold are calculated sequentially, as the overhead of forking tasks would outweigh
+ * the gain for them.
+ * <p>
+ * The end points of the single contours are not recorded in parallel mode, as the k-lines beyond the solution of the
+ * last contour may have been calculated already.
+ *
+ * @author Roman Vottner
+ */
+public class ParallelContour
+{
+    /** The default minimum number of k-lines of a contour to calculate them in parallel **/
+    public static final int DEFAULT_THRESHOLD = 4096;
+    /** Returned by {@link #sweep(int, int, IntPredicate)} if no k-line found a solution **/
+    static final int NONE = Integer.MIN_VALUE;
+
+    /** The pool to calculate the partitions of a contour on **/
+    private final ForkJoinPool pool;
+    /** The minimum number of k-lines of a contour to calculate them in parallel **/
+    private final int threshold;
+
+    /**
+     * Creates a new configuration which calculates contours of at least {@link #DEFAULT_THRESHOLD} k-lines on the
+     * common {@link ForkJoinPool}.
+     */
+    public ParallelContour()
+    {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new configuration.
+     *
+     * @param pool
+     *         The pool to calculate the partitions of a contour on
+     * @param threshold
+     *         The minimum number of k-lines of a contour to calculate them in parallel
+     */
+    public ParallelContour(ForkJoinPool pool, int threshold)
+    {
+        if (pool == null)
+        {
+            throw new IllegalArgumentException("No pool provided");
+        }
+        if (threshold < 1)
+        {
+            throw new IllegalArgumentException("Threshold must be positive but was " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the pool the partitions of a contour are calculated on.
+     *
+     * @return The pool of this configuration
+     */
+    public ForkJoinPool getPool()
+    {
+        return this.pool;
+    }
+
+    /**
+     * Returns the minimum number of k-lines of a contour to calculate them in parallel.
+     *
+     * @return The threshold of this configuration
+     */
+    public int getThreshold()
+    {
+        return this.threshold;
+    }
+
+    /**
+     * Calculates the k-lines <em>kFirst, kFirst + 2, ..., kLast</em> of a contour.
+     *
+     * @param kFirst
+     *         The lowest k-line of the contour
+     * @param kLast
+     *         The highest k-line of the contour
+     * @param line
+     *         Calculates the end point of a single k-line and returns true if the k-line found a solution
+     *
+     * @return The lowest k-line which found a solution or {@link #NONE} if none did
+     */
+    int sweep(int kFirst, int kLast, IntPredicate line)
+    {
+        int lines = (kLast - kFirst) / 2 + 1;
+        int parallelism = this.pool.getParallelism();
+        if (lines < this.threshold || parallelism < 2)
+        {
+            return scan(kFirst, lines, line);
+        }
+        // a few partitions per worker to balance differing diagonal lengths
+        int partitions = parallelism * 4;
+        return this.pool.invoke(new Partition(kFirst, lines, (lines + partitions - 1) / partitions, line));
+    }
+
+    /**
+     * Calculates the given number of k-lines in ascending order on the calling thread and stops at the first one which
+     * found a solution.
+     */
+    private static int scan(int kFirst, int lines, IntPredicate line)
+    {
+        for (int i = 0, k = kFirst; i < lines; i++, k += 2)
+        {
+            if (line.test(k))
+            {
+                return k;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * A range of consecutive k-lines of a contour, which is split in halves until it contains no more k-lines than a
+     * single partition.
+     */
+    private static class Partition extends RecursiveTask<Integer>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int kFirst;
+        private final int lines;
+        private final int partitionSize;
+        private final IntPredicate line;
+
+        Partition(int kFirst, int lines, int partitionSize, IntPredicate line)
+        {
+            this.kFirst = kFirst;
+            this.lines = lines;
+            this.partitionSize = partitionSize;
+            this.line = line;
+        }
+
+        @Override
+        protected Integer compute()
+        {
+            if (this.lines <= this.partitionSize)
+            {
+                return scan(this.kFirst, this.lines, this.line);
+            }
+            int half = this.lines / 2;
+            Partition upper = new Partition(this.kFirst + 2 * half, this.lines - half, this.partitionSize, this.line);
+            upper.fork();
+            int lower = new Partition(this.kFirst, half, this.partitionSize, this.line).compute();
+            int found = upper.join();
+            // the lower k-lines take precedence like in the sequential order
+            return lower != NONE ? lower : found;
+        }
+    }
+}
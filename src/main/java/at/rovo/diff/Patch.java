@@ -0,0 +1,445 @@
+package at.rovo.diff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Applies an edit script to the first object of a comparison in order to reconstruct the second object.
+ * <p>
+ * The edit script is either available as the in-memory {@link Results} of a comparison, in which case the inserted
+ * elements are taken from the second object, or as a serialized edit script read via {@link EditScriptDecoder} which
+ * contains the inserted elements inline. Equal elements are copied from the first object run by run, which allows the
+ * {@link PatchTarget} to use bulk copies for long diagonals.
+ * <p>
+ * For line or byte based files the edit script can also be applied on file level, where diagonals are transferred from
+ * the original file to the target channel without being read into the heap.
+ *
+ * @author Roman Vottner
+ */
+public class Patch
+{
+    /** The size of the buffer used to write inserted elements to a channel **/
+    private static final int BUFFER_SIZE = 8192;
+
+    /** prevent initializations of the util class **/
+    private Patch()
+    {
+
+    }
+
+    /**
+     * Reconstructs the second object of a comparison from the first object and the snakes of the comparison result.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param res
+     *         The result returned by the comparison algorithm
+     * @param b
+     *         The elements of the second object the inserted elements are taken from
+     *
+     * @return The reconstructed elements of the second object
+     */
+    public static <T> T[] apply(T[] a, Results<T> res, T[] b)
+    {
+        int length = 0;
+        for (Snake<T> snake : res.getSnakes())
+        {
+            length += snake.BInserted + snake.DiagonalLength;
+        }
+
+        final T[] target = Arrays.copyOf(a, length);
+        try
+        {
+            apply(a, res, b, new PatchTarget<T>()
+            {
+                private int pos = 0;
+
+                @Override
+                public void copy(T[] source, int offset, int length)
+                {
+                    System.arraycopy(source, offset, target, this.pos, length);
+                    this.pos += length;
+                }
+
+                @Override
+                public void insert(List<T> tokens)
+                {
+                    for (T token : tokens)
+                    {
+                        target[this.pos++] = token;
+                    }
+                }
+            });
+        }
+        catch (IOException ioEx)
+        {
+            // the array target does not perform any IO
+            throw new IllegalStateException(ioEx);
+        }
+        return target;
+    }
+
+    /**
+     * Applies the snakes of a comparison result to the first object and streams the elements of the second object to
+     * the provided target.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param res
+     *         The result returned by the comparison algorithm
+     * @param b
+     *         The elements of the second object the inserted elements are taken from
+     * @param target
+     *         The target receiving the elements of the second object
+     *
+     * @throws IOException
+     *         If the target failed to write the elements
+     * @throws IllegalArgumentException
+     *         If the snakes do not describe a path through the first object
+     */
+    public static <T> void apply(T[] a, Results<T> res, T[] b, PatchTarget<T> target) throws IOException
+    {
+        int x = 0;
+        for (Snake<T> snake : res.getSnakes())
+        {
+            checkPath(snake, x, a.length);
+            int inserted = snake.IsForward ? snake.getPathYStart() : snake.getPathYEnd() - snake.BInserted;
+            int diagonal = snake.IsForward ? snake.getPathXEnd() - snake.DiagonalLength : snake.getPathXStart();
+
+            if (!snake.IsForward && snake.DiagonalLength > 0)
+            {
+                target.copy(a, diagonal, snake.DiagonalLength);
+            }
+            if (snake.BInserted > 0)
+            {
+                target.copy(b, inserted, snake.BInserted);
+            }
+            if (snake.IsForward && snake.DiagonalLength > 0)
+            {
+                target.copy(a, diagonal, snake.DiagonalLength);
+            }
+            x = snake.getPathXEnd();
+        }
+        checkEnd(x, a.length);
+    }
+
+    /**
+     * Reconstructs the second object of a comparison from the first object and a serialized edit script which contains
+     * the inserted elements.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param script
+     *         The decoder reading the serialized edit script
+     *
+     * @return The reconstructed elements of the second object
+     *
+     * @throws IOException
+     *         If the edit script could not be read or does not contain the inserted elements
+     */
+    public static <T> List<T> apply(T[] a, EditScriptDecoder<T> script) throws IOException
+    {
+        final List<T> target = new ArrayList<>(a.length);
+        apply(a, script, new PatchTarget<T>()
+        {
+            @Override
+            public void copy(T[] source, int offset, int length)
+            {
+                target.addAll(Arrays.asList(source).subList(offset, offset + length));
+            }
+
+            @Override
+            public void insert(List<T> tokens)
+            {
+                target.addAll(tokens);
+            }
+        });
+        return target;
+    }
+
+    /**
+     * Applies a serialized edit script to the first object and streams the elements of the second object to the
+     * provided target.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param script
+     *         The decoder reading the serialized edit script
+     * @param target
+     *         The target receiving the elements of the second object
+     *
+     * @throws IOException
+     *         If the edit script could not be read or does not contain the inserted elements or the target failed to
+     *         write the elements
+     * @throws IllegalArgumentException
+     *         If the edit script does not describe a path through the first object
+     */
+    public static <T> void apply(T[] a, EditScriptDecoder<T> script, PatchTarget<T> target) throws IOException
+    {
+        if (!script.hasInsertedTokens())
+        {
+            throw new IOException("Edit script does not contain the inserted elements");
+        }
+
+        int x = 0;
+        Snake<T> snake;
+        while ((snake = script.next()) != null)
+        {
+            checkPath(snake, x, a.length);
+            int diagonal = snake.IsForward ? snake.getPathXEnd() - snake.DiagonalLength : snake.getPathXStart();
+
+            if (!snake.IsForward && snake.DiagonalLength > 0)
+            {
+                target.copy(a, diagonal, snake.DiagonalLength);
+            }
+            if (snake.BInserted > 0)
+            {
+                target.insert(script.getInsertedTokens());
+            }
+            if (snake.IsForward && snake.DiagonalLength > 0)
+            {
+                target.copy(a, diagonal, snake.DiagonalLength);
+            }
+            x = snake.getPathXEnd();
+        }
+        checkEnd(x, a.length);
+    }
+
+    /**
+     * Applies a serialized edit script, which was calculated for the elements stored in a file, directly on file
+     * level. Runs of equal elements are transferred from the original file to the output channel without passing the
+     * heap, while inserted elements are written using the provided codec.
+     * <p>
+     * The byte range of an element within the original file is defined by <em>offsets</em>, which has to return the
+     * byte offset of the element at the given index and the length of the file for the index after the last element.
+     * For byte based comparisons this is the identity function, for line based comparisons {@link
+     * #lineOffsets(FileChannel)} calculates the offsets of all lines.
+     *
+     * @param base
+     *         The file containing the elements of the first object
+     * @param offsets
+     *         Maps the index of an element of the first object to its byte offset in the file
+     * @param length
+     *         The number of elements in the first object
+     * @param script
+     *         The decoder reading the serialized edit script
+     * @param codec
+     *         The codec converting inserted elements to bytes
+     * @param out
+     *         The channel the second object is written to
+     *
+     * @throws IOException
+     *         If the edit script could not be read or does not contain the inserted elements or if the elements could
+     *         not be transferred
+     */
+    public static <T> void apply(FileChannel base, IntToLongFunction offsets, int length, EditScriptDecoder<T> script,
+                                 TokenCodec<T> codec, WritableByteChannel out) throws IOException
+    {
+        if (!script.hasInsertedTokens())
+        {
+            throw new IOException("Edit script does not contain the inserted elements");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        int x = 0;
+        Snake<T> snake;
+        while ((snake = script.next()) != null)
+        {
+            checkPath(snake, x, length);
+            int diagonal = snake.IsForward ? snake.getPathXEnd() - snake.DiagonalLength : snake.getPathXStart();
+
+            if (!snake.IsForward && snake.DiagonalLength > 0)
+            {
+                transfer(base, offsets, diagonal, snake.DiagonalLength, out);
+            }
+            if (snake.BInserted > 0)
+            {
+                for (T token : script.getInsertedTokens())
+                {
+                    write(codec.encode(token), buffer, out);
+                }
+                flush(buffer, out);
+            }
+            if (snake.IsForward && snake.DiagonalLength > 0)
+            {
+                transfer(base, offsets, diagonal, snake.DiagonalLength, out);
+            }
+            x = snake.getPathXEnd();
+        }
+        checkEnd(x, length);
+    }
+
+    /**
+     * Calculates the byte offsets of all lines within the provided file. A line includes its terminating line feed. The
+     * returned array contains one more entry than there are lines, which marks the end of the file.
+     *
+     * @param file
+     *         The file to calculate the line offsets for
+     *
+     * @return The byte offsets of all lines followed by the length of the file
+     *
+     * @throws IOException
+     *         If the file could not be read
+     */
+    public static long[] lineOffsets(FileChannel file) throws IOException
+    {
+        long size = file.size();
+        long[] offsets = new long[64];
+        int lines = 0;
+        offsets[lines++] = 0;
+
+        long position = 0;
+        while (position < size)
+        {
+            long chunk = Math.min(Integer.MAX_VALUE, size - position);
+            MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, position, chunk);
+            for (int i = 0; i < chunk; i++)
+            {
+                if (mapped.get(i) == '\n' && position + i + 1 < size)
+                {
+                    if (lines == offsets.length)
+                    {
+                        offsets = Arrays.copyOf(offsets, lines * 2);
+                    }
+                    offsets[lines++] = position + i + 1;
+                }
+            }
+            position += chunk;
+        }
+
+        if (size == 0)
+        {
+            return new long[] {0};
+        }
+        offsets = Arrays.copyOf(offsets, lines + 1);
+        offsets[lines] = size;
+        return offsets;
+    }
+
+    /**
+     * Checks that a snake continues the path at the current x-position and does not leave the first object.
+     *
+     * @param snake
+     *         The snake to check
+     * @param x
+     *         The x-position the previous snake ended at
+     * @param length
+     *         The number of elements in the first object
+     */
+    private static <T> void checkPath(Snake<T> snake, int x, int length)
+    {
+        if (snake.getPathXStart() != x || snake.getPathXEnd() > length)
+        {
+            throw new IllegalArgumentException("Snake " + snake + " does not continue the path at x = " + x);
+        }
+    }
+
+    /**
+     * Checks that the edit script covered the whole first object.
+     *
+     * @param x
+     *         The x-position the last snake ended at
+     * @param length
+     *         The number of elements in the first object
+     */
+    private static void checkEnd(int x, int length)
+    {
+        if (x != length)
+        {
+            throw new IllegalArgumentException(
+                    "Edit script ends at x = " + x + " but the original contains " + length + " elements");
+        }
+    }
+
+    /**
+     * Transfers the bytes of a run of elements from the original file to the output channel.
+     *
+     * @param base
+     *         The file containing the elements of the first object
+     * @param offsets
+     *         Maps the index of an element of the first object to its byte offset in the file
+     * @param start
+     *         The index of the first element to transfer
+     * @param count
+     *         The number of elements to transfer
+     * @param out
+     *         The channel the elements are written to
+     *
+     * @throws IOException
+     *         If the bytes could not be transferred
+     */
+    private static void transfer(FileChannel base, IntToLongFunction offsets, int start, int count,
+                                 WritableByteChannel out) throws IOException
+    {
+        long from = offsets.applyAsLong(start);
+        long to = offsets.applyAsLong(start + count);
+        while (from < to)
+        {
+            long transferred = base.transferTo(from, to - from, out);
+            if (transferred <= 0)
+            {
+                throw new IOException("Could not transfer bytes " + from + " to " + to + " of the original file");
+            }
+            from += transferred;
+        }
+    }
+
+    /**
+     * Writes the provided bytes through the buffer to the output channel.
+     *
+     * @param data
+     *         The bytes to write
+     * @param buffer
+     *         The buffer collecting small writes
+     * @param out
+     *         The channel the bytes are written to
+     *
+     * @throws IOException
+     *         If the bytes could not be written
+     */
+    private static void write(byte[] data, ByteBuffer buffer, WritableByteChannel out) throws IOException
+    {
+        if (data.length > buffer.remaining())
+        {
+            flush(buffer, out);
+            if (data.length > buffer.capacity())
+            {
+                ByteBuffer direct = ByteBuffer.wrap(data);
+                while (direct.hasRemaining())
+                {
+                    out.write(direct);
+                }
+                return;
+            }
+        }
+        buffer.put(data);
+    }
+
+    /**
+     * Writes any buffered bytes to the output channel.
+     *
+     * @param buffer
+     *         The buffer containing the bytes to write
+     * @param out
+     *         The channel the bytes are written to
+     *
+     * @throws IOException
+     *         If the bytes could not be written
+     */
+    private static void flush(ByteBuffer buffer, WritableByteChannel out) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
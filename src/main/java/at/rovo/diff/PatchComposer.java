@@ -0,0 +1,211 @@
+package at.rovo.diff;
+
+import java.util.List;
+
+/**
+ * Composes consecutive edit scripts <em>A &rarr; B</em> and <em>B &rarr; C</em> into a single edit script <em>A &rarr;
+ * C</em> without touching any element of the compared objects.
+ * <p>
+ * Both edit scripts are followed run by run. Every element of <em>B</em> is either an equal element of <em>A</em> or
+ * was inserted by the first script, and the second script either keeps or deletes it. Elements of <em>A</em> kept by
+ * both scripts stay equal, kept elements of <em>A</em> deleted by the second script become deletions and elements
+ * inserted by the first script and kept by the second script become insertions of <em>C</em>, while elements inserted by
+ * the first and deleted by the second script cancel each other out. As whole runs are processed at once, the
+ * composition takes time linear in the number of snakes of both edit scripts.
+ * <p>
+ * The composed snakes are forward snakes whose insertions refer to positions in <em>C</em>, so the composed result can
+ * be applied with {@link Patch#apply(Object[], Results, Object[])} using <em>C</em> as source of inserted elements.
+ *
+ * @author Roman Vottner
+ */
+public class PatchComposer
+{
+    /** A run of equal elements **/
+    private static final int KEEP = 0;
+    /** A run of deleted elements **/
+    private static final int DELETE = 1;
+    /** A run of inserted elements **/
+    private static final int INSERT = 2;
+
+    /** prevent initializations of the util class **/
+    private PatchComposer()
+    {
+
+    }
+
+    /**
+     * Composes the edit scripts <em>A &rarr; B</em> and <em>B &rarr; C</em> into the edit script <em>A &rarr; C</em>.
+     *
+     * @param ab
+     *         The result of comparing <em>A</em> with <em>B</em>
+     * @param bc
+     *         The result of comparing <em>B</em> with <em>C</em>
+     *
+     * @return The result transforming <em>A</em> into <em>C</em>
+     *
+     * @throws IllegalArgumentException
+     *         If the first edit script does not produce the object the second one starts with
+     */
+    public static <T> Results<T> compose(Results<T> ab, Results<T> bc)
+    {
+        Runs first = new Runs(ab.getSnakes());
+        Runs second = new Runs(bc.getSnakes());
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+
+        while (true)
+        {
+            // deletions of the first script do not produce any element of B
+            if (first.type == DELETE)
+            {
+                builder.delete(first.remaining);
+                first.consume(first.remaining);
+                continue;
+            }
+            // insertions of the second script do not consume any element of B
+            if (second.type == INSERT)
+            {
+                builder.insert(second.remaining);
+                second.consume(second.remaining);
+                continue;
+            }
+            if (first.done() || second.done())
+            {
+                if (first.done() && second.done())
+                {
+                    break;
+                }
+                throw new IllegalArgumentException("Edit scripts do not share the same intermediate object");
+            }
+
+            int count = Math.min(first.remaining, second.remaining);
+            if (first.type == KEEP)
+            {
+                if (second.type == KEEP)
+                {
+                    builder.keep(count);
+                }
+                else
+                {
+                    builder.delete(count);
+                }
+            }
+            else if (second.type == KEEP)
+            {
+                builder.insert(count);
+            }
+            first.consume(count);
+            second.consume(count);
+        }
+
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Composes a chain of edit scripts, where each edit script starts with the object the previous one produces, into a
+     * single edit script from the first to the last object.
+     *
+     * @param chain
+     *         The results of comparing consecutive objects
+     *
+     * @return The result transforming the first object into the last one
+     *
+     * @throws IllegalArgumentException
+     *         If the chain is empty or the edit scripts are not consecutive
+     */
+    public static <T> Results<T> compose(List<Results<T>> chain)
+    {
+        if (chain.isEmpty())
+        {
+            throw new IllegalArgumentException("No edit script to compose");
+        }
+        Results<T> composed = chain.get(0);
+        for (int i = 1; i < chain.size(); i++)
+        {
+            composed = compose(composed, chain.get(i));
+        }
+        return composed;
+    }
+
+    /**
+     * Iterates the runs of equal, deleted and inserted elements of an edit script in path order.
+     */
+    private static class Runs
+    {
+        /** The snakes of the edit script **/
+        private final List<? extends Snake<?>> snakes;
+        /** The index of the next snake to read runs from **/
+        private int next = 0;
+        /** The runs of the current snake in path order **/
+        private final int[] types = new int[3];
+        /** The lengths of the runs of the current snake **/
+        private final int[] lengths = new int[3];
+        /** The number of runs of the current snake **/
+        private int runs = 0;
+        /** The index of the current run **/
+        private int run = 0;
+
+        /** The type of the current run; -1 if all runs were consumed **/
+        int type = -1;
+        /** The number of elements left in the current run **/
+        int remaining = 0;
+
+        Runs(List<? extends Snake<?>> snakes)
+        {
+            this.snakes = snakes;
+            this.advance();
+        }
+
+        boolean done()
+        {
+            return this.type < 0;
+        }
+
+        void consume(int count)
+        {
+            this.remaining -= count;
+            if (this.remaining == 0)
+            {
+                this.advance();
+            }
+        }
+
+        private void advance()
+        {
+            this.run++;
+            while (this.run >= this.runs)
+            {
+                if (this.next >= this.snakes.size())
+                {
+                    this.type = -1;
+                    this.remaining = 0;
+                    return;
+                }
+                Snake<?> snake = this.snakes.get(this.next++);
+                this.runs = 0;
+                this.run = 0;
+                if (!snake.IsForward)
+                {
+                    this.addRun(KEEP, snake.DiagonalLength);
+                }
+                this.addRun(DELETE, snake.ADeleted);
+                this.addRun(INSERT, snake.BInserted);
+                if (snake.IsForward)
+                {
+                    this.addRun(KEEP, snake.DiagonalLength);
+                }
+            }
+            this.type = this.types[this.run];
+            this.remaining = this.lengths[this.run];
+        }
+
+        private void addRun(int type, int length)
+        {
+            if (length > 0)
+            {
+                this.types[this.runs] = type;
+                this.lengths[this.runs] = length;
+                this.runs++;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package at.rovo.diff;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the elements of the target object while an edit script is applied by {@link Patch}.
+ * <p>
+ * Runs of elements are handed over as a whole, so that implementations are able to use bulk operations like {@link
+ * System#arraycopy(Object, int, Object, int, int)} instead of adding the elements one by one.
+ *
+ * @param <T>
+ *         The type of the elements of the target object
+ *
+ * @author Roman Vottner
+ */
+public interface PatchTarget<T>
+{
+    /**
+     * Appends a run of elements taken from the provided array.
+     *
+     * @param source
+     *         The array containing the elements to append
+     * @param offset
+     *         The position of the first element to append
+     * @param length
+     *         The number of elements to append
+     *
+     * @throws IOException
+     *         If the elements could not be written
+     */
+    void copy(T[] source, int offset, int length) throws IOException;
+
+    /**
+     * Appends the provided elements which were restored from a serialized edit script.
+     *
+     * @param tokens
+     *         The elements to append
+     *
+     * @throws IOException
+     *         If the elements could not be written
+     */
+    void insert(List<T> tokens) throws IOException;
+}
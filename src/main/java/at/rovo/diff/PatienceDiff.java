@@ -0,0 +1,203 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares two objects by splitting them at elements which occur exactly once in each object, like the patience diff
+ * does.
+ * <p>
+ * A pair of such unique elements is a safe split point as long as all chosen pairs appear in the same relative order in
+ * both objects. The longest sequence of unique pairs which is ascending in both objects is found by patience sorting in
+ * <em>O(u log u)</em> time, where <em>u</em> is the number of unique pairs. Every chosen pair is then extended by the
+ * equal elements surrounding it and serves as anchor for {@link AnchoredDiff}, which compares the independent regions
+ * between the anchors with {@link LinearDiff} on a work-stealing pool and merges the resulting snakes in order.
+ * <p>
+ * Unique elements rarely match wrongly, so the resulting edit script is usually as short as the one of a comparison of
+ * the full objects, but this is not guaranteed.
+ *
+ * @author Roman Vottner
+ */
+public class PatienceDiff
+{
+    /** prevent initializations of the util class **/
+    private PatienceDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects and compares the regions between the anchors on the common {@link ForkJoinPool}.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a region between anchors fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b) throws Exception
+    {
+        return Compare(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compares two objects.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param executor
+     *         The executor to compare the regions between the anchors on; if null all regions are compared on the
+     *         calling thread
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison of a region between anchors fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, ExecutorService executor) throws Exception
+    {
+        int[] pairs = uniquePairs(a, b);
+        int[] chain = longestIncreasingChain(pairs);
+
+        int[] anchors = new int[chain.length * 3];
+        int count = 0;
+        int xEnd = 0;
+        int yEnd = 0;
+        for (int c = 0; c < chain.length; c++)
+        {
+            int x = pairs[chain[c] * 2];
+            int y = pairs[chain[c] * 2 + 1];
+            // extend the pair backwards up to the previous anchor and forwards up to the next pair
+            while (x > xEnd && y > yEnd && a[x - 1].equals(b[y - 1]))
+            {
+                x--;
+                y--;
+            }
+            int xLimit = c + 1 < chain.length ? pairs[chain[c + 1] * 2] : a.length;
+            int yLimit = c + 1 < chain.length ? pairs[chain[c + 1] * 2 + 1] : b.length;
+            int end = pairs[chain[c] * 2] + 1;
+            int length = end - x;
+            while (x + length < xLimit && y + length < yLimit && a[x + length].equals(b[y + length]))
+            {
+                length++;
+            }
+            anchors[count * 3] = x;
+            anchors[count * 3 + 1] = y;
+            anchors[count * 3 + 2] = length;
+            count++;
+            xEnd = x + length;
+            yEnd = y + length;
+        }
+
+        return AnchoredDiff.compare(a, b, anchors, count, executor);
+    }
+
+    /**
+     * Finds all elements which occur exactly once in both objects.
+     *
+     * @param a
+     *         The elements of the first object
+     * @param b
+     *         The elements of the second object
+     *
+     * @return Consecutive pairs of the positions of each unique element in the first and the second object, ordered
+     *         by the position in the first object
+     */
+    static <T> int[] uniquePairs(T[] a, T[] b)
+    {
+        // position of the element in a and b or -2 if the element occurs more than once in the respective object
+        Map<T, int[]> occurrences = new HashMap<>(a.length * 2);
+        for (int x = 0; x < a.length; x++)
+        {
+            int[] positions = occurrences.get(a[x]);
+            if (positions == null)
+            {
+                occurrences.put(a[x], new int[] {x, -1});
+            }
+            else
+            {
+                positions[0] = -2;
+            }
+        }
+        for (int y = 0; y < b.length; y++)
+        {
+            int[] positions = occurrences.get(b[y]);
+            if (positions != null)
+            {
+                positions[1] = positions[1] == -1 ? y : -2;
+            }
+        }
+
+        int[] pairs = new int[Math.min(a.length, b.length) * 2];
+        int count = 0;
+        for (int x = 0; x < a.length; x++)
+        {
+            int[] positions = occurrences.get(a[x]);
+            if (positions[0] == x && positions[1] >= 0)
+            {
+                pairs[count * 2] = x;
+                pairs[count * 2 + 1] = positions[1];
+                count++;
+            }
+        }
+        return Arrays.copyOf(pairs, count * 2);
+    }
+
+    /**
+     * Determines the longest chain of pairs whose second positions are ascending via patience sorting. Each pair is put
+     * on the leftmost pile whose top is not smaller, linking it to the top of the previous pile.
+     *
+     * @param pairs
+     *         Consecutive pairs of positions ordered by the first position
+     *
+     * @return The indices of the pairs of the longest chain in ascending order
+     */
+    static int[] longestIncreasingChain(int[] pairs)
+    {
+        int n = pairs.length / 2;
+        // the index of the pair on top of each pile and the predecessor of each pair
+        int[] tops = new int[n];
+        int[] previous = new int[n];
+        int piles = 0;
+        for (int i = 0; i < n; i++)
+        {
+            int y = pairs[i * 2 + 1];
+            int low = 0;
+            int high = piles;
+            while (low < high)
+            {
+                int mid = (low + high) >>> 1;
+                if (pairs[tops[mid] * 2 + 1] < y)
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tops[low - 1] : -1;
+            tops[low] = i;
+            if (low == piles)
+            {
+                piles++;
+            }
+        }
+
+        int[] chain = new int[piles];
+        for (int i = piles - 1, pair = piles > 0 ? tops[piles - 1] : -1; i >= 0; i--, pair = previous[pair])
+        {
+            chain[i] = pair;
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,223 @@
+package at.rovo.diff;
+
+/**
+ * Translates positions of the first object of a comparison into positions of the second object and vice versa.
+ * <p>
+ * The index only keeps the changes of the edit script, i.e. the ranges of deleted and inserted elements. Positions
+ * between two changes are shifted by the difference of inserted and deleted elements of all preceding changes, so a
+ * single position is translated via a binary search over the changes in <em>O(log h)</em> time, where <em>h</em> is
+ * the number of changes. Sorted positions can be translated in batch by a single sweep over positions and changes.
+ *
+ * @author Roman Vottner
+ */
+public class PositionIndex
+{
+    /** The changes of the edit script **/
+    private final EditChanges changes;
+
+    /**
+     * Creates a new index for the provided comparison result.
+     *
+     * @param res
+     *         The result of the comparison of the first with the second object
+     */
+    public PositionIndex(Results<?> res)
+    {
+        this.changes = new EditChanges(res.getSnakes());
+    }
+
+    /**
+     * Translates a position of the first object into the position of the same element in the second object.
+     *
+     * @param x
+     *         The position in the first object
+     *
+     * @return The position in the second object or -1 if the element at the position was deleted
+     */
+    public int toNew(int x)
+    {
+        int c = this.findByX(x);
+        if (c < 0)
+        {
+            return x;
+        }
+        if (x < this.changes.getXEnd(c))
+        {
+            return -1;
+        }
+        return x - this.changes.getXEnd(c) + this.changes.getYEnd(c);
+    }
+
+    /**
+     * Translates a position of the second object into the position of the same element in the first object.
+     *
+     * @param y
+     *         The position in the second object
+     *
+     * @return The position in the first object or -1 if the element at the position was inserted
+     */
+    public int toOld(int y)
+    {
+        int c = this.findByY(y);
+        if (c < 0)
+        {
+            return y;
+        }
+        if (y < this.changes.getYEnd(c))
+        {
+            return -1;
+        }
+        return y - this.changes.getYEnd(c) + this.changes.getXEnd(c);
+    }
+
+    /**
+     * Indicates if the element at the provided position of the first object was deleted.
+     *
+     * @param x
+     *         The position in the first object
+     *
+     * @return true if the element is not part of the second object
+     */
+    public boolean isDeleted(int x)
+    {
+        int c = this.findByX(x);
+        return c >= 0 && x < this.changes.getXEnd(c);
+    }
+
+    /**
+     * Indicates if the element at the provided position of the second object was inserted.
+     *
+     * @param y
+     *         The position in the second object
+     *
+     * @return true if the element is not part of the first object
+     */
+    public boolean isInserted(int y)
+    {
+        int c = this.findByY(y);
+        return c >= 0 && y < this.changes.getYEnd(c);
+    }
+
+    /**
+     * Translates positions of the first object, which are sorted in ascending order, into positions of the second
+     * object in a single sweep.
+     *
+     * @param xs
+     *         The ascending positions in the first object
+     *
+     * @return The positions in the second object or -1 for each deleted element
+     *
+     * @throws IllegalArgumentException
+     *         If the positions are not sorted
+     */
+    public int[] toNew(int[] xs)
+    {
+        return this.sweep(xs, true);
+    }
+
+    /**
+     * Translates positions of the second object, which are sorted in ascending order, into positions of the first
+     * object in a single sweep.
+     *
+     * @param ys
+     *         The ascending positions in the second object
+     *
+     * @return The positions in the first object or -1 for each inserted element
+     *
+     * @throws IllegalArgumentException
+     *         If the positions are not sorted
+     */
+    public int[] toOld(int[] ys)
+    {
+        return this.sweep(ys, false);
+    }
+
+    /**
+     * Returns the number of changes of the edit script.
+     *
+     * @return The number of changes
+     */
+    public int getChangeCount()
+    {
+        return this.changes.size();
+    }
+
+    /**
+     * Translates sorted positions by advancing over the changes in parallel to the positions.
+     *
+     * @param positions
+     *         The ascending positions to translate
+     * @param forward
+     *         true to translate positions of the first object, false to translate positions of the second object
+     *
+     * @return The translated positions
+     */
+    private int[] sweep(int[] positions, boolean forward)
+    {
+        int[] result = new int[positions.length];
+        int c = 0;
+        // the end of the last passed change in the source object and in the target object
+        int sourceEnd = 0;
+        int targetEnd = 0;
+        for (int i = 0; i < positions.length; i++)
+        {
+            int pos = positions[i];
+            if (i > 0 && pos < positions[i - 1])
+            {
+                throw new IllegalArgumentException("Positions are not sorted at index " + i);
+            }
+            while (c < this.changes.size() && this.getStart(c, forward) <= pos)
+            {
+                sourceEnd = forward ? this.changes.getXEnd(c) : this.changes.getYEnd(c);
+                targetEnd = forward ? this.changes.getYEnd(c) : this.changes.getXEnd(c);
+                c++;
+            }
+            result[i] = pos < sourceEnd ? -1 : pos - sourceEnd + targetEnd;
+        }
+        return result;
+    }
+
+    private int getStart(int change, boolean forward)
+    {
+        return forward ? this.changes.getXStart(change) : this.changes.getYStart(change);
+    }
+
+    /**
+     * Searches the last change deleting elements at or before the provided position of the first object.
+     *
+     * @return The index of the change or -1 if no such change exists
+     */
+    private int findByX(int x)
+    {
+        return this.find(x, true);
+    }
+
+    /**
+     * Searches the last change inserting elements at or before the provided position of the second object.
+     *
+     * @return The index of the change or -1 if no such change exists
+     */
+    private int findByY(int y)
+    {
+        return this.find(y, false);
+    }
+
+    private int find(int pos, boolean forward)
+    {
+        int low = 0;
+        int high = this.changes.size() - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            if (this.getStart(mid, forward) <= pos)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -8,6 +8,7 @@ public class Results<T>
     public List<Snake<T>> Snakes;
     public List<V> ForwardVs;
     public List<V> ReverseVs;
+    public DiffEngine Engine;
 
     public Results(List<Snake<T>> snakes, List<V> forwardVs, List<V> reverseVs)
     {
@@ -59,4 +60,14 @@ public class Results<T>
     {
         this.ReverseVs = ReverseVs;
     }
+
+    public DiffEngine getEngine()
+    {
+        return this.Engine;
+    }
+
+    protected void setEngine(DiffEngine Engine)
+    {
+        this.Engine = Engine;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package at.rovo.diff;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The weak checksum used by rsync, which consists of two 16 bit sums over the bytes of a window. Unlike a strong hash
+ * it can be moved along the data by one byte in constant time.
+ *
+ * @author Roman Vottner
+ */
+class RollingChecksum
+{
+    /** The sum of all bytes of the window **/
+    private int a;
+    /** The sum of all bytes of the window weighted by their distance to the end of the window **/
+    private int b;
+    /** The number of bytes of the window **/
+    private int length;
+
+    /**
+     * Calculates the checksum of a new window.
+     *
+     * @param data
+     *         The buffer containing the window
+     * @param offset
+     *         The absolute position of the first byte of the window
+     * @param length
+     *         The number of bytes of the window
+     */
+    void reset(ByteBuffer data, int offset, int length)
+    {
+        this.a = 0;
+        this.b = 0;
+        this.length = length;
+        for (int i = 0; i < length; i++)
+        {
+            int value = data.get(offset + i) & 0xFF;
+            this.a += value;
+            this.b += (length - i) * value;
+        }
+    }
+
+    /**
+     * Moves the window by one byte.
+     *
+     * @param out
+     *         The byte leaving the window at its start
+     * @param in
+     *         The byte entering the window at its end
+     */
+    void roll(byte out, byte in)
+    {
+        this.a += (in & 0xFF) - (out & 0xFF);
+        this.b += this.a - this.length * (out & 0xFF);
+    }
+
+    /**
+     * Returns the checksum of the current window.
+     *
+     * @return The checksum combining both sums
+     */
+    int value()
+    {
+        return (this.a & 0xFFFF) | (this.b << 16);
+    }
+}
@@ -0,0 +1,226 @@
+package at.rovo.diff;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Calculates the differences between a file, which is only known by its {@link BlockSignature}, and a newer version of
+ * the file like rsync does.
+ * <p>
+ * The newer version is scanned in a single pass with a window of the block size. The {@link RollingChecksum weak
+ * checksum} of the window is moved along by one byte at a time and looked up in a sorted index over the weak checksums
+ * of the signature. Only if the weak checksum matches a block, the strong hash of the window is calculated to confirm
+ * the match. A confirmed match skips the whole window while all bytes which are not part of a matched block are
+ * literals of the newer version.
+ * <p>
+ * The result is returned as snakes like the result of any other comparison algorithm, where matched blocks are the
+ * diagonals, literals are insertions and all bytes of the old file which are not covered by a matched block are
+ * deletions. As snakes describe a path through the edit graph, blocks are only matched in ascending order, i.e. a
+ * block which precedes the previously matched block is transmitted as literal instead.
+ *
+ * @author Roman Vottner
+ */
+public class RollingDelta
+{
+    /** prevent initializations of the util class **/
+    private RollingDelta()
+    {
+
+    }
+
+    /**
+     * Compares the file described by the signature with the provided newer version.
+     *
+     * @param signature
+     *         The signature of the old file
+     * @param b
+     *         The newer version of the file
+     *
+     * @return The result transforming the old file into the newer version
+     */
+    public static Results<Byte> compare(BlockSignature signature, byte[] b)
+    {
+        return compare(signature, ByteBuffer.wrap(b));
+    }
+
+    /**
+     * Compares the file described by the signature with the newer version contained in the provided buffer, which may
+     * also be a memory-mapped file.
+     *
+     * @param signature
+     *         The signature of the old file
+     * @param b
+     *         The buffer containing the newer version between its position and its limit
+     *
+     * @return The result transforming the old file into the newer version
+     *
+     * @throws IllegalArgumentException
+     *         If the old file is larger than 2 GB
+     */
+    public static Results<Byte> compare(BlockSignature signature, ByteBuffer b)
+    {
+        if (signature.getLength() > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Files larger than 2 GB are not supported");
+        }
+        int length = (int) signature.getLength();
+        int blockSize = signature.getBlockSize();
+        ByteBuffer data = b.slice();
+        int n = data.remaining();
+        long[] index = index(signature);
+        MessageDigest digest = BlockSignature.newDigest();
+        RollingChecksum checksum = new RollingChecksum();
+        SnakeBuilder<Byte> builder = new SnakeBuilder<>();
+
+        // the end of the last matched block in the old file and the start of the pending literals
+        int x = 0;
+        int literal = 0;
+        boolean fresh = true;
+        int i = 0;
+        while (i + blockSize <= n)
+        {
+            if (fresh)
+            {
+                checksum.reset(data, i, blockSize);
+                fresh = false;
+            }
+            int block = find(signature, index, checksum.value(), x / blockSize, data, i, blockSize, digest);
+            if (block >= 0)
+            {
+                builder.delete(block * blockSize - x);
+                builder.insert(i - literal);
+                builder.keep(blockSize);
+                x = (block + 1) * blockSize;
+                i += blockSize;
+                literal = i;
+                fresh = true;
+            }
+            else
+            {
+                if (i + blockSize < n)
+                {
+                    checksum.roll(data.get(i), data.get(i + blockSize));
+                }
+                i++;
+            }
+        }
+
+        // the last block is shorter than the others and therefore can only match the end of the newer version
+        int last = signature.getBlockCount() - 1;
+        int tail = last >= 0 ? signature.getBlockLength(last) : 0;
+        if (tail > 0 && tail < blockSize && n - literal >= tail && last * blockSize >= x)
+        {
+            checksum.reset(data, n - tail, tail);
+            if (checksum.value() == signature.getWeak(last) &&
+                BlockSignature.strongHash(digest, data, n - tail, tail) == signature.getStrong(last))
+            {
+                builder.delete(last * blockSize - x);
+                builder.insert(n - tail - literal);
+                builder.keep(tail);
+                x = length;
+                literal = n;
+            }
+        }
+        builder.delete(length - x);
+        builder.insert(n - literal);
+
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Creates a sorted index over the weak checksums of all full blocks of the signature, where each entry combines the
+     * weak checksum with the index of the block. Entries with equal checksums are therefore sorted by their block.
+     *
+     * @param signature
+     *         The signature to index
+     *
+     * @return The sorted index
+     */
+    private static long[] index(BlockSignature signature)
+    {
+        int blocks = signature.getBlockCount();
+        if (blocks > 0 && signature.getBlockLength(blocks - 1) < signature.getBlockSize())
+        {
+            blocks--;
+        }
+        long[] index = new long[blocks];
+        for (int i = 0; i < blocks; i++)
+        {
+            index[i] = key(signature.getWeak(i), i);
+        }
+        Arrays.sort(index);
+        return index;
+    }
+
+    /**
+     * Searches the first block at or after the provided minimum block which matches the window.
+     *
+     * @param signature
+     *         The signature of the old file
+     * @param index
+     *         The sorted index over the weak checksums
+     * @param weak
+     *         The weak checksum of the window
+     * @param minBlock
+     *         The first block which may be matched
+     * @param data
+     *         The buffer containing the newer version
+     * @param offset
+     *         The position of the window
+     * @param length
+     *         The number of bytes of the window
+     * @param digest
+     *         The digest to calculate the strong hash with
+     *
+     * @return The index of the matching block or -1 if no block matches
+     */
+    private static int find(BlockSignature signature, long[] index, int weak, int minBlock, ByteBuffer data,
+                            int offset, int length, MessageDigest digest)
+    {
+        int pos = lowerBound(index, key(weak, minBlock));
+        boolean hashed = false;
+        long strong = 0;
+        for (; pos < index.length && (int) (index[pos] >> 32) == weak; pos++)
+        {
+            if (!hashed)
+            {
+                strong = BlockSignature.strongHash(digest, data, offset, length);
+                hashed = true;
+            }
+            int block = (int) index[pos];
+            if (signature.getStrong(block) == strong)
+            {
+                return block;
+            }
+        }
+        return -1;
+    }
+
+    private static long key(int weak, int block)
+    {
+        return ((long) weak << 32) | block;
+    }
+
+    /**
+     * Returns the index of the first entry which is not smaller than the given key.
+     */
+    private static int lowerBound(long[] index, long key)
+    {
+        int low = 0;
+        int high = index.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < key)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,221 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares two objects with long runs of equal consecutive elements, like blank lines or empty table cells, by
+ * comparing their run-length encodings first.
+ * <p>
+ * Both objects are encoded into runs of a value and the number of its consecutive occurrences, and the runs are
+ * compared by the engine {@link AdaptiveDiff} selects, where two runs are only equal if both their value and their
+ * length are equal. As every run counts as a single element, long runs no longer inflate the number of k-lines the
+ * engines have to scan. Matched runs are expanded back to diagonals of their length.
+ * <p>
+ * The runs of a stretch between two matched runs may still partially match, i.e. if a run only grew or shrank. If the
+ * first runs or the last runs of such a stretch share their value, the elements they have in common are kept. The
+ * remaining elements in between are compared element by element by {@link LinearDiff}.
+ * <p>
+ * As runs are only matched as a whole, the resulting edit script may be longer than the shortest edit script if a
+ * matched stretch of runs is not part of a longest common subsequence, i.e. if the same sequence of runs occurs more
+ * than once close by and the runs enclosing it changed their lengths. A stretch is therefore only kept if it is at
+ * least as long as the unmatched elements on each side of it; shorter ones are compared element by element together
+ * with their neighbors.
+ *
+ * @author Roman Vottner
+ */
+public class RunLengthDiff
+{
+    /** prevent initializations of the util class **/
+    private RunLengthDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects via their run-length encodings.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If a comparison fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b) throws Exception
+    {
+        Run[] runsA = Encode(a);
+        Run[] runsB = Encode(b);
+
+        SnakeBuilder<Run> runs = new SnakeBuilder<>();
+        runs.add(AdaptiveDiff.Compare(runsA, runsB).getSnakes());
+
+        List<Snake<Run>> snakes = runs.build();
+
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        // the start of the unmatched runs which have not been expanded yet
+        int rx = 0;
+        int ry = 0;
+        for (int s = 0; s < snakes.size(); s++)
+        {
+            Snake<Run> snake = snakes.get(s);
+            int dx = snake.XStart + snake.ADeleted;
+            int dy = snake.YStart + snake.BInserted;
+            int dxEnd = dx + snake.DiagonalLength;
+            int dyEnd = dy + snake.DiagonalLength;
+
+            // a matched stretch which is shorter than the unmatched runs on either side of it may lie off every
+            // shortest path, so it is compared together with its neighbors instead of being kept
+            int matched = Length(runsA, dx, dxEnd);
+            int before = Math.max(Length(runsA, rx, dx), Length(runsB, ry, dy));
+            int after = 0;
+            if (s + 1 < snakes.size())
+            {
+                Snake<Run> next = snakes.get(s + 1);
+                after = Math.max(Length(runsA, dxEnd, next.XStart + next.ADeleted),
+                                 Length(runsB, dyEnd, next.YStart + next.BInserted));
+            }
+            if (matched < Math.max(before, after))
+            {
+                continue;
+            }
+
+            Expand(a, runsA, rx, dx, b, runsB, ry, dy, builder);
+            for (int r = dx; r < dxEnd; r++)
+            {
+                builder.keep(runsA[r].length);
+            }
+            rx = dxEnd;
+            ry = dyEnd;
+        }
+        Expand(a, runsA, rx, runsA.length, b, runsB, ry, runsB.length, builder);
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Splits the elements into runs of equal consecutive elements.
+     */
+    private static Run[] Encode(Object[] elements)
+    {
+        Run[] runs = new Run[16];
+        int count = 0;
+        for (int i = 0; i < elements.length; )
+        {
+            int start = i;
+            while (i < elements.length && elements[i].equals(elements[start]))
+            {
+                i++;
+            }
+            if (count == runs.length)
+            {
+                runs = Arrays.copyOf(runs, count * 2);
+            }
+            runs[count++] = new Run(elements[start], start, i - start);
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    /**
+     * Returns the number of elements of the runs <em>[from, to)</em>.
+     */
+    private static int Length(Run[] runs, int from, int to)
+    {
+        return from < to ? runs[to - 1].start + runs[to - 1].length - runs[from].start : 0;
+    }
+
+    /**
+     * Transforms the unmatched runs <em>[rx, rxEnd)</em> of the first object into the unmatched runs <em>[ry,
+     * ryEnd)</em> of the second object and adds the resulting path to the builder.
+     */
+    private static <T> void Expand(T[] a, Run[] runsA, int rx, int rxEnd, T[] b, Run[] runsB, int ry, int ryEnd,
+                                   SnakeBuilder<T> builder) throws Exception
+    {
+        if (rx == rxEnd || ry == ryEnd)
+        {
+            for (int r = rx; r < rxEnd; r++)
+            {
+                builder.delete(runsA[r].length);
+            }
+            for (int r = ry; r < ryEnd; r++)
+            {
+                builder.insert(runsB[r].length);
+            }
+            return;
+        }
+
+        int xStart = runsA[rx].start;
+        int xEnd = runsA[rxEnd - 1].start + runsA[rxEnd - 1].length;
+        int yStart = runsB[ry].start;
+        int yEnd = runsB[ryEnd - 1].start + runsB[ryEnd - 1].length;
+
+        // the common part of the first runs if they share their value
+        int leading = 0;
+        if (runsA[rx].value.equals(runsB[ry].value))
+        {
+            leading = Math.min(runsA[rx].length, runsB[ry].length);
+        }
+        builder.keep(leading);
+        xStart += leading;
+        yStart += leading;
+
+        // the common part of the remainders of the last runs if they share their value
+        int trailing = 0;
+        if (xStart < xEnd && yStart < yEnd && runsA[rxEnd - 1].value.equals(runsB[ryEnd - 1].value))
+        {
+            trailing = Math.min(Math.min(runsA[rxEnd - 1].length, xEnd - xStart),
+                                Math.min(runsB[ryEnd - 1].length, yEnd - yStart));
+        }
+        xEnd -= trailing;
+        yEnd -= trailing;
+
+        if (xStart < xEnd && yStart < yEnd)
+        {
+            builder.add(LinearDiff.Compare(Arrays.copyOfRange(a, xStart, xEnd), Arrays.copyOfRange(b, yStart, yEnd),
+                                           null, LinearDiff.DEFAULT_CUTOFF).getSnakes());
+        }
+        else
+        {
+            builder.delete(xEnd - xStart);
+            builder.insert(yEnd - yStart);
+        }
+        builder.keep(trailing);
+    }
+
+    /**
+     * A run of equal consecutive elements, which is equal to another run if both have the same value and length.
+     */
+    private static final class Run
+    {
+        private final Object value;
+        /** The position of the first element of the run **/
+        private final int start;
+        private final int length;
+
+        Run(Object value, int start, int length)
+        {
+            this.value = value;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.value.hashCode() * 31 + this.length;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Run))
+            {
+                return false;
+            }
+            Run other = (Run) obj;
+            return this.length == other.length && this.value.equals(other.value);
+        }
+    }
+}
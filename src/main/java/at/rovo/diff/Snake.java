@@ -494,10 +494,14 @@ public class Snake<T>
     /**
      * Combines two snakes of the same kind to reduce the number of returned snakes.
      * <p>
-     * A snake is of the same kind if both are in the same direction and if both have either a positive ADeleted field
-     * or a positive BInserted field, but not either a positive ADeleted and the other a positive BInserted field!
-     * Moreover, if the snake to append has a DiagonalLength > 0 it is not meant to be of the same kind and therefore
-     * should not be appended to this snake.
+     * A snake is of the same kind if both have either a positive ADeleted field or a positive BInserted field, but not
+     * either a positive ADeleted and the other a positive BInserted field! Moreover, two snakes can only be combined if
+     * they are adjacent in the edit graph and no equal elements separate their deletions or insertions. As a forward
+     * snake lists its diagonal after the edit operation while a backward snake lists it before, the combined snake must
+     * furthermore still be representable in the comparison direction of this snake.
+     * <p>
+     * The snake to append may either precede or follow this snake along the path as {@link GreedyDiff} collects its
+     * forward snakes from the end towards the start.
      *
      * @param snake
      *         The snake to append to the current snake
@@ -506,26 +510,106 @@ public class Snake<T>
      */
     boolean append(Snake<T> snake)
     {
-        if (((this.IsForward && this.DiagonalLength >= 0) || (!this.IsForward && snake.DiagonalLength >= 0)) &&
-            (this.ADeleted > 0 && snake.ADeleted > 0 || this.BInserted > 0 && snake.BInserted > 0))
+        if (!(this.ADeleted > 0 && snake.ADeleted > 0 || this.BInserted > 0 && snake.BInserted > 0))
         {
-            this.ADeleted += snake.ADeleted;
-            this.BInserted += snake.BInserted;
+            return false;
+        }
 
-            this.DiagonalLength += snake.DiagonalLength;
+        // determine the order of both snakes along the path from (0, 0) to (N, M)
+        Snake<T> first;
+        Snake<T> second;
+        if (this.getPathXEnd() == snake.getPathXStart() && this.getPathYEnd() == snake.getPathYStart())
+        {
+            first = this;
+            second = snake;
+        }
+        else if (snake.getPathXEnd() == this.getPathXStart() && snake.getPathYEnd() == this.getPathYStart())
+        {
+            first = snake;
+            second = this;
+        }
+        else
+        {
+            return false;
+        }
 
-            if (this.IsForward)
-            {
-                this.XStart = Math.min(this.XStart, snake.XStart);
-                this.YStart = Math.min(this.YStart, snake.YStart);
-            }
-            else
-            {
-                this.XStart = Math.max(this.XStart, snake.XStart);
-                this.YStart = Math.max(this.YStart, snake.YStart);
-            }
-            return true;
+        // a forward snake has its diagonal after the edit operation while a backward snake has it in front of the
+        // edit operation. Only the leading diagonal of the first and the trailing diagonal of the second snake may
+        // remain
+        int leading = first.IsForward ? 0 : first.DiagonalLength;
+        int trailing = second.IsForward ? second.DiagonalLength : 0;
+        if (first.IsForward && first.DiagonalLength > 0 || !second.IsForward && second.DiagonalLength > 0)
+        {
+            return false;
+        }
+        if (this.IsForward && leading > 0 || !this.IsForward && trailing > 0)
+        {
+            return false;
+        }
+
+        int xStart = first.getPathXStart();
+        int yStart = first.getPathYStart();
+        int xEnd = second.getPathXEnd();
+        int yEnd = second.getPathYEnd();
+
+        this.ADeleted = first.ADeleted + second.ADeleted;
+        this.BInserted = first.BInserted + second.BInserted;
+        this.DiagonalLength = leading + trailing;
+
+        if (this.IsForward)
+        {
+            this.XStart = xStart;
+            this.YStart = yStart;
+        }
+        else
+        {
+            this.XStart = xEnd;
+            this.YStart = yEnd;
         }
-        return false;
+        return true;
+    }
+
+    /**
+     * Returns the x-position of the point this segment starts at when the path is followed from the top left corner of
+     * the edit graph. For backward snakes this is the end point of the segment.
+     *
+     * @return The x-position of the start point along the path
+     */
+    int getPathXStart()
+    {
+        return this.IsForward ? this.XStart : this.getXEnd();
+    }
+
+    /**
+     * Returns the y-position of the point this segment starts at when the path is followed from the top left corner of
+     * the edit graph. For backward snakes this is the end point of the segment.
+     *
+     * @return The y-position of the start point along the path
+     */
+    int getPathYStart()
+    {
+        return this.IsForward ? this.YStart : this.getYEnd();
+    }
+
+    /**
+     * Returns the x-position of the point this segment ends at when the path is followed from the top left corner of
+     * the edit graph. For backward snakes this is the start point of the segment.
+     *
+     * @return The x-position of the end point along the path
+     */
+    int getPathXEnd()
+    {
+        return this.IsForward ? this.getXEnd() : this.XStart;
+    }
+
+    /**
+     * Returns the y-position of the point this segment ends at when the path is followed from the top left corner of
+     * the edit graph. For backward snakes this is the start point of the segment.
+     *
+     * @return The y-position of the end point along the path
+     */
+    int getPathYEnd()
+    {
+        return this.IsForward ? this.getYEnd() : this.YStart;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects runs of deletions, insertions and equal elements along a path through the edit graph and combines them to
+ * forward snakes, where each snake consists of its deletions and insertions followed by its diagonal.
+ *
+ * @param <T>
+ *         The type of the elements the snakes are built for
+ *
+ * @author Roman Vottner
+ */
+class SnakeBuilder<T>
+{
+    /** The snakes built so far **/
+    private final List<Snake<T>> snakes = new ArrayList<>();
+    /** The x-position the pending snake starts at **/
+    private int x;
+    /** The y-position the pending snake starts at **/
+    private int y;
+    /** The number of deleted elements of the pending snake **/
+    private int deleted = 0;
+    /** The number of inserted elements of the pending snake **/
+    private int inserted = 0;
+    /** The number of equal elements of the pending snake **/
+    private int diagonal = 0;
+
+    /**
+     * Creates a new builder for a path starting at the top left corner of the edit graph.
+     */
+    SnakeBuilder()
+    {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a new builder for a path starting at the given point.
+     *
+     * @param x
+     *         The x-position the path starts at
+     * @param y
+     *         The y-position the path starts at
+     */
+    SnakeBuilder(int x, int y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Adds a run of deleted elements of the first object.
+     *
+     * @param count
+     *         The number of deleted elements
+     */
+    void delete(int count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+        if (this.diagonal > 0)
+        {
+            this.flush();
+        }
+        this.deleted += count;
+    }
+
+    /**
+     * Adds a run of inserted elements of the second object.
+     *
+     * @param count
+     *         The number of inserted elements
+     */
+    void insert(int count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+        if (this.diagonal > 0)
+        {
+            this.flush();
+        }
+        this.inserted += count;
+    }
+
+    /**
+     * Adds a run of elements which are equal in both objects.
+     *
+     * @param count
+     *         The number of equal elements
+     */
+    void keep(int count)
+    {
+        this.diagonal += Math.max(count, 0);
+    }
+
+    /**
+     * Adds all snakes of a path through a sub-rectangle of the edit graph which starts at the current end point of
+     * this builder.
+     *
+     * @param path
+     *         The snakes to add
+     */
+    void add(List<Snake<T>> path)
+    {
+        for (Snake<T> snake : path)
+        {
+            if (!snake.IsForward)
+            {
+                this.keep(snake.DiagonalLength);
+            }
+            this.delete(snake.ADeleted);
+            this.insert(snake.BInserted);
+            if (snake.IsForward)
+            {
+                this.keep(snake.DiagonalLength);
+            }
+        }
+    }
+
+    /**
+     * Returns the x-position the path currently ends at.
+     *
+     * @return The current x-position
+     */
+    int getX()
+    {
+        return this.x + this.deleted + this.diagonal;
+    }
+
+    /**
+     * Returns the y-position the path currently ends at.
+     *
+     * @return The current y-position
+     */
+    int getY()
+    {
+        return this.y + this.inserted + this.diagonal;
+    }
+
+    /**
+     * Completes the pending snake and returns all snakes built.
+     *
+     * @return The snakes along the path
+     */
+    List<Snake<T>> build()
+    {
+        this.flush();
+        return this.snakes;
+    }
+
+    /**
+     * Adds the pending snake to the built snakes and starts a new one at its end point.
+     */
+    private void flush()
+    {
+        if (this.deleted == 0 && this.inserted == 0 && this.diagonal == 0)
+        {
+            return;
+        }
+        Snake<T> snake = new Snake<>(true, 0);
+        snake.XStart = this.x;
+        snake.YStart = this.y;
+        snake.ADeleted = this.deleted;
+        snake.BInserted = this.inserted;
+        snake.DiagonalLength = this.diagonal;
+        this.snakes.add(snake);
+
+        this.x += this.deleted + this.diagonal;
+        this.y += this.inserted + this.diagonal;
+        this.deleted = 0;
+        this.inserted = 0;
+        this.diagonal = 0;
+    }
+}
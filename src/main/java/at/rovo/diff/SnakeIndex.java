@@ -0,0 +1,240 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+
+/**
+ * Answers the length of the longest common prefix of any suffix of the first and any suffix of the second object in
+ * constant time, i.e. the length of the diagonal starting at any point of the edit graph.
+ * <p>
+ * The interned ids of both objects are concatenated, each followed by a unique separator, and the suffix array of the
+ * concatenation is built by prefix doubling with radix sorts in <em>O(n log n)</em> time. The longest common prefixes
+ * of neighbouring suffixes are then calculated by the algorithm of Kasai et al. in linear time. The longest common
+ * prefix of two arbitrary suffixes is the minimum of the longest common prefixes between their ranks, which is found by
+ * a range minimum query: a sparse table over the minima of blocks of {@link #BLOCK_SIZE} values covers all full blocks
+ * of the range, while the partial blocks at its ends are scanned.
+ *
+ * @author Roman Vottner
+ */
+class SnakeIndex
+{
+    /** The number of longest common prefixes summarized by a single value of the sparse table **/
+    static final int BLOCK_SIZE = 16;
+
+    /** The number of ids of the first object **/
+    private final int N;
+    /** The number of ids of the second object **/
+    private final int M;
+    /** The rank of each suffix of the concatenation in the suffix array **/
+    private final int[] rank;
+    /** The length of the longest common prefix of each suffix of the suffix array and its predecessor **/
+    private final int[] lcp;
+    /** The minimum of 2^level consecutive blocks of longest common prefixes starting at each block per level **/
+    private final int[][] table;
+
+    /**
+     * Builds the index over the given ids.
+     *
+     * @param ia
+     *         The interned ids of the first object
+     * @param ib
+     *         The interned ids of the second object
+     * @param ids
+     *         The number of distinct ids
+     */
+    SnakeIndex(int[] ia, int[] ib, int ids)
+    {
+        this.N = ia.length;
+        this.M = ib.length;
+        int n = this.N + this.M + 2;
+        int[] text = new int[n];
+        System.arraycopy(ia, 0, text, 0, this.N);
+        text[this.N] = ids;
+        System.arraycopy(ib, 0, text, this.N + 1, this.M);
+        text[n - 1] = ids + 1;
+
+        int[] sa = SuffixArray(text, ids + 2);
+        this.rank = new int[n];
+        for (int r = 0; r < n; r++)
+        {
+            this.rank[sa[r]] = r;
+        }
+
+        // Kasai et al.: the common prefix with the predecessor shrinks by at
+        // most one from one suffix to the next suffix of the text
+        this.lcp = new int[n];
+        for (int i = 0, h = 0; i < n; i++)
+        {
+            if (this.rank[i] == 0)
+            {
+                h = 0;
+                continue;
+            }
+            int j = sa[this.rank[i] - 1];
+            while (i + h < n && j + h < n && text[i + h] == text[j + h])
+            {
+                h++;
+            }
+            this.lcp[this.rank[i]] = h;
+            if (h > 0)
+            {
+                h--;
+            }
+        }
+
+        int blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        this.table = new int[levels][];
+        this.table[0] = new int[blocks];
+        Arrays.fill(this.table[0], Integer.MAX_VALUE);
+        for (int r = 0; r < n; r++)
+        {
+            this.table[0][r / BLOCK_SIZE] = Math.min(this.table[0][r / BLOCK_SIZE], this.lcp[r]);
+        }
+        for (int level = 1; level < levels; level++)
+        {
+            int[] previous = this.table[level - 1];
+            int[] current = new int[blocks - (1 << level) + 1];
+            for (int b = 0; b < current.length; b++)
+            {
+                current[b] = Math.min(previous[b], previous[b + (1 << (level - 1))]);
+            }
+            this.table[level] = current;
+        }
+    }
+
+    /**
+     * Returns the number of equal ids starting at position <em>x</em> of the first and position <em>y</em> of the
+     * second object.
+     *
+     * @param x
+     *         The position in the first object
+     * @param y
+     *         The position in the second object
+     *
+     * @return The length of the diagonal starting at the given point of the edit graph
+     */
+    int extend(int x, int y)
+    {
+        if (x >= this.N || y >= this.M)
+        {
+            return 0;
+        }
+        int ri = this.rank[x];
+        int rj = this.rank[this.N + 1 + y];
+        return this.minimum(Math.min(ri, rj) + 1, Math.max(ri, rj));
+    }
+
+    /**
+     * Returns the minimum of the longest common prefixes of the ranks <em>[from, to]</em>.
+     */
+    private int minimum(int from, int to)
+    {
+        int min = Integer.MAX_VALUE;
+        int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int lastBlock = (to + 1) / BLOCK_SIZE;
+        if (firstBlock >= lastBlock)
+        {
+            for (int r = from; r <= to; r++)
+            {
+                min = Math.min(min, this.lcp[r]);
+            }
+            return min;
+        }
+        for (int r = from; r < firstBlock * BLOCK_SIZE; r++)
+        {
+            min = Math.min(min, this.lcp[r]);
+        }
+        for (int r = lastBlock * BLOCK_SIZE; r <= to; r++)
+        {
+            min = Math.min(min, this.lcp[r]);
+        }
+        // two overlapping runs of blocks cover all full blocks
+        int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock);
+        min = Math.min(min, this.table[level][firstBlock]);
+        return Math.min(min, this.table[level][lastBlock - (1 << level)]);
+    }
+
+    /**
+     * Builds the suffix array of the given text by prefix doubling, sorting the suffixes by the ranks of their first
+     * <em>2k</em> values via two stable counting sorts on the ranks of the second and the first <em>k</em> values.
+     */
+    private static int[] SuffixArray(int[] text, int alphabet)
+    {
+        int n = text.length;
+        int[] sa = new int[n];
+        int[] rank = Arrays.copyOf(text, n);
+        int[] tmp = new int[n];
+        int[] counts = new int[Math.max(alphabet, n) + 1];
+
+        // initial order by the first value
+        for (int i = 0; i < n; i++)
+        {
+            counts[rank[i] + 1]++;
+        }
+        for (int c = 1; c < counts.length; c++)
+        {
+            counts[c] += counts[c - 1];
+        }
+        for (int i = 0; i < n; i++)
+        {
+            sa[counts[rank[i]]++] = i;
+        }
+        int classes = alphabet;
+
+        for (int k = 1; k < n; k <<= 1)
+        {
+            // by the second key: suffixes without a second half first
+            int p = 0;
+            for (int i = n - k; i < n; i++)
+            {
+                tmp[p++] = i;
+            }
+            for (int r = 0; r < n; r++)
+            {
+                if (sa[r] >= k)
+                {
+                    tmp[p++] = sa[r] - k;
+                }
+            }
+
+            // stable by the first key
+            Arrays.fill(counts, 0, classes + 1, 0);
+            for (int i = 0; i < n; i++)
+            {
+                counts[rank[i] + 1]++;
+            }
+            for (int c = 1; c <= classes; c++)
+            {
+                counts[c] += counts[c - 1];
+            }
+            for (int r = 0; r < n; r++)
+            {
+                sa[counts[rank[tmp[r]]]++] = tmp[r];
+            }
+
+            // the new ranks of the first 2k values
+            tmp[sa[0]] = 0;
+            classes = 1;
+            for (int r = 1; r < n; r++)
+            {
+                int current = sa[r];
+                int previous = sa[r - 1];
+                int secondCurrent = current + k < n ? rank[current + k] : -1;
+                int secondPrevious = previous + k < n ? rank[previous + k] : -1;
+                if (rank[current] != rank[previous] || secondCurrent != secondPrevious)
+                {
+                    classes++;
+                }
+                tmp[current] = classes - 1;
+            }
+            int[] swap = rank;
+            rank = tmp;
+            tmp = swap;
+            if (classes == n)
+            {
+                break;
+            }
+        }
+        return sa;
+    }
+}
@@ -0,0 +1,189 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+
+/**
+ * Compares two long objects with Myers' greedy algorithm, where the diagonal following each step of a path is not
+ * walked element by element but looked up in constant time in a {@link SnakeIndex}, in the style of Landau and Vishkin.
+ * <p>
+ * Building the index takes <em>O((N + M) log(N + M))</em> time, after which the contours only require
+ * <em>O(D<sup>2</sup>)</em> time, independent of the length of the diagonals. The end points of every contour are kept
+ * in a trace of <em>O(D<sup>2</sup>)</em> values, which is followed back from the end point of the edit graph to
+ * recover the path. If the trace exceeds {@link #MAX_TRACE} end points, the objects are compared by {@link LinearDiff}
+ * instead.
+ * <p>
+ * The index only pays off if the element-wise extension of the diagonals dominates the comparison, which the number of
+ * distinct elements does not tell apart. {@link #Compare(Object[], Object[])} therefore walks the diagonals of the
+ * interned ids element by element and only builds the index once {@link #WALK_BUDGET} elements per element of both
+ * objects got walked, after which the contours continue on the index. As the budget is about as much as building the
+ * index costs per element, the walk never costs much more than the index would have. Objects shorter than
+ * {@link #MIN_LENGTH} elements combined are compared by {@link LinearDiff} right away.
+ *
+ * @author Roman Vottner
+ */
+public class SuffixIndexDiff
+{
+    /** The combined length of both objects from which on the index may be built **/
+    public static final int MIN_LENGTH = 1 << 18;
+    /**
+     * The number of elements per element of both objects which are walked along the diagonals before the index is
+     * built
+     **/
+    public static final int WALK_BUDGET = 512;
+    /** The maximum number of end points kept in the trace before the comparison falls back to {@link LinearDiff} **/
+    static final int MAX_TRACE = 1 << 24;
+
+    /** prevent initializations of the util class **/
+    private SuffixIndexDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects by walking their diagonals, which switches to a suffix index once more than {@link
+     * #WALK_BUDGET} elements per element got walked, if they are at least {@link #MIN_LENGTH} elements long combined
+     * and via {@link LinearDiff} otherwise.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b) throws Exception
+    {
+        if ((long) a.length + b.length < MIN_LENGTH)
+        {
+            return LinearDiff.Compare(a, b, null, LinearDiff.DEFAULT_CUTOFF);
+        }
+        TokenInterner<T> interner = new TokenInterner<>();
+        return Compare(a, b, interner.internAll(a), interner.internAll(b), interner.size(),
+                       (long) WALK_BUDGET * (a.length + b.length));
+    }
+
+    /**
+     * Compares two objects.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param index
+     *         True to extend the diagonals via a suffix index built up front regardless of the length of both objects;
+     *         false to compare them by {@link LinearDiff}
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     *
+     * @throws Exception
+     *         If the comparison fails
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, boolean index) throws Exception
+    {
+        if (!index)
+        {
+            return LinearDiff.Compare(a, b, null, LinearDiff.DEFAULT_CUTOFF);
+        }
+        TokenInterner<T> interner = new TokenInterner<>();
+        return Compare(a, b, interner.internAll(a), interner.internAll(b), interner.size(), 0);
+    }
+
+    /**
+     * Compares two objects over their interned ids. The diagonals are walked element by element until more than the
+     * given budget of elements got walked, from which on they are looked up in a suffix index.
+     */
+    private static <T> Results<T> Compare(T[] a, T[] b, int[] ia, int[] ib, int ids, long budget) throws Exception
+    {
+        SnakeIndex snakes = budget > 0 ? null : new SnakeIndex(ia, ib, ids);
+        long walked = 0;
+
+        int N = a.length;
+        int M = b.length;
+        int max = N + M;
+        int offset = max + 1;
+        // the x-position of the farthest reaching path on each k-line k = x - y
+        int[] V = new int[2 * max + 3];
+        // the end points of contour d on the k-lines -d, -d + 2, ..., d start at (d * (d + 1)) / 2
+        int[] trace = new int[64];
+        int D = -1;
+
+        for (int d = 0; d <= max && D < 0; d++)
+        {
+            if ((long) (d + 1) * (d + 2) / 2 > MAX_TRACE)
+            {
+                return LinearDiff.Compare(a, b, null, LinearDiff.DEFAULT_CUTOFF);
+            }
+            int start = d * (d + 1) / 2;
+            if (start + d + 1 > trace.length)
+            {
+                trace = Arrays.copyOf(trace, Math.max(trace.length * 2, start + d + 1));
+            }
+            for (int k = -d; k <= d; k += 2)
+            {
+                int x = k == -d || k != d && V[offset + k - 1] < V[offset + k + 1]
+                        ? V[offset + k + 1] : V[offset + k - 1] + 1;
+                if (snakes != null)
+                {
+                    x += snakes.extend(x, x - k);
+                }
+                else
+                {
+                    int xStart = x;
+                    while (x < N && x - k < M && ia[x] == ib[x - k])
+                    {
+                        x++;
+                    }
+                    walked += x - xStart + 1;
+                    if (walked > budget)
+                    {
+                        snakes = new SnakeIndex(ia, ib, ids);
+                    }
+                }
+                V[offset + k] = x;
+                trace[start + (k + d) / 2] = x;
+                if (x == N && x - k == M)
+                {
+                    D = d;
+                }
+            }
+        }
+
+        // follow the trace back from the end point, recording the step and
+        // the length of the diagonal of each contour
+        boolean[] insertion = new boolean[D + 1];
+        int[] diagonal = new int[D + 1];
+        int k = N - M;
+        int x = N;
+        for (int d = D; d > 0; d--)
+        {
+            int previous = (d - 1) * d / 2;
+            boolean down = k == -d || k != d &&
+                           trace[previous + (k - 1 + d - 1) / 2] < trace[previous + (k + 1 + d - 1) / 2];
+            int xStart = down ? trace[previous + (k + 1 + d - 1) / 2] : trace[previous + (k - 1 + d - 1) / 2] + 1;
+            insertion[d] = down;
+            diagonal[d] = x - xStart;
+            k = down ? k + 1 : k - 1;
+            x = xStart - (down ? 0 : 1);
+        }
+        diagonal[0] = x;
+
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        builder.keep(diagonal[0]);
+        for (int d = 1; d <= D; d++)
+        {
+            if (insertion[d])
+            {
+                builder.insert(1);
+            }
+            else
+            {
+                builder.delete(1);
+            }
+            builder.keep(diagonal[d]);
+        }
+        return new Results<>(builder.build(), null, null);
+    }
+}
@@ -0,0 +1,221 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Merges two versions, <em>ours</em> and <em>theirs</em>, which were both derived from a common base.
+ * <p>
+ * The base is compared with both versions using {@link LinearDiff}. All three objects are interned by the same {@link
+ * TokenInterner} beforehand, so the base is hashed only once and both comparisons only have to compare integer ids.
+ * The comparison of the base with our version is executed concurrently with the comparison of the base with their
+ * version.
+ * <p>
+ * The changes of both comparisons are then aligned in a single sweep over the base. Changes which overlap or touch each
+ * other are combined to one chunk. Chunks changed by one version only are taken from that version, while chunks
+ * changed by both versions are taken over if both versions contain the same elements and reported as conflict
+ * otherwise.
+ *
+ * @author Roman Vottner
+ */
+public class ThreeWayMerge
+{
+    /** prevent initializations of the util class **/
+    private ThreeWayMerge()
+    {
+
+    }
+
+    /**
+     * Merges our and their version of a common base. The comparisons are executed on the common {@link ForkJoinPool}.
+     *
+     * @param base
+     *         The common ancestor of both versions
+     * @param ours
+     *         Our modified version of the base
+     * @param theirs
+     *         Their modified version of the base
+     *
+     * @return The chunks of the merge
+     *
+     * @throws Exception
+     *         Thrown if the comparison of the base with either version fails
+     */
+    public static <T> MergeResult<T> merge(T[] base, T[] ours, T[] theirs) throws Exception
+    {
+        return merge(base, ours, theirs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Merges our and their version of a common base.
+     *
+     * @param base
+     *         The common ancestor of both versions
+     * @param ours
+     *         Our modified version of the base
+     * @param theirs
+     *         Their modified version of the base
+     * @param executor
+     *         The executor to compare the base with our version on while the calling thread compares the base with
+     *         their version
+     *
+     * @return The chunks of the merge
+     *
+     * @throws Exception
+     *         Thrown if the comparison of the base with either version fails
+     */
+    public static <T> MergeResult<T> merge(T[] base, T[] ours, T[] theirs, ExecutorService executor) throws Exception
+    {
+        TokenInterner<T> interner = new TokenInterner<>();
+        Integer[] baseIds = interner.intern(base);
+        Integer[] oursIds = interner.intern(ours);
+        Integer[] theirsIds = interner.intern(theirs);
+
+        Future<Results<Integer>> oursDiff = executor.submit(() -> LinearDiff.Compare(baseIds, oursIds));
+        EditChanges theirsChanges = new EditChanges(LinearDiff.Compare(baseIds, theirsIds).getSnakes());
+        EditChanges oursChanges;
+        try
+        {
+            oursChanges = new EditChanges(oursDiff.get().getSnakes());
+        }
+        catch (ExecutionException eEx)
+        {
+            if (eEx.getCause() instanceof Exception)
+            {
+                throw (Exception) eEx.getCause();
+            }
+            throw eEx;
+        }
+
+        return new MergeResult<>(sweep(base, ours, oursIds, oursChanges, theirs, theirsIds, theirsChanges));
+    }
+
+    /**
+     * Aligns the changes of both versions along the base and classifies the resulting chunks.
+     *
+     * @param base
+     *         The common ancestor of both versions
+     * @param ours
+     *         Our modified version of the base
+     * @param oursIds
+     *         The interned ids of our version
+     * @param oursChanges
+     *         The changes from the base to our version
+     * @param theirs
+     *         Their modified version of the base
+     * @param theirsIds
+     *         The interned ids of their version
+     * @param theirsChanges
+     *         The changes from the base to their version
+     *
+     * @return The chunks of the merge in order
+     */
+    private static <T> List<MergeChunk<T>> sweep(T[] base, T[] ours, Integer[] oursIds, EditChanges oursChanges,
+                                                 T[] theirs, Integer[] theirsIds, EditChanges theirsChanges)
+    {
+        List<MergeChunk<T>> chunks = new ArrayList<>();
+        int o = 0;
+        int t = 0;
+        int basePos = 0;
+        int oursPos = 0;
+        int theirsPos = 0;
+
+        while (o < oursChanges.size() || t < theirsChanges.size())
+        {
+            int start = Math.min(o < oursChanges.size() ? oursChanges.getXStart(o) : Integer.MAX_VALUE,
+                                 t < theirsChanges.size() ? theirsChanges.getXStart(t) : Integer.MAX_VALUE);
+            if (start > basePos)
+            {
+                int length = start - basePos;
+                chunks.add(new MergeChunk<>(MergeChunk.Kind.UNCHANGED, base, basePos, start, ours, oursPos,
+                                            oursPos + length, theirs, theirsPos, theirsPos + length));
+                basePos = start;
+                oursPos += length;
+                theirsPos += length;
+            }
+
+            // collect all changes of both versions which overlap or touch the current chunk
+            int end = start;
+            int oursDelta = 0;
+            int theirsDelta = 0;
+            boolean changedByOurs = false;
+            boolean changedByTheirs = false;
+            boolean extended = true;
+            while (extended)
+            {
+                extended = false;
+                while (o < oursChanges.size() && oursChanges.getXStart(o) <= end)
+                {
+                    end = Math.max(end, oursChanges.getXEnd(o));
+                    oursDelta += oursChanges.getInserted(o) - oursChanges.getDeleted(o);
+                    changedByOurs = true;
+                    extended = true;
+                    o++;
+                }
+                while (t < theirsChanges.size() && theirsChanges.getXStart(t) <= end)
+                {
+                    end = Math.max(end, theirsChanges.getXEnd(t));
+                    theirsDelta += theirsChanges.getInserted(t) - theirsChanges.getDeleted(t);
+                    changedByTheirs = true;
+                    extended = true;
+                    t++;
+                }
+            }
+
+            int oursEnd = oursPos + end - start + oursDelta;
+            int theirsEnd = theirsPos + end - start + theirsDelta;
+            MergeChunk.Kind kind;
+            if (!changedByTheirs)
+            {
+                kind = MergeChunk.Kind.OURS;
+            }
+            else if (!changedByOurs)
+            {
+                kind = MergeChunk.Kind.THEIRS;
+            }
+            else if (equal(oursIds, oursPos, oursEnd, theirsIds, theirsPos, theirsEnd))
+            {
+                kind = MergeChunk.Kind.BOTH;
+            }
+            else
+            {
+                kind = MergeChunk.Kind.CONFLICT;
+            }
+            chunks.add(new MergeChunk<>(kind, base, start, end, ours, oursPos, oursEnd, theirs, theirsPos,
+                                        theirsEnd));
+            basePos = end;
+            oursPos = oursEnd;
+            theirsPos = theirsEnd;
+        }
+
+        if (basePos < base.length)
+        {
+            chunks.add(new MergeChunk<>(MergeChunk.Kind.UNCHANGED, base, basePos, base.length, ours, oursPos,
+                                        ours.length, theirs, theirsPos, theirs.length));
+        }
+        return chunks;
+    }
+
+    /**
+     * Compares two ranges of interned ids. Ids are compared by their value, as only small ids are cached instances.
+     */
+    private static boolean equal(Integer[] a, int aStart, int aEnd, Integer[] b, int bStart, int bEnd)
+    {
+        if (aEnd - aStart != bEnd - bStart)
+        {
+            return false;
+        }
+        for (int i = aStart, j = bStart; i < aEnd; i++, j++)
+        {
+            if (a[i].intValue() != b[j].intValue())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
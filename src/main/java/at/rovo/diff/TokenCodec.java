@@ -0,0 +1,51 @@
+package at.rovo.diff;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts elements of a compared object to bytes and back so that they can be stored inline within a serialized edit
+ * script.
+ *
+ * @param <T>
+ *         The type of the elements to convert
+ *
+ * @author Roman Vottner
+ */
+public interface TokenCodec<T>
+{
+    /** Stores strings as UTF-8 encoded bytes **/
+    TokenCodec<String> UTF8 = new TokenCodec<String>()
+    {
+        @Override
+        public byte[] encode(String token)
+        {
+            return token.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] data)
+        {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Converts the provided element to bytes.
+     *
+     * @param token
+     *         The element to convert
+     *
+     * @return The bytes representing the element
+     */
+    byte[] encode(T token);
+
+    /**
+     * Restores an element from its byte representation.
+     *
+     * @param data
+     *         The bytes previously returned by {@link #encode(Object)}
+     *
+     * @return The restored element
+     */
+    T decode(byte[] data);
+}
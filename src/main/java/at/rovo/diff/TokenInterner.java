@@ -0,0 +1,107 @@
+package at.rovo.diff;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps equal elements of one or more objects to the same integer id. Comparing ids is considerably cheaper than calling
+ * {@link Object#equals(Object)} on the elements themselves, and an object interned once can be compared against
+ * several other objects interned by the same instance.
+ * <p>
+ * Ids are assigned in the order elements are encountered, starting at 0.
+ *
+ * @param <T>
+ *         The type of the elements to intern
+ *
+ * @author Roman Vottner
+ */
+public class TokenInterner<T>
+{
+    /** The ids assigned to the elements seen so far **/
+    private final Map<T, Integer> ids = new HashMap<>();
+    /** The elements indexed by their id **/
+    private final List<T> tokens = new ArrayList<>();
+
+    /**
+     * Returns the id of the provided element and assigns a new id if the element was not seen before.
+     *
+     * @param token
+     *         The element to intern
+     *
+     * @return The id of the element
+     */
+    public Integer intern(T token)
+    {
+        Integer id = this.ids.get(token);
+        if (id == null)
+        {
+            id = this.tokens.size();
+            this.ids.put(token, id);
+            this.tokens.add(token);
+        }
+        return id;
+    }
+
+    /**
+     * Interns all elements of the provided array. The returned ids can be passed directly to the comparison algorithms,
+     * which compare them via {@link Integer#equals(Object)}. Ids larger than 127 are not guaranteed to share their
+     * {@link Integer} instance, so they have to be compared by value and never by reference.
+     *
+     * @param tokens
+     *         The elements to intern
+     *
+     * @return The ids of the elements
+     */
+    public Integer[] intern(T[] tokens)
+    {
+        Integer[] ids = new Integer[tokens.length];
+        for (int i = 0; i < tokens.length; i++)
+        {
+            ids[i] = this.intern(tokens[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Interns all elements of the provided array and returns their ids as primitive values.
+     *
+     * @param tokens
+     *         The elements to intern
+     *
+     * @return The ids of the elements
+     */
+    public int[] internAll(T[] tokens)
+    {
+        int[] ids = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++)
+        {
+            ids[i] = this.intern(tokens[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the element for the provided id.
+     *
+     * @param id
+     *         The id of the element
+     *
+     * @return The first element interned with this id
+     */
+    public T getToken(int id)
+    {
+        return this.tokens.get(id);
+    }
+
+    /**
+     * Returns the number of distinct elements interned so far.
+     *
+     * @return The number of assigned ids
+     */
+    public int size()
+    {
+        return this.tokens.size();
+    }
+}
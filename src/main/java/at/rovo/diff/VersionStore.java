@@ -0,0 +1,441 @@
+package at.rovo.diff;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Stores consecutive versions of an object, like the snapshots of a crawled page, in a compact form.
+ * <p>
+ * Every <em>n</em>-th version is stored in full as keyframe while all other versions are stored as forward delta, that
+ * is the edit script transforming the previous version into this version calculated by {@link LinearDiff}. Keyframes
+ * and deltas are both stored as serialized edit scripts including the inserted elements, where a keyframe is simply the
+ * edit script inserting all elements into an empty object. Reconstructing a version therefore requires to apply at most
+ * <em>n - 1</em> deltas to the preceding keyframe, where <em>n</em> is the configurable keyframe interval.
+ * <p>
+ * A store consists of two files within its directory: the data file containing the serialized edit scripts one after
+ * another and the index file containing a fixed-size entry per version with the timestamp of the version as well as the
+ * position and length of its edit script. Both files are only appended to and are read via memory-mapped buffers.
+ * Versions can be looked up by their number in constant time or by their timestamp via a binary search over the index
+ * in <em>O(log n)</em> time. As a single memory-mapped buffer is limited to 2 GB, the data file of a store should not
+ * exceed this size.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T>
+ *         The type of the elements of the stored versions
+ *
+ * @author Roman Vottner
+ */
+public class VersionStore<T> implements Closeable
+{
+    /** The default number of versions from one keyframe to the next **/
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 16;
+    /** The name of the file containing the serialized edit scripts **/
+    static final String DATA_FILE = "versions.dat";
+    /** The name of the file containing the index entries **/
+    static final String INDEX_FILE = "versions.idx";
+    /** The number of bytes of an index entry: timestamp, position, length and flags **/
+    static final int ENTRY_SIZE = 24;
+    /** Marks an index entry of a keyframe **/
+    static final int FLAG_KEYFRAME = 0x01;
+
+    /** The channel to the data file **/
+    private final FileChannel data;
+    /** The channel to the index file **/
+    private final FileChannel index;
+    /** Converts the elements of a version to bytes and back **/
+    private final TokenCodec<T> codec;
+    /** Creates arrays of the element type **/
+    private final IntFunction<T[]> arrayFactory;
+    /** The number of versions from one keyframe to the next **/
+    private final int keyframeInterval;
+
+    /** The number of stored versions **/
+    private int size;
+    /** The number of bytes written to the data file **/
+    private long dataSize;
+    /** The timestamp of the latest version **/
+    private long lastTimestamp = Long.MIN_VALUE;
+    /** The number of deltas stored since the latest keyframe **/
+    private int sinceKeyframe;
+    /** The elements of the latest version or null if they were not reconstructed yet **/
+    private T[] latest = null;
+    /** The memory-mapped data file; remapped once data beyond its end is requested **/
+    private MappedByteBuffer dataMap = null;
+    /** The memory-mapped index file; remapped once entries beyond its end are requested **/
+    private MappedByteBuffer indexMap = null;
+
+    /**
+     * Opens or creates a store within the provided directory using the default keyframe interval.
+     *
+     * @param directory
+     *         The directory containing the files of the store
+     * @param codec
+     *         The codec converting the elements of a version to bytes and back
+     * @param arrayFactory
+     *         Creates an array of the element type with the given length, i.e. <code>String[]::new</code>
+     *
+     * @throws IOException
+     *         If the files of the store could not be opened
+     */
+    public VersionStore(Path directory, TokenCodec<T> codec, IntFunction<T[]> arrayFactory) throws IOException
+    {
+        this(directory, codec, arrayFactory, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Opens or creates a store within the provided directory.
+     *
+     * @param directory
+     *         The directory containing the files of the store
+     * @param codec
+     *         The codec converting the elements of a version to bytes and back
+     * @param arrayFactory
+     *         Creates an array of the element type with the given length, i.e. <code>String[]::new</code>
+     * @param keyframeInterval
+     *         The number of versions from one keyframe to the next. A value of 1 stores every version in full, larger
+     *         values save space but increase the number of deltas to apply when a version is read
+     *
+     * @throws IOException
+     *         If the files of the store could not be opened
+     * @throws IllegalArgumentException
+     *         If the keyframe interval is not positive
+     */
+    public VersionStore(Path directory, TokenCodec<T> codec, IntFunction<T[]> arrayFactory, int keyframeInterval)
+            throws IOException
+    {
+        if (keyframeInterval < 1)
+        {
+            throw new IllegalArgumentException("Keyframe interval must be positive but was " + keyframeInterval);
+        }
+        this.codec = codec;
+        this.arrayFactory = arrayFactory;
+        this.keyframeInterval = keyframeInterval;
+
+        Files.createDirectories(directory);
+        this.data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                     StandardOpenOption.WRITE);
+        this.index = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                                      StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // entries of an interrupted write are discarded
+        this.size = (int) (this.index.size() / ENTRY_SIZE);
+        this.dataSize = 0;
+        if (this.size > 0)
+        {
+            int last = this.size - 1;
+            this.dataSize = this.getPosition(last) + this.getLength(last);
+            this.lastTimestamp = this.getTimestamp(last);
+            this.sinceKeyframe = last - this.findKeyframe(last);
+        }
+    }
+
+    /**
+     * Appends a new version to the store.
+     *
+     * @param timestamp
+     *         The timestamp of the version, which must not be smaller than the timestamp of the latest version
+     * @param version
+     *         The elements of the version
+     *
+     * @return The number of the stored version
+     *
+     * @throws Exception
+     *         If the version could not be compared with its predecessor or could not be written
+     * @throws IllegalArgumentException
+     *         If the timestamp is smaller than the timestamp of the latest version
+     */
+    public int add(long timestamp, T[] version) throws Exception
+    {
+        if (timestamp < this.lastTimestamp)
+        {
+            throw new IllegalArgumentException(
+                    "Timestamp " + timestamp + " precedes timestamp " + this.lastTimestamp + " of the latest version");
+        }
+
+        boolean keyframe = this.size == 0 || this.sinceKeyframe + 1 >= this.keyframeInterval;
+        List<Snake<T>> snakes;
+        if (keyframe)
+        {
+            SnakeBuilder<T> builder = new SnakeBuilder<>();
+            builder.insert(version.length);
+            snakes = builder.build();
+        }
+        else
+        {
+            snakes = LinearDiff.Compare(this.getLatest(), version).getSnakes();
+        }
+        ByteBuffer script = EditScriptEncoder.encode(snakes, version, this.codec);
+        int length = script.remaining();
+        while (script.hasRemaining())
+        {
+            this.data.write(script, this.dataSize + length - script.remaining());
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putLong(timestamp).putLong(this.dataSize).putInt(length).putInt(keyframe ? FLAG_KEYFRAME : 0);
+        entry.flip();
+        while (entry.hasRemaining())
+        {
+            this.index.write(entry, (long) this.size * ENTRY_SIZE + entry.position());
+        }
+
+        this.dataSize += length;
+        this.lastTimestamp = timestamp;
+        this.sinceKeyframe = keyframe ? 0 : this.sinceKeyframe + 1;
+        this.latest = Arrays.copyOf(version, version.length);
+        return this.size++;
+    }
+
+    /**
+     * Reconstructs the version with the provided number.
+     *
+     * @param version
+     *         The number of the version, starting at 0
+     *
+     * @return The elements of the version
+     *
+     * @throws IOException
+     *         If the stored edit scripts could not be read
+     * @throws IndexOutOfBoundsException
+     *         If no version with the provided number exists
+     */
+    public T[] get(int version) throws IOException
+    {
+        if (version < 0 || version >= this.size)
+        {
+            throw new IndexOutOfBoundsException("Version: " + version + ", Size: " + this.size);
+        }
+        if (version == this.size - 1 && this.latest != null)
+        {
+            return Arrays.copyOf(this.latest, this.latest.length);
+        }
+
+        T[] tokens = this.arrayFactory.apply(0);
+        for (int i = this.findKeyframe(version); i <= version; i++)
+        {
+            tokens = this.apply(tokens, i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Reconstructs the latest version stored at or before the provided timestamp.
+     *
+     * @param timestamp
+     *         The timestamp to look up
+     *
+     * @return The elements of the version or null if no version is older than the timestamp
+     *
+     * @throws IOException
+     *         If the stored edit scripts could not be read
+     */
+    public T[] getAt(long timestamp) throws IOException
+    {
+        int version = this.indexOf(timestamp);
+        return version < 0 ? null : this.get(version);
+    }
+
+    /**
+     * Returns the number of the latest version stored at or before the provided timestamp.
+     *
+     * @param timestamp
+     *         The timestamp to look up
+     *
+     * @return The number of the version or -1 if no version is older than the timestamp
+     *
+     * @throws IOException
+     *         If the index could not be read
+     */
+    public int indexOf(long timestamp) throws IOException
+    {
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            if (this.getTimestamp(mid) <= timestamp)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Returns the timestamp of the version with the provided number.
+     *
+     * @param version
+     *         The number of the version
+     *
+     * @return The timestamp the version was stored with
+     *
+     * @throws IOException
+     *         If the index could not be read
+     */
+    public long getTimestamp(int version) throws IOException
+    {
+        return this.entries(version).getLong(version * ENTRY_SIZE);
+    }
+
+    /**
+     * Indicates if the version with the provided number is stored in full.
+     *
+     * @param version
+     *         The number of the version
+     *
+     * @return true if the version is a keyframe
+     *
+     * @throws IOException
+     *         If the index could not be read
+     */
+    public boolean isKeyframe(int version) throws IOException
+    {
+        return (this.entries(version).getInt(version * ENTRY_SIZE + 20) & FLAG_KEYFRAME) != 0;
+    }
+
+    /**
+     * Returns the number of stored versions.
+     *
+     * @return The number of versions
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of bytes occupied by the data and index file of this store.
+     *
+     * @return The size of the store in bytes
+     */
+    public long getStorageSize()
+    {
+        return this.dataSize + (long) this.size * ENTRY_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this.dataMap = null;
+        this.indexMap = null;
+        try
+        {
+            this.data.close();
+        }
+        finally
+        {
+            this.index.close();
+        }
+    }
+
+    /**
+     * Applies the stored edit script of a version to the elements of its predecessor.
+     *
+     * @param previous
+     *         The elements of the previous version; an empty array for keyframes
+     * @param version
+     *         The number of the version to reconstruct
+     *
+     * @return The elements of the version
+     *
+     * @throws IOException
+     *         If the edit script could not be read
+     */
+    private T[] apply(T[] previous, int version) throws IOException
+    {
+        long position = this.getPosition(version);
+        int length = this.getLength(version);
+        if (this.dataMap == null || this.dataMap.capacity() < position + length)
+        {
+            this.dataMap = this.data.map(FileChannel.MapMode.READ_ONLY, 0, this.dataSize);
+        }
+        ByteBuffer script = this.dataMap.duplicate();
+        script.limit((int) position + length).position((int) position);
+
+        EditScriptDecoder<T> decoder = new EditScriptDecoder<T>(script).inlineTokens(this.codec);
+        List<T> tokens = Patch.apply(previous, decoder);
+        return tokens.toArray(this.arrayFactory.apply(tokens.size()));
+    }
+
+    /**
+     * Returns the elements of the latest version and reconstructs them if necessary.
+     *
+     * @return The elements of the latest version
+     *
+     * @throws IOException
+     *         If the stored edit scripts could not be read
+     */
+    private T[] getLatest() throws IOException
+    {
+        if (this.latest == null)
+        {
+            this.latest = this.get(this.size - 1);
+        }
+        return this.latest;
+    }
+
+    /**
+     * Searches the keyframe the provided version is based on.
+     *
+     * @param version
+     *         The number of the version
+     *
+     * @return The number of the nearest keyframe at or before the version
+     *
+     * @throws IOException
+     *         If the index could not be read
+     */
+    private int findKeyframe(int version) throws IOException
+    {
+        int keyframe = version;
+        while (keyframe > 0 && !this.isKeyframe(keyframe))
+        {
+            keyframe--;
+        }
+        return keyframe;
+    }
+
+    private long getPosition(int version) throws IOException
+    {
+        return this.entries(version).getLong(version * ENTRY_SIZE + 8);
+    }
+
+    private int getLength(int version) throws IOException
+    {
+        return this.entries(version).getInt(version * ENTRY_SIZE + 16);
+    }
+
+    /**
+     * Returns the memory-mapped index and remaps the index file if it does not yet cover the provided version.
+     *
+     * @param version
+     *         The number of the version whose entry is required
+     *
+     * @return The memory-mapped index
+     *
+     * @throws IOException
+     *         If the index file could not be mapped
+     */
+    private ByteBuffer entries(int version) throws IOException
+    {
+        if (this.indexMap == null || this.indexMap.capacity() < (version + 1) * ENTRY_SIZE)
+        {
+            this.indexMap = this.index.map(FileChannel.MapMode.READ_ONLY, 0, (long) this.size * ENTRY_SIZE);
+        }
+        return this.indexMap;
+    }
+}
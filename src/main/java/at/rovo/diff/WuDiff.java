@@ -0,0 +1,339 @@
+package at.rovo.diff;
+
+import java.util.Arrays;
+
+/**
+ * Compares two objects with the <em>O(NP)</em> algorithm of Wu, Manber, Myers and Miller, where <em>P</em> is the
+ * number of deletions of the shortest edit script when transforming the shorter into the longer object.
+ * <p>
+ * Like {@link GreedyDiff} the algorithm calculates the farthest reaching path on each k-line, but instead of
+ * calculating a contour for every number of differences <em>d</em> it only calculates one per number of deletions
+ * <em>p</em>. As a path to the end point on k-line <em>Δ = M - N</em> needs at least <em>Δ</em> insertions, the k-lines
+ * <em>[-p, Δ + p]</em> are calculated in ascending order up to <em>Δ</em> and in descending order down to
+ * <em>Δ</em>, so a comparison of objects of very different length does not pay for the difference in length but only
+ * for the actual edit effort.
+ * <p>
+ * The trace variant records a node at the start of each diagonal and follows the nodes back from the end point, which
+ * requires <em>O((Δ + P) P)</em> space. The linear space variant only records the first point of each path which lies
+ * beyond the middle anti-diagonal of the edit graph. This point splits the comparison in two halves, which are again
+ * compared recursively, like the middle snake of {@link LinearDiff}.
+ * <p>
+ * If the first object is longer than the second one, both objects are swapped for the comparison and insertions and
+ * deletions are swapped back for the resulting snakes.
+ *
+ * @author Roman Vottner
+ */
+public class WuDiff
+{
+    /** prevent initializations of the util class **/
+    private WuDiff()
+    {
+
+    }
+
+    /**
+     * Compares two objects and records the path via a trace of the nodes visited.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b)
+    {
+        return Compare(a, b, false);
+    }
+
+    /**
+     * Compares two objects.
+     *
+     * @param a
+     *         The elements of the first object; usually the oldest one
+     * @param b
+     *         The elements of the second object; usually the newest one
+     * @param linearSpace
+     *         True to split the comparison recursively at the middle of the path, which only requires linear space;
+     *         false to record a trace of the nodes visited, which is faster but requires <em>O((Δ + P) P)</em> space
+     *
+     * @return The result containing the snakes that lead from input a to input b
+     */
+    public static <T> Results<T> Compare(T[] a, T[] b, boolean linearSpace)
+    {
+        SnakeBuilder<T> builder = new SnakeBuilder<>();
+        if (linearSpace)
+        {
+            Divide(a, 0, a.length, b, 0, b.length, builder);
+        }
+        else
+        {
+            Trace(a, 0, a.length, b, 0, b.length, builder);
+        }
+        return new Results<>(builder.build(), null, null);
+    }
+
+    /**
+     * Compares the elements <em>[a0, a0 + N)</em> of the first object with the elements <em>[b0, b0 + M)</em> of the
+     * second object by following the trace of the nodes visited and adds the resulting path to the builder.
+     */
+    private static <T> void Trace(T[] pa, int a0, int N, T[] pb, int b0, int M, SnakeBuilder<T> builder)
+    {
+        boolean swapped = N > M;
+        Contours<T> contours = swapped ? new Contours<>(pb, b0, M, pa, a0, N, true)
+                                       : new Contours<>(pa, a0, N, pb, b0, M, true);
+        contours.run();
+        int[] nodes = contours.nodes;
+
+        // follow the nodes back from the end point and reverse their order
+        int[] chain = new int[contours.count];
+        int length = 0;
+        for (int node = contours.path[contours.offset + contours.DELTA]; node >= 0; node = nodes[node * 3 + 2])
+        {
+            chain[length++] = node;
+        }
+
+        // the first node is the start point of the edit graph
+        int x = 0;
+        int y = 0;
+        for (int i = length - 2; i >= 0; i--)
+        {
+            int nodeX = nodes[chain[i] * 3];
+            int nodeY = nodes[chain[i] * 3 + 1];
+            boolean insertion = nodeY - nodeX == y - x + 1;
+            builder.keep((insertion ? nodeX : nodeX - 1) - x);
+            if (insertion == swapped)
+            {
+                builder.delete(1);
+            }
+            else
+            {
+                builder.insert(1);
+            }
+            x = nodeX;
+            y = nodeY;
+        }
+        builder.keep(contours.N - x);
+    }
+
+    /**
+     * Compares the elements <em>[a0, a0 + N)</em> of the first object with the elements <em>[b0, b0 + M)</em> of the
+     * second object by splitting the comparison at the middle of the path and adds the resulting path to the builder.
+     */
+    private static <T> void Divide(T[] pa, int a0, int N, T[] pb, int b0, int M, SnakeBuilder<T> builder)
+    {
+        int prefix = 0;
+        while (prefix < N && prefix < M && pa[a0 + prefix].equals(pb[b0 + prefix]))
+        {
+            prefix++;
+        }
+        builder.keep(prefix);
+        a0 += prefix;
+        b0 += prefix;
+        N -= prefix;
+        M -= prefix;
+
+        int suffix = 0;
+        while (suffix < N && suffix < M && pa[a0 + N - 1 - suffix].equals(pb[b0 + M - 1 - suffix]))
+        {
+            suffix++;
+        }
+        N -= suffix;
+        M -= suffix;
+
+        if (N == 0 || M == 0)
+        {
+            builder.delete(N);
+            builder.insert(M);
+        }
+        else
+        {
+            boolean swapped = N > M;
+            Contours<T> contours = swapped ? new Contours<>(pb, b0, M, pa, a0, N, false)
+                                           : new Contours<>(pa, a0, N, pb, b0, M, false);
+            contours.run();
+            int midX = contours.midX[contours.offset + contours.DELTA];
+            int midY = contours.midY[contours.offset + contours.DELTA];
+            int x = swapped ? midY : midX;
+            int y = swapped ? midX : midY;
+
+            if (x + y <= 0 || x + y >= N + M)
+            {
+                // the middle of a very short path may be one of its ends
+                Trace(pa, a0, N, pb, b0, M, builder);
+            }
+            else
+            {
+                Divide(pa, a0, x, pb, b0, y, builder);
+                Divide(pa, a0 + x, N - x, pb, b0 + y, M - y, builder);
+            }
+        }
+
+        builder.keep(suffix);
+    }
+
+    /**
+     * Calculates the farthest reaching paths on the k-lines for successive numbers of deletions <em>p</em> until the
+     * end point of the edit graph is reached. The first object must not be longer than the second one.
+     *
+     * @param <T>
+     *         The type of the compared elements
+     */
+    private static final class Contours<T>
+    {
+        /** Marks a k-line which was not reached yet **/
+        private static final int UNSET = -1;
+
+        private final T[] pa;
+        private final int a0;
+        private final int N;
+        private final T[] pb;
+        private final int b0;
+        private final int M;
+        /** The k-line of the end point of the edit graph **/
+        private final int DELTA;
+        /** The offset of k-line 0 in the arrays indexed on k **/
+        private final int offset;
+        /** The y-position of the farthest reaching path on each k-line **/
+        private final int[] fp;
+
+        /** The last node of the farthest reaching path on each k-line if a trace is recorded **/
+        private final int[] path;
+        /** Consecutive triples of the x-position, the y-position and the previous node of each node **/
+        private int[] nodes;
+        /** The number of recorded nodes **/
+        private int count = 0;
+
+        /** The first point beyond the middle anti-diagonal of the path on each k-line if no trace is recorded **/
+        private final int[] midX;
+        private final int[] midY;
+        /** The sum of the x- and y-position of the middle anti-diagonal **/
+        private final int half;
+
+        Contours(T[] pa, int a0, int N, T[] pb, int b0, int M, boolean trace)
+        {
+            this.pa = pa;
+            this.a0 = a0;
+            this.N = N;
+            this.pb = pb;
+            this.b0 = b0;
+            this.M = M;
+            this.DELTA = M - N;
+            this.offset = N + 1;
+            this.fp = new int[N + M + 3];
+            Arrays.fill(this.fp, UNSET);
+            if (trace)
+            {
+                this.path = new int[N + M + 3];
+                this.nodes = new int[3 * 16];
+                this.midX = null;
+                this.midY = null;
+            }
+            else
+            {
+                this.path = null;
+                this.midX = new int[N + M + 3];
+                this.midY = new int[N + M + 3];
+            }
+            this.half = (N + M + 1) / 2;
+        }
+
+        /**
+         * Calculates the contours until the path on k-line <em>Δ</em> reaches the end point.
+         */
+        void run()
+        {
+            for (int p = 0; this.fp[this.offset + this.DELTA] != this.M; p++)
+            {
+                for (int k = -p; k < this.DELTA; k++)
+                {
+                    this.step(k);
+                }
+                for (int k = this.DELTA + p; k > this.DELTA; k--)
+                {
+                    this.step(k);
+                }
+                this.step(this.DELTA);
+            }
+        }
+
+        /**
+         * Calculates the farthest reaching path on k-line <em>k</em> by either inserting an element into the path on
+         * k-line <em>k-1</em> or deleting an element from the path on k-line <em>k+1</em> and following the diagonal.
+         */
+        private void step(int k)
+        {
+            int i = this.offset + k;
+            int below = this.fp[i - 1] != UNSET && this.fp[i - 1] < this.M ? this.fp[i - 1] + 1 : UNSET;
+            int right = this.fp[i + 1] != UNSET && this.fp[i + 1] - k <= this.N ? this.fp[i + 1] : UNSET;
+
+            int y;
+            int from;
+            if (below == UNSET && right == UNSET)
+            {
+                if (k != 0)
+                {
+                    return;
+                }
+                // the start point of the edit graph
+                y = 0;
+                from = UNSET;
+            }
+            else if (below > right)
+            {
+                y = below;
+                from = i - 1;
+            }
+            else
+            {
+                y = right;
+                from = i + 1;
+            }
+            int x = y - k;
+
+            if (this.path != null)
+            {
+                this.path[i] = this.addNode(x, y, from == UNSET ? UNSET : this.path[from]);
+            }
+            else
+            {
+                this.midX[i] = from == UNSET ? UNSET : this.midX[from];
+                this.midY[i] = from == UNSET ? UNSET : this.midY[from];
+                if (this.midX[i] == UNSET && x + y >= this.half)
+                {
+                    this.midX[i] = x;
+                    this.midY[i] = y;
+                }
+            }
+
+            int xEnd = x;
+            int yEnd = y;
+            while (xEnd < this.N && yEnd < this.M && this.pa[this.a0 + xEnd].equals(this.pb[this.b0 + yEnd]))
+            {
+                xEnd++;
+                yEnd++;
+            }
+            this.fp[i] = yEnd;
+
+            if (this.path == null && this.midX[i] == UNSET && xEnd + yEnd >= this.half)
+            {
+                // the first point of the diagonal on or beyond the middle anti-diagonal
+                int t = (this.half - x - y + 1) / 2;
+                this.midX[i] = x + t;
+                this.midY[i] = y + t;
+            }
+        }
+
+        private int addNode(int x, int y, int previous)
+        {
+            if (this.count * 3 == this.nodes.length)
+            {
+                this.nodes = Arrays.copyOf(this.nodes, this.nodes.length * 2);
+            }
+            this.nodes[this.count * 3] = x;
+            this.nodes[this.count * 3 + 1] = y;
+            this.nodes[this.count * 3 + 2] = previous;
+            return this.count++;
+        }
+    }
+}
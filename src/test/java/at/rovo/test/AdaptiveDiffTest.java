@@ -0,0 +1,81 @@
+package at.rovo.test;
+
+import at.rovo.diff.AdaptiveDiff;
+import at.rovo.diff.DiffEngine;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link AdaptiveDiff} chooses a suitable engine and records it in the result.
+ *
+ * @author Roman Vottner
+ */
+public class AdaptiveDiffTest
+{
+    /**
+     * Compares random inputs and checks that the chosen engine produces a shortest edit script.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testShortestEditScript() throws Exception
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(80));
+            String[] b = TestData.randomTokens(random, random.nextInt(80));
+
+            Results<String> res = AdaptiveDiff.Compare(a, b);
+            Assert.assertNotNull(res.getEngine());
+            Assert.assertTrue(res.getEngine().isExact());
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+        }
+    }
+
+    /**
+     * Checks the engines chosen for characteristic inputs.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testSelection() throws Exception
+    {
+        Random random = new Random(43);
+        String[] document = TestData.document(random, 2000);
+        Assert.assertEquals(DiffEngine.GREEDY, new AdaptiveDiff().select(document, document.clone()));
+
+        String[] a = new String[20000];
+        String[] b = new String[30000];
+        for (int i = 0; i < a.length; i++)
+        {
+            a[i] = "a" + i;
+        }
+        for (int j = 0; j < b.length; j++)
+        {
+            b[j] = j % 1000 == 0 ? "a" + j : "b" + j;
+        }
+        Results<String> res = new AdaptiveDiff().compare(a, b);
+        Assert.assertEquals(DiffEngine.HUNT_SZYMANSKI, res.getEngine());
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+
+        // only linear space engines fit into a small budget
+        DiffEngine engine = new AdaptiveDiff().memoryBudget(1 << 20).select(a, b);
+        Assert.assertTrue(engine.toString(), engine == DiffEngine.LINEAR || engine == DiffEngine.WU_LINEAR);
+
+        // inputs with few distinct elements and many differences are left to a heuristic if allowed
+        String[] c = TestData.randomTokens(random, 8000);
+        String[] d = TestData.randomTokens(random, 8000);
+        Assert.assertTrue(new AdaptiveDiff().select(c, d).isExact());
+        res = new AdaptiveDiff().heuristics(true).compare(c, d);
+        Assert.assertEquals(DiffEngine.CHUNKED, res.getEngine());
+        Assert.assertArrayEquals(d, Patch.apply(c, res, d));
+    }
+}
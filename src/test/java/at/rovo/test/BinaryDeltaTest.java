@@ -0,0 +1,209 @@
+package at.rovo.test;
+
+import at.rovo.diff.BinaryDelta;
+import at.rovo.diff.BinaryPatch;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that a delta calculated by {@link BinaryDelta} is small and restores the target via {@link BinaryPatch}.
+ *
+ * @author Roman Vottner
+ */
+public class BinaryDeltaTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Calculates and applies deltas for randomly modified byte arrays.
+     *
+     * @throws Exception
+     *         Thrown if the delta could not be calculated or applied
+     */
+    @Test
+    public void testRandomEdits() throws Exception
+    {
+        Random random = new Random(21);
+        for (int i = 0; i < 100; i++)
+        {
+            byte[] source = TestData.randomBytes(random, random.nextInt(20000));
+            byte[] target = modify(random, source, random.nextInt(5));
+
+            byte[] delta = BinaryDelta.compute(source, target);
+            Assert.assertArrayEquals("Target " + i + " differs", target, BinaryPatch.apply(source, delta));
+        }
+        Assert.assertArrayEquals(new byte[0], BinaryPatch.apply(new byte[0], BinaryDelta.compute(new byte[0],
+                                                                                                  new byte[0])));
+    }
+
+    /**
+     * Finds moved and duplicated blocks, which can't be expressed by a path through the edit graph.
+     *
+     * @throws Exception
+     *         Thrown if the delta could not be calculated or applied
+     */
+    @Test
+    public void testMovedBlocks() throws Exception
+    {
+        Random random = new Random(4);
+        byte[] first = TestData.randomBytes(random, 5000);
+        byte[] second = TestData.randomBytes(random, 5000);
+        byte[] source = concat(first, second);
+        byte[] target = concat(concat(second, first), second);
+
+        byte[] delta = BinaryDelta.compute(source, target);
+        Assert.assertArrayEquals(target, BinaryPatch.apply(source, delta));
+        Assert.assertTrue("Delta of " + delta.length + " bytes is too large", delta.length < 64);
+    }
+
+    /**
+     * Searches the segments of a large target concurrently.
+     *
+     * @throws Exception
+     *         Thrown if the delta could not be calculated or applied
+     */
+    @Test
+    public void testConcurrentSearch() throws Exception
+    {
+        Random random = new Random(8);
+        byte[] source = TestData.randomBytes(random, 3 * BinaryDelta.MIN_SEGMENT_SIZE);
+        byte[] target = modify(random, source, 20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try
+        {
+            ByteBuffer direct = ByteBuffer.allocateDirect(target.length);
+            direct.put(target);
+            direct.flip();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new BinaryDelta().executor(executor, 3).blockSize(16).write(ByteBuffer.wrap(source), direct,
+                                                                        Channels.newChannel(out));
+            byte[] delta = out.toByteArray();
+            Assert.assertArrayEquals(target, BinaryPatch.apply(source, delta));
+            Assert.assertTrue("Delta of " + delta.length + " bytes is too large", delta.length < 20 * 1200);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Calculates the delta between two memory-mapped files and applies it to a file.
+     *
+     * @throws Exception
+     *         Thrown if the delta could not be calculated or applied
+     */
+    @Test
+    public void testMappedFiles() throws Exception
+    {
+        Random random = new Random(12);
+        byte[] source = TestData.randomBytes(random, 100000);
+        byte[] target = modify(random, source, 10);
+        File sourceFile = this.folder.newFile("source.bin");
+        File targetFile = this.folder.newFile("target.bin");
+        File deltaFile = this.folder.newFile("delta.bin");
+        File patchedFile = this.folder.newFile("patched.bin");
+        Files.write(sourceFile.toPath(), source);
+        Files.write(targetFile.toPath(), target);
+
+        try (FileChannel out = FileChannel.open(deltaFile.toPath(), StandardOpenOption.WRITE))
+        {
+            new BinaryDelta().write(sourceFile.toPath(), targetFile.toPath(), out);
+        }
+        try (FileChannel sourceChannel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel deltaChannel = FileChannel.open(deltaFile.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(patchedFile.toPath(), StandardOpenOption.WRITE))
+        {
+            long written = BinaryPatch.apply(sourceChannel.map(FileChannel.MapMode.READ_ONLY, 0, sourceChannel.size()),
+                                             deltaChannel.map(FileChannel.MapMode.READ_ONLY, 0, deltaChannel.size()),
+                                             out);
+            Assert.assertEquals(target.length, written);
+        }
+        Assert.assertArrayEquals(target, Files.readAllBytes(patchedFile.toPath()));
+    }
+
+    /**
+     * Rejects a delta applied to a source which is too short.
+     *
+     * @throws Exception
+     *         Thrown if the delta could not be calculated
+     */
+    @Test(expected = IOException.class)
+    public void testRejectWrongSource() throws Exception
+    {
+        byte[] source = TestData.randomBytes(new Random(2), 1000);
+        byte[] delta = BinaryDelta.compute(source, source);
+        BinaryPatch.apply(Arrays.copyOf(source, 500), delta);
+    }
+
+    /**
+     * Rejects deltas whose add or copy instruction carries a byte count that is negative, as the variable length
+     * integer got corrupted into 10 bytes with the sign bit set.
+     *
+     * @throws Exception
+     *         Thrown if the source could not be created
+     */
+    @Test
+    public void testRejectCorruptCount() throws Exception
+    {
+        byte[] source = TestData.randomBytes(new Random(3), 1000);
+        byte[] negative = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                           (byte) 0xFF, (byte) 0xFF, 0x01};
+        // magic, version and an announced length of 0 bytes, followed by the op code, its count, for copies the
+        // offset into the source and the end of the delta
+        byte[][] deltas = {concat(concat(new byte[] {'J', 'B', 'D', 1, 0x00, 0x01}, negative),
+                                  new byte[] {(byte) 0x80}),
+                           concat(concat(new byte[] {'J', 'B', 'D', 1, 0x00, 0x02}, negative),
+                                  new byte[] {0x00, (byte) 0x80})};
+        for (byte[] delta : deltas)
+        {
+            try
+            {
+                BinaryPatch.apply(source, delta);
+                Assert.fail("Negative byte count not detected");
+            }
+            catch (IOException ioEx)
+            {
+                Assert.assertTrue(ioEx.getMessage(), ioEx.getMessage().startsWith("Invalid byte count"));
+            }
+        }
+    }
+
+    private static byte[] modify(Random random, byte[] data, int edits)
+    {
+        byte[] result = data;
+        for (int e = 0; e < edits; e++)
+        {
+            int pos = result.length == 0 ? 0 : random.nextInt(result.length);
+            int length = Math.min(random.nextInt(500), result.length - pos);
+            byte[] insert = TestData.randomBytes(random, random.nextInt(500));
+            byte[] head = Arrays.copyOf(result, pos);
+            byte[] tail = Arrays.copyOfRange(result, pos + length, result.length);
+            result = concat(concat(head, insert), tail);
+        }
+        return result;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b)
+    {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
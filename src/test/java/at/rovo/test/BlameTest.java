@@ -0,0 +1,91 @@
+package at.rovo.test;
+
+import at.rovo.diff.Blame;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Snake;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link Blame} annotates each element of the latest revision with the revision which introduced it.
+ *
+ * @author Roman Vottner
+ */
+public class BlameTest
+{
+    /**
+     * Follows the origins of single lines through a short history.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testBlame() throws Exception
+    {
+        Blame<String> blame = new Blame<>(new String[] {"a", "b", "c", "d"});
+        Assert.assertEquals(1, blame.add(new String[] {"a", "x", "b", "c", "d"}));
+        Assert.assertEquals(2, blame.add(new String[] {"a", "x", "b", "y", "z"}));
+        Assert.assertEquals(3, blame.add(new String[] {"w", "a", "x", "b", "z"}));
+
+        Assert.assertArrayEquals(new int[] {3, 0, 1, 0, 2}, blame.getOrigins());
+        Assert.assertEquals(1, blame.getOrigin(2));
+        Assert.assertEquals("z", blame.getToken(4));
+        Assert.assertEquals(4, blame.getRevisionCount());
+        Assert.assertEquals(5, blame.getRunCount());
+    }
+
+    /**
+     * Compares the origins of random histories with the origins tracked element by element.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testRandomHistories() throws Exception
+    {
+        Random random = new Random(13);
+        for (int h = 0; h < 20; h++)
+        {
+            List<String[]> history = TestData.history(random, 15);
+            Blame<String> blame = new Blame<>(history.get(0));
+            int[] expected = new int[history.get(0).length];
+            for (int v = 1; v < history.size(); v++)
+            {
+                blame.add(history.get(v));
+                expected = track(expected, history.get(v - 1), history.get(v), v);
+            }
+            Assert.assertArrayEquals("Origins of history " + h + " differ", expected, blame.getOrigins());
+            for (int i = 0; i < expected.length; i++)
+            {
+                Assert.assertEquals(expected[i], blame.getOrigin(i));
+            }
+        }
+    }
+
+    /**
+     * Tracks the origin of every single element along the path of the comparison.
+     */
+    private static int[] track(int[] origins, String[] a, String[] b, int revision) throws Exception
+    {
+        int[] result = new int[b.length];
+        Arrays.fill(result, revision);
+        for (Snake<String> snake : LinearDiff.Compare(a, b).getSnakes())
+        {
+            int x = snake.IsForward ? snake.XStart + snake.ADeleted : snake.XStart - snake.DiagonalLength;
+            int y = snake.IsForward ? snake.YStart + snake.BInserted : snake.YStart - snake.DiagonalLength;
+            if (!snake.IsForward)
+            {
+                x -= snake.ADeleted;
+                y -= snake.BInserted;
+            }
+            for (int i = 0; i < snake.DiagonalLength; i++)
+            {
+                result[y + i] = origins[x + i];
+            }
+        }
+        return result;
+    }
+}
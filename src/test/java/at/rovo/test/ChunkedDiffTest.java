@@ -0,0 +1,84 @@
+package at.rovo.test;
+
+import at.rovo.diff.ChunkedDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link ChunkedDiff} produces a valid edit script which is about as short as the one of {@link
+ * LinearDiff}.
+ *
+ * @author Roman Vottner
+ */
+public class ChunkedDiffTest
+{
+    /**
+     * Compares large documents with a few scattered edits.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testLargeDocuments() throws Exception
+    {
+        Random random = new Random(31);
+        for (int i = 0; i < 5; i++)
+        {
+            String[] a = TestData.document(random, 20000);
+            String[] b = TestData.edit(random, a, 30);
+
+            Results<String> chunked = ChunkedDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, chunked, b));
+            int edits = TestData.edits(chunked);
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+            Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 11 / 10);
+        }
+    }
+
+    /**
+     * Compares a large document with a version whose first block was moved to the end, which must not discard the
+     * matches after the moved block.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testMovedBlock() throws Exception
+    {
+        Random random = new Random(37);
+        String[] a = TestData.document(random, 20000);
+        String[] b = new String[a.length];
+        System.arraycopy(a, 3000, b, 0, a.length - 3000);
+        System.arraycopy(a, 0, b, a.length - 3000, 3000);
+
+        Results<String> chunked = ChunkedDiff.Compare(a, b);
+        Assert.assertArrayEquals(b, Patch.apply(a, chunked, b));
+        int edits = TestData.edits(chunked);
+        int shortest = TestData.edits(LinearDiff.Compare(a, b));
+        Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 11 / 10);
+    }
+
+    /**
+     * Compares random inputs with many repeated elements and small chunks on the calling thread.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testRandomInputs() throws Exception
+    {
+        Random random = new Random(3);
+        for (int i = 0; i < 300; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(200));
+            String[] b = TestData.randomTokens(random, random.nextInt(200));
+            Assert.assertArrayEquals(b, Patch.apply(a, ChunkedDiff.Compare(a, b, 4, null), b));
+            String[] c = TestData.edit(random, a, 3);
+            Assert.assertArrayEquals(c, Patch.apply(a, ChunkedDiff.Compare(a, c, 8, null), c));
+        }
+    }
+}
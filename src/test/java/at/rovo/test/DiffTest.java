@@ -1,6 +1,8 @@
 package at.rovo.test;
 
 import at.rovo.diff.DiffUtil;
+import at.rovo.diff.Hunk;
+import at.rovo.diff.Hunks;
 import at.rovo.diff.Result;
 import at.rovo.diff.Results;
 import at.rovo.parser.ParseResult;
@@ -314,4 +316,64 @@ public class DiffTest
             Assert.fail("No snakes found!");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Compares the lazy {@link Hunks} view returned by {@link DiffUtil#getHunks(Results, List)} with the eagerly
+     * copied {@link Result} objects and checks that the position based lookup returns the covering hunk.
+     *
+     * @throws Exception
+     *         Thrown if either an error is thrown while trying to read one of the files to compare or while comparing
+     *         those files
+     */
+    @Test
+    public void testHunksLinearDiff() throws Exception
+    {
+        String[] pages = new String[] {"testPattern1.html", "testPattern2.html"};
+        List<Token[]> patterns = new ArrayList<>();
+
+        for (String pattern : pages)
+        {
+            URL url = DiffTest.class.getResource("/" + pattern);
+            String html = DiffUtil.readFile(url.toURI().getPath());
+            Parser parser = new Parser();
+            ParseResult res = parser.tokenize(html, false);
+            List<Token> p = res.getParsedTokens();
+
+            Token[] tmp = new Token[0];
+            patterns.add(p.toArray(tmp));
+        }
+
+        Results<Token> res = at.rovo.diff.LinearDiff.Compare(patterns.get(0), patterns.get(1));
+        List<Result<Token>> diffResults = DiffUtil.getDifferences(res, patterns);
+        Hunks<Token> hunks = DiffUtil.getHunks(res, patterns);
+
+        Assert.assertEquals("Unexpected number of hunks found", diffResults.size(), hunks.size());
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < hunks.size(); i++)
+        {
+            Hunk<Token> hunk = hunks.get(i);
+            Assert.assertEquals("Hunks are not contiguous in the first file", x, hunk.getXStart());
+            Assert.assertEquals("Hunks are not contiguous in the second file", y, hunk.getYStart());
+            Assert.assertEquals("Unexpected deleted tokens for hunk " + i, diffResults.get(i).getDeletedTokens(),
+                                hunk.getDeletedTokens());
+            Assert.assertEquals("Unexpected inserted tokens for hunk " + i, diffResults.get(i).getInsertedTokens(),
+                                hunk.getInsertedTokens());
+            Assert.assertEquals("Unexpected equal tokens for hunk " + i, diffResults.get(i).getRegularTokens(),
+                                hunk.getRegularTokens());
+            for (int pos = hunk.getXStart(); pos < hunk.getXEnd(); pos++)
+            {
+                Assert.assertEquals("Binary search on x returned wrong hunk", i, hunks.indexOfX(pos));
+            }
+            for (int pos = hunk.getYStart(); pos < hunk.getYEnd(); pos++)
+            {
+                Assert.assertEquals("Binary search on y returned wrong hunk", i, hunks.indexOfY(pos));
+            }
+            x = hunk.getXEnd();
+            y = hunk.getYEnd();
+        }
+        Assert.assertEquals("Hunks do not cover the first file", patterns.get(0).length, x);
+        Assert.assertEquals("Hunks do not cover the second file", patterns.get(1).length, y);
+        Assert.assertEquals("Position outside of the first file found", -1, hunks.indexOfX(x));
+    }
+}
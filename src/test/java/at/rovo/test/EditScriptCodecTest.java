@@ -0,0 +1,253 @@
+package at.rovo.test;
+
+import at.rovo.diff.EditScriptDecoder;
+import at.rovo.diff.EditScriptEncoder;
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import at.rovo.diff.TokenCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks that edit scripts written by {@link EditScriptEncoder} are restored by {@link EditScriptDecoder} to exactly
+ * the snakes returned by the comparison algorithms.
+ *
+ * @author Roman Vottner
+ */
+public class EditScriptCodecTest
+{
+    /** The logger of this class **/
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Encodes the results of all comparison algorithms for random inputs into a buffer and decodes them again.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the encoding fails
+     */
+    @Test
+    public void testRoundTripBuffer() throws Exception
+    {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++)
+        {
+            String a = randomString(random, random.nextInt(40));
+            String b = randomString(random, random.nextInt(40));
+
+            for (Results<String> res : compareAll(a, b))
+            {
+                ByteBuffer encoded = EditScriptEncoder.encode(res.getSnakes());
+                Results<String> decoded = EditScriptDecoder.decode(encoded);
+                assertSnakesEqual(res.getSnakes(), decoded.getSnakes());
+                Assert.assertFalse("Buffer not fully consumed", encoded.hasRemaining());
+            }
+        }
+    }
+
+    /**
+     * Streams an edit script containing the inserted tokens through channels and rebuilds the second string from the
+     * first one and the decoded edit script only.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the encoding fails
+     */
+    @Test
+    public void testRoundTripChannelWithInlineTokens() throws Exception
+    {
+        String a = "The quick brown fox jumps over the lazy dog";
+        String b = "The quick red fox jumped over the very lazy dog";
+        String[] aa = a.split(" ");
+        String[] ab = b.split(" ");
+
+        Results<String> res = LinearDiff.Compare(aa, ab);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EditScriptEncoder<String> encoder =
+                new EditScriptEncoder<String>(Channels.newChannel(out)).inlineTokens(ab, TokenCodec.UTF8);
+        encoder.writeAll(res.getSnakes());
+        encoder.finish();
+
+        LOG.info("Encoded {} snakes into {} bytes compared to {} characters of the textual representation",
+                 res.getSnakes().size(), out.size(), res.getSnakes().toString().length());
+
+        EditScriptDecoder<String> decoder =
+                new EditScriptDecoder<String>(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))
+                        .inlineTokens(TokenCodec.UTF8);
+        Assert.assertTrue("Inserted tokens expected", decoder.hasInsertedTokens());
+
+        List<Snake<String>> snakes = new ArrayList<>();
+        List<String> target = new ArrayList<>();
+        Snake<String> snake;
+        while ((snake = decoder.next()) != null)
+        {
+            snakes.add(snake);
+            int diagonal = snake.IsForward ? snake.getXEnd() - snake.DiagonalLength : snake.getXEnd();
+            if (!snake.IsForward)
+            {
+                addRange(target, aa, diagonal, snake.DiagonalLength);
+            }
+            target.addAll(decoder.getInsertedTokens());
+            if (snake.IsForward)
+            {
+                addRange(target, aa, diagonal, snake.DiagonalLength);
+            }
+        }
+
+        assertSnakesEqual(res.getSnakes(), snakes);
+        Assert.assertEquals("Second string could not be rebuilt", b, String.join(" ", target));
+    }
+
+    /**
+     * Encodes the same edit script with token ids and checks that the ids are restored.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the encoding fails
+     */
+    @Test
+    public void testRoundTripTokenIds() throws Exception
+    {
+        final String[] dictionary = {"A", "B", "C"};
+        String[] aa = "ABCABBA".split("");
+        String[] ab = "CBABAC".split("");
+
+        Results<String> res = GreedyDiff.Compare(aa, ab, false);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        EditScriptEncoder<String> encoder = new EditScriptEncoder<String>(buffer).tokenIds(ab, t -> t.charAt(0) - 'A');
+        encoder.writeAll(res.getSnakes());
+        encoder.finish();
+        buffer.flip();
+
+        EditScriptDecoder<String> decoder = new EditScriptDecoder<String>(buffer).tokenIds(id -> dictionary[id]);
+        List<String> inserted = new ArrayList<>();
+        List<Snake<String>> snakes = new ArrayList<>();
+        Snake<String> snake;
+        while ((snake = decoder.next()) != null)
+        {
+            snakes.add(snake);
+            inserted.addAll(decoder.getInsertedTokens());
+        }
+
+        assertSnakesEqual(res.getSnakes(), snakes);
+        int total = 0;
+        for (Snake<String> s : snakes)
+        {
+            total += s.BInserted;
+        }
+        Assert.assertEquals("Unexpected number of inserted tokens", total, inserted.size());
+    }
+
+    /**
+     * Replaces the length of an inline token by 5 byte variable length integers which exceed the range of
+     * non-negative integers, either by setting the sign bit or bits beyond it, and checks that the decoder rejects
+     * them as malformed.
+     *
+     * @throws Exception
+     *         Thrown if the comparison or the encoding fails
+     */
+    @Test
+    public void testCorruptVarInt() throws Exception
+    {
+        String[] ab = {"x"};
+        Results<String> res = GreedyDiff.Compare(new String[0], ab, true);
+        ByteBuffer encoded = EditScriptEncoder.encode(res.getSnakes(), ab, TokenCodec.UTF8);
+        byte[] valid = new byte[encoded.remaining()];
+        encoded.get(valid);
+
+        // header, operation and number of inserted tokens precede the length of the token
+        int length = 7;
+        Assert.assertEquals(1, valid[length]);
+        byte[][] varInts = {{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F},
+                            {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08}};
+        for (byte[] varInt : varInts)
+        {
+            byte[] corrupt = new byte[valid.length + varInt.length - 1];
+            System.arraycopy(valid, 0, corrupt, 0, length);
+            System.arraycopy(varInt, 0, corrupt, length, varInt.length);
+            System.arraycopy(valid, length + 1, corrupt, length + varInt.length, valid.length - length - 1);
+
+            EditScriptDecoder<String> decoder =
+                    new EditScriptDecoder<String>(ByteBuffer.wrap(corrupt)).inlineTokens(TokenCodec.UTF8);
+            try
+            {
+                decoder.readAll();
+                Assert.fail("Malformed variable length integer not detected");
+            }
+            catch (IOException ioEx)
+            {
+                LOG.info("Rejected corrupt edit script: {}", ioEx.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks that the encoder refuses to write a negative token id, which the decoder could not read back.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTokenId() throws Exception
+    {
+        String[] ab = {"x"};
+        Results<String> res = GreedyDiff.Compare(new String[0], ab, true);
+        new EditScriptEncoder<String>(ByteBuffer.allocate(256)).tokenIds(ab, t -> -1).writeAll(res.getSnakes());
+    }
+
+    private static List<Results<String>> compareAll(String a, String b) throws Exception
+    {
+        List<Results<String>> results = new ArrayList<>();
+        results.add(GreedyDiff.Compare(a, b, true));
+        results.add(GreedyDiff.Compare(a, b, false));
+        results.add(LinearDiff.Compare(a, b));
+        return results;
+    }
+
+    private static void assertSnakesEqual(List<Snake<String>> expected, List<Snake<String>> actual)
+    {
+        Assert.assertEquals("Unexpected number of snakes", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Snake<String> e = expected.get(i);
+            Snake<String> s = actual.get(i);
+            String msg = "Snake " + i + " differs: " + e + " vs. " + s;
+            Assert.assertEquals(msg, e.IsForward, s.IsForward);
+            Assert.assertEquals(msg, e.XStart, s.XStart);
+            Assert.assertEquals(msg, e.YStart, s.YStart);
+            Assert.assertEquals(msg, e.ADeleted, s.ADeleted);
+            Assert.assertEquals(msg, e.BInserted, s.BInserted);
+            Assert.assertEquals(msg, e.DiagonalLength, s.DiagonalLength);
+        }
+    }
+
+    private static void addRange(List<String> target, String[] source, int start, int length)
+    {
+        for (int i = start; i < start + length; i++)
+        {
+            target.add(source[i]);
+        }
+    }
+
+    private static String randomString(Random random, int length)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+        {
+            sb.append((char) ('A' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+}
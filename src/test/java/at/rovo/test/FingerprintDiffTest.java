@@ -0,0 +1,97 @@
+package at.rovo.test;
+
+import at.rovo.diff.FingerprintDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link FingerprintDiff} produces a shortest edit script and repairs matches of colliding fingerprints.
+ *
+ * @author Roman Vottner
+ */
+public class FingerprintDiffTest
+{
+    /**
+     * Compares random inputs with the edit scripts of {@link LinearDiff}.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testShortestEditScript() throws Exception
+    {
+        Random random = new Random(47);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(100));
+            String[] b = TestData.randomTokens(random, random.nextInt(100));
+
+            Results<String> res = FingerprintDiff.Compare(Arrays.asList(a), Arrays.asList(b), FingerprintDiff.FNV_1A,
+                                                          false);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+        }
+    }
+
+    /**
+     * Compares documents with a weak hash, whose collisions are repaired by the verification pass.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testCollisions() throws Exception
+    {
+        Random random = new Random(48);
+        for (int i = 0; i < 20; i++)
+        {
+            String[] a = TestData.document(random, 500);
+            String[] b = TestData.edit(random, a, 10);
+            List<String> listA = Arrays.asList(a);
+            List<String> listB = Arrays.asList(b);
+
+            Results<String> res = FingerprintDiff.Compare(listA, listB, String::length, true);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            for (Snake<String> snake : res.getSnakes())
+            {
+                for (int d = 0; d < snake.DiagonalLength; d++)
+                {
+                    int x = snake.XStart + snake.ADeleted + d;
+                    int y = snake.YStart + snake.BInserted + d;
+                    Assert.assertEquals(a[x], b[y]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetches only the changed elements of the second object via the reported positions.
+     */
+    @Test
+    public void testChangedPositions()
+    {
+        long[] a = {1, 2, 3, 4, 5, 6};
+        long[] b = {1, 2, 7, 4, 5, 6, 8};
+
+        Results<Long> res = FingerprintDiff.Compare(a, b);
+        StringBuilder inserted = new StringBuilder();
+        int deleted = 0;
+        for (Snake<Long> snake : res.getSnakes())
+        {
+            deleted += snake.ADeleted;
+            for (int y = snake.YStart; y < snake.YStart + snake.BInserted; y++)
+            {
+                inserted.append(b[y]);
+            }
+        }
+        Assert.assertEquals(1, deleted);
+        Assert.assertEquals("78", inserted.toString());
+    }
+}
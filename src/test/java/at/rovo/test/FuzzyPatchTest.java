@@ -0,0 +1,157 @@
+package at.rovo.test;
+
+import at.rovo.diff.FuzzyPatch;
+import at.rovo.diff.FuzzyPatchResult;
+import at.rovo.diff.LinearDiff;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link FuzzyPatch} relocates changes on a drifted base and reports offsets, fuzz and rejected changes.
+ *
+ * @author Roman Vottner
+ */
+public class FuzzyPatchTest
+{
+    private static final String[] ORIGINAL = lines(30);
+
+    /**
+     * Applies the patch to the base it was calculated for.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testApplyToOriginal() throws Exception
+    {
+        String[] modified = modify(ORIGINAL);
+        FuzzyPatch<String> patch = new FuzzyPatch<>(ORIGINAL, LinearDiff.Compare(ORIGINAL, modified), modified);
+
+        FuzzyPatchResult<String> result = patch.apply(ORIGINAL, 0);
+        Assert.assertEquals(Arrays.asList(modified), result.getTarget());
+        for (int i = 0; i < result.size(); i++)
+        {
+            Assert.assertEquals(FuzzyPatchResult.Status.APPLIED, result.getStatus(i));
+        }
+    }
+
+    /**
+     * Applies the patch to a base which got additional lines in front of and in between the changes.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testApplyWithOffset() throws Exception
+    {
+        String[] modified = modify(ORIGINAL);
+        FuzzyPatch<String> patch = new FuzzyPatch<>(ORIGINAL, LinearDiff.Compare(ORIGINAL, modified), modified);
+
+        List<String> drifted = new ArrayList<>(Arrays.asList(ORIGINAL));
+        drifted.add(19, "added in the middle");
+        drifted.add(0, "added at the top 1");
+        drifted.add(0, "added at the top 2");
+
+        List<String> expected = new ArrayList<>(Arrays.asList(modified));
+        expected.add(expected.indexOf("line 19"), "added in the middle");
+        expected.add(0, "added at the top 1");
+        expected.add(0, "added at the top 2");
+
+        FuzzyPatchResult<String> result = patch.apply(drifted.toArray(new String[0]), 0);
+        Assert.assertEquals(0, result.getRejectedCount());
+        Assert.assertEquals(FuzzyPatchResult.Status.APPLIED_WITH_OFFSET, result.getStatus(0));
+        Assert.assertEquals(2, result.getOffset(0));
+        Assert.assertEquals(expected, result.getTarget());
+    }
+
+    /**
+     * Applies the patch to a base whose context got changed so that the change only matches with reduced context.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testApplyWithFuzzAndReject() throws Exception
+    {
+        String[] modified = modify(ORIGINAL);
+        FuzzyPatch<String> patch = new FuzzyPatch<>(ORIGINAL, LinearDiff.Compare(ORIGINAL, modified), modified);
+
+        String[] drifted = ORIGINAL.clone();
+        // outermost context line of the first change
+        drifted[3] = "changed context";
+        // deleted line of the last change
+        drifted[25] = "changed deleted line";
+
+        Assert.assertEquals(FuzzyPatchResult.Status.REJECTED, patch.apply(drifted, 0).getStatus(0));
+
+        FuzzyPatchResult<String> result = patch.apply(drifted, 1);
+        Assert.assertEquals(FuzzyPatchResult.Status.APPLIED_WITH_OFFSET, result.getStatus(0));
+        Assert.assertEquals(1, result.getFuzz(0));
+        Assert.assertEquals(0, result.getOffset(0));
+        Assert.assertEquals(FuzzyPatchResult.Status.REJECTED, result.getStatus(result.size() - 1));
+        Assert.assertEquals(1, result.getRejectedCount());
+        Assert.assertTrue(result.getTarget().contains("changed deleted line"));
+        Assert.assertTrue(result.getTarget().contains("inserted after 5"));
+    }
+
+    /**
+     * Relocates a change whose window is shorter than the hashed key next to a change with a long window on a base
+     * which repeats its lines, so that neither lookup depends on the other's window length.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testApplyWithShortAndLongWindows() throws Exception
+    {
+        String[] original = lines(40);
+        List<String> lines = new ArrayList<>(Arrays.asList(original));
+        lines.remove(5);
+        for (int i = 19; i < 29; i++)
+        {
+            lines.set(i, "replaced " + i);
+        }
+        String[] modified = lines.toArray(new String[0]);
+        FuzzyPatch<String> patch = new FuzzyPatch<>(original, LinearDiff.Compare(original, modified), modified, 0);
+        Assert.assertEquals(2, patch.size());
+
+        // a partial copy in front of the original lines contains both windows except for the last deleted line
+        List<String> drifted = new ArrayList<>(Arrays.asList(original).subList(0, 29));
+        drifted.addAll(Arrays.asList(original));
+        List<String> expected = new ArrayList<>(Arrays.asList(original).subList(0, 29));
+        expected.remove(5);
+        expected.addAll(Arrays.asList(original));
+        expected.subList(28 + 20, 28 + 30).clear();
+        expected.addAll(28 + 20, Arrays.asList(modified).subList(19, 29));
+
+        FuzzyPatchResult<String> result = patch.apply(drifted.toArray(new String[0]), 0);
+        Assert.assertEquals(0, result.getRejectedCount());
+        Assert.assertEquals(FuzzyPatchResult.Status.APPLIED, result.getStatus(0));
+        Assert.assertEquals(FuzzyPatchResult.Status.APPLIED_WITH_OFFSET, result.getStatus(1));
+        Assert.assertEquals(29, result.getOffset(1));
+        Assert.assertEquals(expected, result.getTarget());
+    }
+
+    private static String[] modify(String[] original)
+    {
+        List<String> lines = new ArrayList<>(Arrays.asList(original));
+        // delete line 25, modify line 12 and insert after line 5
+        lines.remove(25);
+        lines.set(12, "modified 12");
+        lines.add(6, "inserted after 5");
+        return lines.toArray(new String[0]);
+    }
+
+    private static String[] lines(int count)
+    {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            lines[i] = "line " + i;
+        }
+        return lines;
+    }
+}
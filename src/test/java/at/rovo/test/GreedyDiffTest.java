@@ -0,0 +1,79 @@
+package at.rovo.test;
+
+import at.rovo.diff.DiffEngine;
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link GreedyDiff} falls back to linear space if the end points of its contours exceed the memory
+ * budget.
+ *
+ * @author Roman Vottner
+ */
+public class GreedyDiffTest
+{
+    /**
+     * Compares random inputs with a budget which is exceeded by most comparisons.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testFallback() throws Exception
+    {
+        Random random = new Random(43);
+        int fallbacks = 0;
+        for (int i = 0; i < 300; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(60));
+            String[] b = TestData.randomTokens(random, random.nextInt(60));
+            if (random.nextBoolean() && a.length > 0)
+            {
+                // a common prefix and suffix which are reused after the fallback
+                a[0] = "prefix";
+                a[a.length - 1] = "suffix";
+                b = TestData.randomTokens(random, random.nextInt(60) + 2);
+                b[0] = "prefix";
+                b[b.length - 1] = "suffix";
+            }
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+
+            for (boolean forward : new boolean[] {true, false})
+            {
+                Results<String> res = GreedyDiff.Compare(a, b, forward, 500);
+                Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+                Assert.assertEquals(shortest, TestData.edits(res));
+                if (res.getEngine() == DiffEngine.LINEAR)
+                {
+                    Assert.assertNull(forward ? res.getForwardVs() : res.getReverseVs());
+                    fallbacks++;
+                }
+            }
+        }
+        Assert.assertTrue(fallbacks > 100);
+    }
+
+    /**
+     * Compares inputs whose contours fit into the budget.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testWithinBudget() throws Exception
+    {
+        Random random = new Random(44);
+        String[] a = TestData.randomTokens(random, 40);
+        String[] b = TestData.randomTokens(random, 40);
+
+        Results<String> res = GreedyDiff.Compare(a, b, true, 1 << 20);
+        Assert.assertEquals(DiffEngine.GREEDY, res.getEngine());
+        Assert.assertEquals(GreedyDiff.Compare(a, b, true).getSnakes().toString(), res.getSnakes().toString());
+        Assert.assertEquals(DiffEngine.LINEAR, GreedyDiff.Compare(a, b, false, 64).getEngine());
+    }
+}
@@ -0,0 +1,125 @@
+package at.rovo.test;
+
+import at.rovo.diff.Granularity;
+import at.rovo.diff.HierarchicalDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link HierarchicalDiff} produces a valid edit script which is about as short as the one of {@link
+ * LinearDiff}.
+ *
+ * @author Roman Vottner
+ */
+public class HierarchicalDiffTest
+{
+    /** Splits the tokens into blocks and the blocks into lines **/
+    private static final List<Granularity<String>> LEVELS =
+            Arrays.asList(Granularity.endingWith("</p>"::equals), Granularity.endingWith("\n"::equals));
+
+    /**
+     * Compares a small example where a single word of the second block changed.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testChangedWord() throws Exception
+    {
+        String[] a = {"<p>", "a", "b", "\n", "c", "</p>", "<p>", "d", "e", "\n", "f", "</p>"};
+        String[] b = {"<p>", "a", "b", "\n", "c", "</p>", "<p>", "d", "x", "\n", "f", "</p>", "<p>", "g", "</p>"};
+
+        Results<String> res = HierarchicalDiff.Compare(a, b, LEVELS, null);
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        Assert.assertEquals(5, TestData.edits(res));
+    }
+
+    /**
+     * Compares large tokenized documents with a few changed words, sequentially and in parallel.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testLargeDocuments() throws Exception
+    {
+        Random random = new Random(46);
+        for (int i = 0; i < 5; i++)
+        {
+            String[] a = document(random, 2000);
+            String[] b = a.clone();
+            for (int e = 0; e < 30; e++)
+            {
+                int pos = random.nextInt(b.length);
+                if (b[pos].startsWith("word"))
+                {
+                    b[pos] = "edit " + e;
+                }
+            }
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+
+            for (boolean parallel : new boolean[] {false, true})
+            {
+                Results<String> res = parallel ? HierarchicalDiff.Compare(a, b, LEVELS)
+                                               : HierarchicalDiff.Compare(a, b, LEVELS, null);
+                Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+                int edits = TestData.edits(res);
+                Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 11 / 10);
+            }
+        }
+    }
+
+    /**
+     * Compares random inputs without any coarse level, which is a plain element-level comparison.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testNoLevels() throws Exception
+    {
+        Random random = new Random(47);
+        for (int i = 0; i < 100; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(80));
+            String[] b = TestData.randomTokens(random, random.nextInt(80));
+
+            Results<String> res = HierarchicalDiff.Compare(a, b, Collections.emptyList(), null);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+
+            res = HierarchicalDiff.Compare(a, b, LEVELS, null);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        }
+    }
+
+    /**
+     * Creates a tokenized document of the given number of blocks with a few lines of words each.
+     */
+    private static String[] document(Random random, int blocks)
+    {
+        List<String> tokens = new ArrayList<>();
+        for (int p = 0; p < blocks; p++)
+        {
+            tokens.add("<p>");
+            for (int l = random.nextInt(4); l >= 0; l--)
+            {
+                for (int w = random.nextInt(8); w >= 0; w--)
+                {
+                    tokens.add("word" + random.nextInt(50));
+                }
+                tokens.add("\n");
+            }
+            tokens.add("</p>");
+        }
+        return tokens.toArray(new String[tokens.size()]);
+    }
+}
@@ -0,0 +1,63 @@
+package at.rovo.test;
+
+import at.rovo.diff.HuntSzymanskiDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link HuntSzymanskiDiff} produces a shortest edit script.
+ *
+ * @author Roman Vottner
+ */
+public class HuntSzymanskiDiffTest
+{
+    /**
+     * Compares random inputs with the edit scripts of {@link LinearDiff}.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testShortestEditScript() throws Exception
+    {
+        Random random = new Random(41);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(60));
+            String[] b = TestData.randomTokens(random, random.nextInt(60));
+
+            Results<String> res = HuntSzymanskiDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+        }
+    }
+
+    /**
+     * Compares two large documents which share only a few lines.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testSparseMatches() throws Exception
+    {
+        String[] a = new String[20000];
+        String[] b = new String[30000];
+        for (int i = 0; i < a.length; i++)
+        {
+            a[i] = i % 1000 == 0 ? "shared " + i : "a" + i;
+        }
+        for (int j = 0; j < b.length; j++)
+        {
+            b[j] = j % 1500 == 0 ? "shared " + (j / 1500 * 1000) : "b" + j;
+        }
+
+        Results<String> res = HuntSzymanskiDiff.Compare(a, b);
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        Assert.assertEquals(a.length + b.length - 2 * 20, TestData.edits(res));
+    }
+}
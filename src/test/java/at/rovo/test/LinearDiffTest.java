@@ -0,0 +1,96 @@
+package at.rovo.test;
+
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.ParallelContour;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link LinearDiff} solves the rectangles of the edit graph without recursion and that the hybrid mode
+ * still finds a shortest edit script.
+ *
+ * @author Roman Vottner
+ */
+public class LinearDiffTest
+{
+    /**
+     * Compares inputs with many differences on a thread with a very small stack.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testSmallStack() throws Exception
+    {
+        Random random = new Random(44);
+        String[] a = TestData.randomTokens(random, 6000);
+        String[] b = TestData.randomTokens(random, 5000);
+
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                result.set(LinearDiff.Compare(a, b));
+            }
+            catch (Throwable t)
+            {
+                result.set(t);
+            }
+        }, "small-stack", 16 * 1024);
+        worker.start();
+        worker.join();
+
+        if (result.get() instanceof Throwable)
+        {
+            throw new AssertionError("Comparison failed", (Throwable) result.get());
+        }
+        @SuppressWarnings("unchecked")
+        Results<String> res = (Results<String>) result.get();
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+    }
+
+    /**
+     * Compares random inputs in hybrid mode with different cutoffs, sequentially and in parallel, with the edit scripts
+     * of the default comparison.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testHybrid() throws Exception
+    {
+        Random random = new Random(45);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            ParallelContour contour = new ParallelContour(pool, 8);
+            for (int i = 0; i < 300; i++)
+            {
+                String[] a = TestData.randomTokens(random, random.nextInt(120));
+                String[] b = TestData.randomTokens(random, random.nextInt(120));
+                int shortest = TestData.edits(LinearDiff.Compare(a, b));
+
+                for (int cutoff : new int[] {1, 16, LinearDiff.DEFAULT_CUTOFF, Integer.MAX_VALUE})
+                {
+                    Results<String> res = LinearDiff.Compare(a, b, null, cutoff);
+                    Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+                    Assert.assertEquals(shortest, TestData.edits(res));
+
+                    res = LinearDiff.Compare(a, b, contour, cutoff);
+                    Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+                    Assert.assertEquals(shortest, TestData.edits(res));
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package at.rovo.test;
+
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.ParallelContour;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks that calculating the k-lines of a contour in parallel via {@link ParallelContour} results in exactly the same
+ * snakes as the sequential comparison.
+ *
+ * @author Roman Vottner
+ */
+public class ParallelContourTest
+{
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Compares random inputs with a threshold that calculates almost every contour in parallel.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testIdenticalSnakes() throws Exception
+    {
+        Random random = new Random(39);
+        for (int threshold : new int[] {1, 2, 7})
+        {
+            ParallelContour contour = new ParallelContour(pool, threshold);
+            for (int i = 0; i < 200; i++)
+            {
+                String[] a = TestData.randomTokens(random, random.nextInt(120));
+                String[] b = TestData.randomTokens(random, random.nextInt(120));
+
+                assertIdentical(LinearDiff.Compare(a, b), LinearDiff.Compare(a, b, contour));
+                assertIdentical(GreedyDiff.Compare(a, b, true), GreedyDiff.Compare(a, b, true, contour));
+                assertIdentical(GreedyDiff.Compare(a, b, false), GreedyDiff.Compare(a, b, false, contour));
+            }
+        }
+    }
+
+    /**
+     * Compares larger inputs with many differences using the default threshold.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testLargeInputs() throws Exception
+    {
+        Random random = new Random(40);
+        ParallelContour contour = new ParallelContour(pool, 64);
+        for (int i = 0; i < 3; i++)
+        {
+            String[] a = TestData.randomTokens(random, 3000);
+            String[] b = TestData.randomTokens(random, 2500);
+
+            Results<String> res = LinearDiff.Compare(a, b, contour);
+            assertIdentical(LinearDiff.Compare(a, b), res);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        }
+    }
+
+    private static void assertIdentical(Results<String> expected, Results<String> actual)
+    {
+        List<Snake<String>> expectedSnakes = expected.getSnakes();
+        List<Snake<String>> actualSnakes = actual.getSnakes();
+        Assert.assertEquals(expectedSnakes.size(), actualSnakes.size());
+        for (int i = 0; i < expectedSnakes.size(); i++)
+        {
+            Assert.assertEquals(expectedSnakes.get(i).toString(), actualSnakes.get(i).toString());
+            Assert.assertEquals(expectedSnakes.get(i).isMiddlePoint(), actualSnakes.get(i).isMiddlePoint());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package at.rovo.test;
+
+import at.rovo.diff.EditScriptDecoder;
+import at.rovo.diff.EditScriptEncoder;
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.PatchComposer;
+import at.rovo.diff.Results;
+import at.rovo.diff.TokenCodec;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that {@link Patch} reconstructs the second object of a comparison from the first object and the edit script.
+ *
+ * @author Roman Vottner
+ */
+public class PatchTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Applies the results of all comparison algorithms for random inputs and compares the output with the second input.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the patch fails
+     */
+    @Test
+    public void testApplyResults() throws Exception
+    {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(30));
+            String[] b = TestData.randomTokens(random, random.nextInt(30));
+
+            Assert.assertArrayEquals(b, Patch.apply(a, GreedyDiff.Compare(a, b, true), b));
+            Assert.assertArrayEquals(b, Patch.apply(a, GreedyDiff.Compare(a, b, false), b));
+            Assert.assertArrayEquals(b, Patch.apply(a, LinearDiff.Compare(a, b), b));
+        }
+    }
+
+    /**
+     * Applies a serialized edit script, which contains the inserted tokens, without having access to the second input.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the patch fails
+     */
+    @Test
+    public void testApplySerialized() throws Exception
+    {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(50));
+            String[] b = TestData.randomTokens(random, random.nextInt(50));
+
+            Results<String> res = LinearDiff.Compare(a, b);
+            ByteBuffer script = EditScriptEncoder.encode(res.getSnakes(), b, TokenCodec.UTF8);
+
+            List<String> target = Patch.apply(a, new EditScriptDecoder<String>(script).inlineTokens(TokenCodec.UTF8));
+            Assert.assertEquals(Arrays.asList(b), target);
+        }
+    }
+
+    /**
+     * Applies a line based edit script directly on file level.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the patch fails
+     */
+    @Test
+    public void testApplyLinesToFileChannel() throws Exception
+    {
+        String[] a = {"<html>\n", "<body>\n", "<p>Simple Text</p>\n", "<a>Sister page</a>\n", "</body>\n", "</html>"};
+        String[] b = {"<html>\n", "<body>\n", "<p>Simple Text</p>\n", "<p>This page</p>\n", "</body>\n", "</html>"};
+
+        File base = folder.newFile("base.html");
+        File out = folder.newFile("target.html");
+        Files.write(base.toPath(), String.join("", a).getBytes(StandardCharsets.UTF_8));
+
+        Results<String> res = LinearDiff.Compare(a, b);
+        ByteBuffer script = EditScriptEncoder.encode(res.getSnakes(), b, TokenCodec.UTF8);
+
+        try (FileChannel in = FileChannel.open(base.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(out.toPath(), StandardOpenOption.WRITE))
+        {
+            final long[] offsets = Patch.lineOffsets(in);
+            Assert.assertEquals("Unexpected number of lines", a.length + 1, offsets.length);
+            EditScriptDecoder<String> decoder = new EditScriptDecoder<String>(script).inlineTokens(TokenCodec.UTF8);
+            Patch.apply(in, i -> offsets[i], a.length, decoder, TokenCodec.UTF8, target);
+        }
+
+        Assert.assertEquals(String.join("", b), new String(Files.readAllBytes(out.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Applies a byte based edit script directly on file level.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the patch fails
+     */
+    @Test
+    public void testApplyBytesToFileChannel() throws Exception
+    {
+        Random random = new Random(3);
+        byte[] original = new byte[2000];
+        random.nextBytes(original);
+        byte[] modified = original.clone();
+        for (int i = 0; i < 20; i++)
+        {
+            modified[random.nextInt(modified.length)] = (byte) random.nextInt();
+        }
+
+        Byte[] a = box(original);
+        Byte[] b = box(modified);
+
+        File base = folder.newFile("base.bin");
+        File out = folder.newFile("target.bin");
+        Files.write(base.toPath(), original);
+
+        Results<Byte> res = LinearDiff.Compare(a, b);
+        TokenCodec<Byte> codec = new TokenCodec<Byte>()
+        {
+            @Override
+            public byte[] encode(Byte token)
+            {
+                return new byte[] {token};
+            }
+
+            @Override
+            public Byte decode(byte[] data)
+            {
+                return data[0];
+            }
+        };
+        ByteBuffer script = EditScriptEncoder.encode(res.getSnakes(), b, codec);
+
+        try (FileChannel in = FileChannel.open(base.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(out.toPath(), StandardOpenOption.WRITE))
+        {
+            Patch.apply(in, i -> i, a.length, new EditScriptDecoder<Byte>(script).inlineTokens(codec), codec, target);
+        }
+
+        Assert.assertArrayEquals(modified, Files.readAllBytes(out.toPath()));
+    }
+
+    /**
+     * Composes a chain of edit scripts between random versions into a single edit script and applies it to the first
+     * version.
+     *
+     * @throws Exception
+     *         Thrown if either the comparison or the patch fails
+     */
+    @Test
+    public void testComposeChain() throws Exception
+    {
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++)
+        {
+            List<String[]> versions = new ArrayList<>();
+            versions.add(TestData.randomTokens(random, random.nextInt(30)));
+            List<Results<String>> chain = new ArrayList<>();
+            for (int v = 1; v < 5; v++)
+            {
+                String[] next = TestData.randomTokens(random, random.nextInt(30));
+                String[] previous = versions.get(versions.size() - 1);
+                chain.add(v % 2 == 0 ? LinearDiff.Compare(previous, next) : GreedyDiff.Compare(previous, next, false));
+                versions.add(next);
+            }
+
+            String[] first = versions.get(0);
+            String[] last = versions.get(versions.size() - 1);
+            Assert.assertArrayEquals(last, Patch.apply(first, PatchComposer.compose(chain), last));
+        }
+    }
+
+    private static Byte[] box(byte[] data)
+    {
+        Byte[] boxed = new Byte[data.length];
+        for (int i = 0; i < data.length; i++)
+        {
+            boxed[i] = data[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,75 @@
+package at.rovo.test;
+
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.PatienceDiff;
+import at.rovo.diff.Results;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link PatienceDiff} produces a valid edit script which is about as short as the one of {@link
+ * LinearDiff}.
+ *
+ * @author Roman Vottner
+ */
+public class PatienceDiffTest
+{
+    /**
+     * Compares a small example where the unique elements determine the alignment.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testUniqueAnchors() throws Exception
+    {
+        String[] a = {"{", "a", "}", "{", "b", "}", "{", "c", "}"};
+        String[] b = {"{", "b", "}", "{", "a", "}", "{", "c", "}", "{", "d", "}"};
+
+        Results<String> res = PatienceDiff.Compare(a, b);
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+    }
+
+    /**
+     * Compares large documents with a few scattered edits.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testLargeDocuments() throws Exception
+    {
+        Random random = new Random(37);
+        for (int i = 0; i < 5; i++)
+        {
+            String[] a = TestData.document(random, 20000);
+            String[] b = TestData.edit(random, a, 30);
+
+            Results<String> res = PatienceDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            int edits = TestData.edits(res);
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+            Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 11 / 10);
+        }
+    }
+
+    /**
+     * Compares random inputs with many repeated elements on the calling thread.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testRandomInputs() throws Exception
+    {
+        Random random = new Random(41);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(60));
+            String[] b = TestData.randomTokens(random, random.nextInt(60));
+            Assert.assertArrayEquals(b, Patch.apply(a, PatienceDiff.Compare(a, b, null), b));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package at.rovo.test;
+
+import at.rovo.diff.GreedyDiff;
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.PositionIndex;
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link PositionIndex} translates positions like following the path of the comparison element by element.
+ *
+ * @author Roman Vottner
+ */
+public class PositionIndexTest
+{
+    /**
+     * Translates the positions of a simple comparison.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testTranslate() throws Exception
+    {
+        PositionIndex index = new PositionIndex(LinearDiff.Compare("ABCABBA", "CBABAC"));
+        Assert.assertTrue(index.isDeleted(0));
+        Assert.assertEquals(-1, index.toNew(0));
+        Assert.assertEquals(0, index.toNew(2));
+        Assert.assertEquals(2, index.toOld(0));
+        Assert.assertEquals(4, index.toNew(6));
+        Assert.assertTrue(index.isInserted(5));
+        Assert.assertEquals(-1, index.toOld(5));
+    }
+
+    /**
+     * Compares single and batch translations of random comparisons with the positions along the path.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testRandomTranslations() throws Exception
+    {
+        Random random = new Random(17);
+        for (int i = 0; i < 300; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(40));
+            String[] b = TestData.randomTokens(random, random.nextInt(40));
+            for (Results<String> res : Arrays.asList(LinearDiff.Compare(a, b), GreedyDiff.Compare(a, b, true),
+                                                     GreedyDiff.Compare(a, b, false)))
+            {
+                int[] toNew = new int[a.length];
+                int[] toOld = new int[b.length];
+                follow(res, toNew, toOld);
+
+                PositionIndex index = new PositionIndex(res);
+                for (int x = 0; x < a.length; x++)
+                {
+                    Assert.assertEquals("Position " + x + " of " + Arrays.toString(a), toNew[x], index.toNew(x));
+                    Assert.assertEquals(toNew[x] < 0, index.isDeleted(x));
+                }
+                for (int y = 0; y < b.length; y++)
+                {
+                    Assert.assertEquals("Position " + y + " of " + Arrays.toString(b), toOld[y], index.toOld(y));
+                    Assert.assertEquals(toOld[y] < 0, index.isInserted(y));
+                }
+                Assert.assertArrayEquals(toNew, index.toNew(range(a.length)));
+                Assert.assertArrayEquals(toOld, index.toOld(range(b.length)));
+            }
+        }
+    }
+
+    /**
+     * Fills the translation tables by following the diagonals of the snakes.
+     */
+    private static void follow(Results<String> res, int[] toNew, int[] toOld)
+    {
+        Arrays.fill(toNew, -1);
+        Arrays.fill(toOld, -1);
+        for (Snake<String> snake : res.getSnakes())
+        {
+            int x = snake.IsForward ? snake.XStart + snake.ADeleted
+                                    : snake.XStart - snake.ADeleted - snake.DiagonalLength;
+            int y = snake.IsForward ? snake.YStart + snake.BInserted
+                                    : snake.YStart - snake.BInserted - snake.DiagonalLength;
+            for (int i = 0; i < snake.DiagonalLength; i++)
+            {
+                toNew[x + i] = y + i;
+                toOld[y + i] = x + i;
+            }
+        }
+    }
+
+    private static int[] range(int length)
+    {
+        int[] range = new int[length];
+        for (int i = 0; i < length; i++)
+        {
+            range[i] = i;
+        }
+        return range;
+    }
+}
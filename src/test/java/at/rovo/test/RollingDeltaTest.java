@@ -0,0 +1,138 @@
+package at.rovo.test;
+
+import at.rovo.diff.BlockSignature;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.RollingDelta;
+import at.rovo.diff.Snake;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link RollingDelta} finds the unchanged blocks of a file only known by its {@link BlockSignature}.
+ *
+ * @author Roman Vottner
+ */
+public class RollingDeltaTest
+{
+    /**
+     * Creates the signature from a buffer and from a channel and restores it from its serialized form.
+     *
+     * @throws Exception
+     *         Thrown if the signature could not be read
+     */
+    @Test
+    public void testSignature() throws Exception
+    {
+        byte[] a = TestData.randomBytes(new Random(1), 1000);
+        BlockSignature signature = BlockSignature.compute(ByteBuffer.wrap(a), 64);
+        Assert.assertEquals(16, signature.getBlockCount());
+        Assert.assertEquals(40, signature.getBlockLength(15));
+
+        BlockSignature streamed = BlockSignature.compute(Channels.newChannel(new ByteArrayInputStream(a)), 64);
+        Assert.assertEquals(signature.toByteBuffer(), streamed.toByteBuffer());
+
+        BlockSignature restored = BlockSignature.fromByteBuffer(signature.toByteBuffer());
+        Assert.assertEquals(signature.toByteBuffer(), restored.toByteBuffer());
+        Assert.assertEquals(1000, restored.getLength());
+    }
+
+    /**
+     * Reconstructs modified versions of random files from the original file and the calculated result and checks that
+     * the unchanged blocks were found.
+     */
+    @Test
+    public void testModifiedFiles()
+    {
+        Random random = new Random(5);
+        for (int i = 0; i < 50; i++)
+        {
+            byte[] a = TestData.randomBytes(random, random.nextInt(5000));
+            byte[] b = a.clone();
+            int edits = random.nextInt(4);
+            for (int e = 0; e < edits; e++)
+            {
+                b = edit(random, b);
+            }
+            int blockSize = 16 + random.nextInt(100);
+
+            Results<Byte> res = RollingDelta.compare(BlockSignature.compute(ByteBuffer.wrap(a), blockSize), b);
+            Byte[] patched = Patch.apply(box(a), res, box(b));
+            Assert.assertArrayEquals("Patched file " + i + " differs", box(b), patched);
+
+            int matched = 0;
+            for (Snake<Byte> snake : res.getSnakes())
+            {
+                matched += snake.DiagonalLength;
+            }
+            // every edit destroys at most two blocks plus the block affected by the shift of the partial last block
+            int expected = a.length - blockSize * (2 * edits + 1) - 200 * edits;
+            Assert.assertTrue("Only " + matched + " of " + a.length + " bytes matched", matched >= expected);
+        }
+    }
+
+    /**
+     * Compares identical and completely different files.
+     */
+    @Test
+    public void testEdgeCases()
+    {
+        byte[] a = TestData.randomBytes(new Random(9), 777);
+        BlockSignature signature = BlockSignature.compute(ByteBuffer.wrap(a), 100);
+
+        Results<Byte> same = RollingDelta.compare(signature, a);
+        Assert.assertEquals(1, same.getSnakes().size());
+        Assert.assertEquals(777, same.getSnakes().get(0).DiagonalLength);
+
+        byte[] other = TestData.randomBytes(new Random(10), 300);
+        Assert.assertArrayEquals(box(other), Patch.apply(box(a), RollingDelta.compare(signature, other), box(other)));
+        Assert.assertArrayEquals(new Byte[0], Patch.apply(box(a), RollingDelta.compare(signature, new byte[0]),
+                                                          new Byte[0]));
+        BlockSignature empty = BlockSignature.compute(ByteBuffer.wrap(new byte[0]), 100);
+        Assert.assertArrayEquals(box(a), Patch.apply(new Byte[0], RollingDelta.compare(empty, a), box(a)));
+    }
+
+    /**
+     * Inserts, deletes or replaces a random range of up to 200 bytes.
+     */
+    private static byte[] edit(Random random, byte[] data)
+    {
+        int pos = data.length == 0 ? 0 : random.nextInt(data.length);
+        int length = Math.min(random.nextInt(200), data.length - pos);
+        byte[] insert = TestData.randomBytes(random, random.nextInt(200));
+        switch (random.nextInt(3))
+        {
+            case 0:
+                return concat(Arrays.copyOfRange(data, 0, pos), insert, Arrays.copyOfRange(data, pos, data.length));
+            case 1:
+                return concat(Arrays.copyOfRange(data, 0, pos), new byte[0],
+                              Arrays.copyOfRange(data, pos + length, data.length));
+            default:
+                return concat(Arrays.copyOfRange(data, 0, pos), insert,
+                              Arrays.copyOfRange(data, pos + length, data.length));
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b, byte[] c)
+    {
+        byte[] result = Arrays.copyOf(a, a.length + b.length + c.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        System.arraycopy(c, 0, result, a.length + b.length, c.length);
+        return result;
+    }
+
+    private static Byte[] box(byte[] bytes)
+    {
+        Byte[] boxed = new Byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            boxed[i] = bytes[i];
+        }
+        return boxed;
+    }
+}
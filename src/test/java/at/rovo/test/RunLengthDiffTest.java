@@ -0,0 +1,168 @@
+package at.rovo.test;
+
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.RunLengthDiff;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link RunLengthDiff} produces a valid edit script which is about as short as the one of {@link
+ * LinearDiff}.
+ *
+ * @author Roman Vottner
+ */
+public class RunLengthDiffTest
+{
+    /**
+     * Compares a small example where runs of blank lines grew and shrank.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testPartialRuns() throws Exception
+    {
+        String[] a = {"a", "", "", "", "b", "", "", "c", "<td></td>", "<td></td>"};
+        String[] b = {"a", "", "", "", "", "b", "", "d", "<td></td>", "<td></td>", "<td></td>"};
+
+        Results<String> res = RunLengthDiff.Compare(a, b);
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+    }
+
+    /**
+     * Compares random inputs with long runs of a few distinct elements.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testRandomRuns() throws Exception
+    {
+        Random random = new Random(48);
+        for (int i = 0; i < 200; i++)
+        {
+            String[] a = runs(random, random.nextInt(40));
+            String[] b = random.nextBoolean() ? runs(random, random.nextInt(40)) : TestData.edit(random, a, 3);
+
+            Results<String> res = RunLengthDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(0, TestData.edits(RunLengthDiff.Compare(a, a)));
+        }
+    }
+
+    /**
+     * Compares documents with a few edits and long runs of blank lines.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testDocuments() throws Exception
+    {
+        Random random = new Random(49);
+        for (int i = 0; i < 5; i++)
+        {
+            List<String> lines = new ArrayList<>();
+            for (String line : TestData.document(random, 2000))
+            {
+                lines.add(line);
+                for (int r = random.nextInt(4) == 0 ? random.nextInt(50) : 0; r > 0; r--)
+                {
+                    lines.add("");
+                }
+            }
+            String[] a = lines.toArray(new String[lines.size()]);
+            String[] b = TestData.edit(random, a, 20);
+
+            Results<String> res = RunLengthDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            int edits = TestData.edits(res);
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+            Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 11 / 10);
+        }
+    }
+
+    /**
+     * Compares random inputs with long runs, half of them unrelated and half of them with edits of whole stretches of
+     * elements, and bounds the length of the edit scripts by the shortest ones of {@link LinearDiff}.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testEditDistance() throws Exception
+    {
+        Random random = new Random(50);
+        int total = 0;
+        int shortestTotal = 0;
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = runs(random, 1 + random.nextInt(60));
+            String[] b = random.nextBoolean() ? runs(random, 1 + random.nextInt(60)) : editRuns(random, a);
+
+            Results<String> res = RunLengthDiff.Compare(a, b);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            int edits = TestData.edits(res);
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+            Assert.assertTrue(edits + " edits compared to " + shortest, edits <= shortest * 2);
+            total += edits;
+            shortestTotal += shortest;
+        }
+        Assert.assertTrue(total + " edits compared to " + shortestTotal, total <= shortestTotal * 1001L / 1000);
+    }
+
+    /**
+     * Deletes, inserts or replaces up to five stretches of up to 20 elements.
+     */
+    private static String[] editRuns(Random random, String[] a)
+    {
+        List<String> elements = new ArrayList<>(Arrays.asList(a));
+        for (int e = 1 + random.nextInt(5); e > 0; e--)
+        {
+            int pos = random.nextInt(elements.size() + 1);
+            int length = 1 + random.nextInt(20);
+            String value = "" + (char) ('a' + random.nextInt(3));
+            int operation = pos == elements.size() ? 1 : random.nextInt(3);
+            for (int l = 0; l < length; l++)
+            {
+                if (operation == 0 && pos < elements.size())
+                {
+                    elements.remove(pos);
+                }
+                else if (operation == 1)
+                {
+                    elements.add(pos, value);
+                }
+                else if (operation == 2 && pos + l < elements.size())
+                {
+                    elements.set(pos + l, value);
+                }
+            }
+        }
+        return elements.toArray(new String[elements.size()]);
+    }
+
+    /**
+     * Creates the given number of runs of up to 20 equal elements out of three distinct ones.
+     */
+    private static String[] runs(Random random, int count)
+    {
+        List<String> elements = new ArrayList<>();
+        for (int r = 0; r < count; r++)
+        {
+            String value = "" + (char) ('a' + random.nextInt(3));
+            for (int l = 1 + random.nextInt(20); l > 0; l--)
+            {
+                elements.add(value);
+            }
+        }
+        return elements.toArray(new String[elements.size()]);
+    }
+}
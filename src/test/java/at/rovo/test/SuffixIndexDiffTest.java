@@ -0,0 +1,66 @@
+package at.rovo.test;
+
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.SuffixIndexDiff;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link SuffixIndexDiff} produces a shortest edit script.
+ *
+ * @author Roman Vottner
+ */
+public class SuffixIndexDiffTest
+{
+    /**
+     * Compares random inputs in both directions with the edit scripts of {@link LinearDiff}.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testShortestEditScript() throws Exception
+    {
+        Random random = new Random(49);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(100));
+            String[] b = random.nextBoolean() ? TestData.randomTokens(random, random.nextInt(100))
+                                              : TestData.edit(random, a, 3);
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+
+            Results<String> res = SuffixIndexDiff.Compare(a, b, true);
+            Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+            Assert.assertEquals(shortest, TestData.edits(res));
+
+            res = SuffixIndexDiff.Compare(b, a, true);
+            Assert.assertArrayEquals(a, Patch.apply(b, res, a));
+            Assert.assertEquals(shortest, TestData.edits(res));
+        }
+    }
+
+    /**
+     * Compares long repetitive inputs with a few edits, whose diagonals are walked on the interned ids.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testLongRepetitiveInputs() throws Exception
+    {
+        Random random = new Random(50);
+        String[] a = new String[SuffixIndexDiff.MIN_LENGTH];
+        for (int i = 0; i < a.length; i++)
+        {
+            a[i] = "token " + i % 4;
+        }
+        String[] b = TestData.edit(random, a, 20);
+
+        Results<String> res = SuffixIndexDiff.Compare(a, b);
+        Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+        Assert.assertEquals(TestData.edits(LinearDiff.Compare(a, b)), TestData.edits(res));
+    }
+}
@@ -0,0 +1,124 @@
+package at.rovo.test;
+
+import at.rovo.diff.Results;
+import at.rovo.diff.Snake;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the random inputs the tests compare and counts the edits of their results.
+ *
+ * @author Roman Vottner
+ */
+class TestData
+{
+    /** prevent initializations of the util class **/
+    private TestData()
+    {
+
+    }
+
+    /**
+     * Creates tokens out of 5 distinct values, so that random objects share many of their elements.
+     */
+    static String[] randomTokens(Random random, int length)
+    {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < length; i++)
+        {
+            tokens.add("t" + random.nextInt(5));
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Creates random bytes.
+     */
+    static byte[] randomBytes(Random random, int length)
+    {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Creates a document whose lines are drawn out of half as many distinct lines.
+     */
+    static String[] document(Random random, int lines)
+    {
+        String[] document = new String[lines];
+        for (int i = 0; i < lines; i++)
+        {
+            document[i] = "line " + random.nextInt(lines / 2);
+        }
+        return document;
+    }
+
+    /**
+     * Replaces the given number of stretches of up to 9 lines by up to 9 new lines each.
+     */
+    static String[] edit(Random random, String[] a, int edits)
+    {
+        List<String> lines = new ArrayList<>(Arrays.asList(a));
+        for (int e = 0; e < edits; e++)
+        {
+            int pos = lines.isEmpty() ? 0 : random.nextInt(lines.size());
+            int length = Math.min(random.nextInt(10), lines.size() - pos);
+            lines.subList(pos, pos + length).clear();
+            for (int i = random.nextInt(10); i > 0; i--)
+            {
+                lines.add(pos, "edit " + e + "." + i);
+            }
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * Creates a history of versions where each version changes a few lines of its predecessor.
+     */
+    static List<String[]> history(Random random, int versions)
+    {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+        {
+            lines.add("line " + i + " of the original page");
+        }
+        List<String[]> history = new ArrayList<>(versions);
+        for (int v = 0; v < versions; v++)
+        {
+            history.add(lines.toArray(new String[lines.size()]));
+            for (int c = 0; c < 3; c++)
+            {
+                int pos = random.nextInt(lines.size());
+                switch (random.nextInt(3))
+                {
+                    case 0:
+                        lines.remove(pos);
+                        break;
+                    case 1:
+                        lines.add(pos, "line added in version " + v);
+                        break;
+                    default:
+                        lines.set(pos, "line changed in version " + v);
+                        break;
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Counts the deleted and inserted elements of a comparison result.
+     */
+    static int edits(Results<?> res)
+    {
+        int edits = 0;
+        for (Snake<?> snake : res.getSnakes())
+        {
+            edits += snake.ADeleted + snake.BInserted;
+        }
+        return edits;
+    }
+}
@@ -0,0 +1,128 @@
+package at.rovo.test;
+
+import at.rovo.diff.MergeChunk;
+import at.rovo.diff.MergeResult;
+import at.rovo.diff.ThreeWayMerge;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that {@link ThreeWayMerge} combines independent changes of two versions and reports overlapping ones as
+ * conflicts.
+ *
+ * @author Roman Vottner
+ */
+public class ThreeWayMergeTest
+{
+    private static final String[] BASE = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+
+    /**
+     * Merges changes of both versions which affect different regions of the base.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testMergeIndependentChanges() throws Exception
+    {
+        String[] ours = {"a", "B", "c", "d", "e", "f", "g", "h", "i", "j", "k"};
+        String[] theirs = {"a", "b", "c", "d", "e", "x", "y", "g", "h", "i", "j"};
+
+        MergeResult<String> result = ThreeWayMerge.merge(BASE, ours, theirs);
+        Assert.assertFalse("Unexpected conflict", result.hasConflicts());
+        Assert.assertEquals(Arrays.asList("a", "B", "c", "d", "e", "x", "y", "g", "h", "i", "j", "k"),
+                            result.getMerged());
+
+        List<MergeChunk<String>> chunks = result.getChunks();
+        Assert.assertEquals("Unexpected number of chunks: " + chunks, 6, chunks.size());
+        Assert.assertEquals(MergeChunk.Kind.OURS, chunks.get(1).getKind());
+        Assert.assertEquals(MergeChunk.Kind.THEIRS, chunks.get(3).getKind());
+        Assert.assertEquals(MergeChunk.Kind.OURS, chunks.get(5).getKind());
+        Assert.assertEquals(Arrays.asList("f"), chunks.get(3).getBaseTokens());
+        Assert.assertEquals(Arrays.asList("x", "y"), chunks.get(3).getTheirsTokens());
+    }
+
+    /**
+     * Takes over a change which was applied identically by both versions.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testMergeSameChange() throws Exception
+    {
+        String[] ours = {"a", "b", "c", "X", "e", "f", "g", "h", "i"};
+        String[] theirs = {"a", "b", "c", "X", "e", "f", "g", "H", "i", "j"};
+
+        MergeResult<String> result = ThreeWayMerge.merge(BASE, ours, theirs);
+        Assert.assertFalse("Unexpected conflict", result.hasConflicts());
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "X", "e", "f", "g", "H", "i"), result.getMerged());
+        Assert.assertEquals(MergeChunk.Kind.BOTH, result.getChunks().get(1).getKind());
+    }
+
+    /**
+     * Reports overlapping changes of both versions as conflict including the affected ranges.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testConflict() throws Exception
+    {
+        String[] ours = {"a", "b", "c", "1", "2", "f", "g", "h", "i", "j"};
+        String[] theirs = {"a", "b", "c", "d", "3", "f", "g", "h", "I", "j"};
+
+        MergeResult<String> result = ThreeWayMerge.merge(BASE, ours, theirs);
+        Assert.assertTrue("Conflict not detected", result.hasConflicts());
+        List<MergeChunk<String>> conflicts = result.getConflicts();
+        Assert.assertEquals("Unexpected conflicts: " + conflicts, 1, conflicts.size());
+
+        MergeChunk<String> conflict = conflicts.get(0);
+        Assert.assertEquals(3, conflict.getBaseStart());
+        Assert.assertEquals(5, conflict.getBaseEnd());
+        Assert.assertEquals(Arrays.asList("1", "2"), conflict.getOursTokens());
+        Assert.assertEquals(Arrays.asList("d", "3"), conflict.getTheirsTokens());
+
+        MergeChunk<String> last = result.getChunks().get(result.getChunks().size() - 2);
+        Assert.assertEquals(MergeChunk.Kind.THEIRS, last.getKind());
+        Assert.assertEquals(Arrays.asList("I"), last.getTokens());
+
+        try
+        {
+            result.getMerged();
+            Assert.fail("Merging a result with conflicts should fail");
+        }
+        catch (IllegalStateException isEx)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * Takes over an identical change whose elements got ids beyond the range of the cached {@link Integer} instances.
+     *
+     * @throws Exception
+     *         Thrown if the comparison fails
+     */
+    @Test
+    public void testMergeSameChangeWithLargeIds() throws Exception
+    {
+        String[] base = new String[300];
+        for (int i = 0; i < base.length; i++)
+        {
+            base[i] = "line " + i;
+        }
+        String[] ours = base.clone();
+        ours[250] = "changed";
+        ours[280] = "ours only";
+        String[] theirs = base.clone();
+        theirs[250] = "changed";
+
+        MergeResult<String> result = ThreeWayMerge.merge(base, ours, theirs);
+        Assert.assertFalse("Unexpected conflict", result.hasConflicts());
+        Assert.assertEquals(Arrays.asList(ours), result.getMerged());
+        Assert.assertEquals(MergeChunk.Kind.BOTH, result.getChunks().get(1).getKind());
+    }
+}
@@ -0,0 +1,121 @@
+package at.rovo.test;
+
+import at.rovo.diff.TokenCodec;
+import at.rovo.diff.VersionStore;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that {@link VersionStore} reconstructs every stored version from its keyframes and deltas.
+ *
+ * @author Roman Vottner
+ */
+public class VersionStoreTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Stores a history of slowly changing versions and reads every version back, also after reopening the store.
+     *
+     * @throws Exception
+     *         Thrown if a version could not be stored or read
+     */
+    @Test
+    public void testReadAllVersions() throws Exception
+    {
+        Path directory = this.folder.newFolder().toPath();
+        List<String[]> history = TestData.history(new Random(3), 40);
+
+        try (VersionStore<String> store = new VersionStore<>(directory, TokenCodec.UTF8, String[]::new, 8))
+        {
+            for (int i = 0; i < 25; i++)
+            {
+                Assert.assertEquals(i, store.add(i * 10, history.get(i)));
+            }
+            for (int i = 0; i < 25; i++)
+            {
+                Assert.assertArrayEquals("Version " + i + " differs", history.get(i), store.get(i));
+                Assert.assertEquals("Unexpected keyframe flag of version " + i, i % 8 == 0, store.isKeyframe(i));
+            }
+        }
+
+        try (VersionStore<String> store = new VersionStore<>(directory, TokenCodec.UTF8, String[]::new, 8))
+        {
+            Assert.assertEquals(25, store.size());
+            for (int i = 25; i < history.size(); i++)
+            {
+                store.add(i * 10, history.get(i));
+            }
+            for (int i = history.size() - 1; i >= 0; i--)
+            {
+                Assert.assertArrayEquals("Version " + i + " differs", history.get(i), store.get(i));
+                Assert.assertEquals("Unexpected keyframe flag of version " + i, i % 8 == 0, store.isKeyframe(i));
+            }
+        }
+    }
+
+    /**
+     * Looks up versions by their timestamp.
+     *
+     * @throws Exception
+     *         Thrown if a version could not be stored or read
+     */
+    @Test
+    public void testLookupByTimestamp() throws Exception
+    {
+        List<String[]> history = TestData.history(new Random(5), 10);
+        try (VersionStore<String> store = new VersionStore<>(this.folder.newFolder().toPath(), TokenCodec.UTF8,
+                                                             String[]::new, 4))
+        {
+            for (int i = 0; i < history.size(); i++)
+            {
+                store.add(100 + i * 10, history.get(i));
+            }
+            Assert.assertNull(store.getAt(99));
+            Assert.assertEquals(0, store.indexOf(100));
+            Assert.assertEquals(0, store.indexOf(109));
+            Assert.assertEquals(5, store.indexOf(150));
+            Assert.assertEquals(9, store.indexOf(Long.MAX_VALUE));
+            Assert.assertArrayEquals(history.get(6), store.getAt(165));
+        }
+    }
+
+    /**
+     * Checks that deltas need less space than storing every version in full.
+     *
+     * @throws Exception
+     *         Thrown if a version could not be stored
+     */
+    @Test
+    public void testDeltasSaveSpace() throws Exception
+    {
+        List<String[]> history = TestData.history(new Random(11), 30);
+        long full;
+        long delta;
+        try (VersionStore<String> store = new VersionStore<>(this.folder.newFolder().toPath(), TokenCodec.UTF8,
+                                                             String[]::new, 1))
+        {
+            for (int i = 0; i < history.size(); i++)
+            {
+                store.add(i, history.get(i));
+            }
+            full = store.getStorageSize();
+        }
+        try (VersionStore<String> store = new VersionStore<>(this.folder.newFolder().toPath(), TokenCodec.UTF8,
+                                                             String[]::new, 16))
+        {
+            for (int i = 0; i < history.size(); i++)
+            {
+                store.add(i, history.get(i));
+            }
+            delta = store.getStorageSize();
+        }
+        Assert.assertTrue("Deltas need " + delta + " bytes compared to " + full + " bytes", delta * 4 < full);
+    }
+}
@@ -0,0 +1,75 @@
+package at.rovo.test;
+
+import at.rovo.diff.LinearDiff;
+import at.rovo.diff.Patch;
+import at.rovo.diff.Results;
+import at.rovo.diff.WuDiff;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that both variants of {@link WuDiff} produce a shortest edit script.
+ *
+ * @author Roman Vottner
+ */
+public class WuDiffTest
+{
+    /**
+     * Compares random inputs in both directions with the edit scripts of {@link LinearDiff}.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testShortestEditScript() throws Exception
+    {
+        Random random = new Random(40);
+        for (int i = 0; i < 500; i++)
+        {
+            String[] a = TestData.randomTokens(random, random.nextInt(60));
+            String[] b = TestData.randomTokens(random, random.nextInt(60));
+            int shortest = TestData.edits(LinearDiff.Compare(a, b));
+
+            for (boolean linearSpace : new boolean[] {false, true})
+            {
+                Results<String> res = WuDiff.Compare(a, b, linearSpace);
+                Assert.assertArrayEquals(b, Patch.apply(a, res, b));
+                Assert.assertEquals(shortest, TestData.edits(res));
+
+                res = WuDiff.Compare(b, a, linearSpace);
+                Assert.assertArrayEquals(a, Patch.apply(b, res, a));
+                Assert.assertEquals(shortest, TestData.edits(res));
+            }
+        }
+    }
+
+    /**
+     * Compares a small document with a much larger version of it.
+     *
+     * @throws Exception
+     *         Thrown if a comparison fails
+     */
+    @Test
+    public void testDifferentLengths() throws Exception
+    {
+        Random random = new Random(41);
+        String[] a = TestData.document(random, 200);
+        String[] comments = TestData.document(random, 50000);
+        String[] b = TestData.edit(random, a, 5);
+        String[] grown = Arrays.copyOf(b, b.length + comments.length);
+        System.arraycopy(comments, 0, grown, b.length, comments.length);
+
+        for (boolean linearSpace : new boolean[] {false, true})
+        {
+            Results<String> res = WuDiff.Compare(a, grown, linearSpace);
+            Assert.assertArrayEquals(grown, Patch.apply(a, res, grown));
+            int edits = TestData.edits(LinearDiff.Compare(a, b));
+            Assert.assertTrue(TestData.edits(res) <= edits + comments.length);
+
+            Assert.assertEquals(0, TestData.edits(WuDiff.Compare(grown, grown, linearSpace)));
+            Assert.assertEquals(a.length, TestData.edits(WuDiff.Compare(a, new String[0], linearSpace)));
+        }
+    }
+}